@@ -0,0 +1,204 @@
+package vfuzz.core;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code ExecutionModeBenchmark} class compares the two ways the consumers can drive requests: callbacks that
+ * hand the response to a parsing pool, and one virtual thread per request that blocks until its response has
+ * arrived, as with {@code --virtual-threads}.
+ *
+ * <p>The transport is simulated: every request completes after a fixed latency of 100 milliseconds on a timer, so the
+ * numbers show the cost of the execution mode alone. Like the scan, 10 consumer threads hand out the requests, and at
+ * most {@code inFlight} of them are in flight at once, which allows at most {@code inFlight * 10} requests per
+ * second. The latency of a request is measured from its admission to its parsing. While a mode runs, the used heap
+ * and the number of platform threads are sampled every 20 milliseconds.
+ *
+ * <p>Virtual threads need Java 21 and the Java 21 version of {@link VirtualThreads}, which is only loaded from the
+ * multi-release jar. Usage, from the project directory, with JDK 21:
+ * <pre>
+ * mvn -B package dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -Xmx1g -cp "target/VFuzz-0.0.1-SNAPSHOT.jar:target/test-classes:$(cat target/classpath.txt)" vfuzz.core.ExecutionModeBenchmark [callbacks|virtual] [inFlight] [requests]
+ * </pre>
+ * The defaults are both modes, 10000 in flight and 300000 requests. Each mode runs twice; the first run warms up the
+ * JIT.
+ */
+public final class ExecutionModeBenchmark {
+
+    private static final long LATENCY_MILLIS = 100;
+    private static final int CONSUMERS = 10;
+    private static final int PARSER_THREADS = 5;
+
+    private static final ScheduledExecutorService server = Executors.newScheduledThreadPool(4, runnable -> {
+        Thread thread = new Thread(runnable, "benchmark-server");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ExecutionModeBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] modes = args.length > 0 ? new String[]{args[0]} : new String[]{"callbacks", "virtual"};
+        int inFlight = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 300_000;
+
+        System.out.printf("%d requests, %d in flight, %d ms latency, at most %d requests per second:%n",
+                requests, inFlight, LATENCY_MILLIS, inFlight * 1000 / LATENCY_MILLIS);
+        for (String mode : modes) {
+            if (mode.equals("virtual") && !VirtualThreads.isSupported()) {
+                System.out.println("virtual: not supported, run the multi-release jar on Java 21 or newer");
+                continue;
+            }
+            for (int round = 0; round < 2; round++) {
+                Run run = new Run(requests);
+                run.measure(mode, inFlight);
+                if (round > 0) {
+                    run.print(mode);
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Sends a simulated request.
+     *
+     * @return A future that completes with a status code after the latency.
+     */
+    private static CompletableFuture<Integer> send() {
+        CompletableFuture<Integer> response = new CompletableFuture<>();
+        server.schedule(() -> response.complete(404), LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+        return response;
+    }
+
+    /**
+     * One run of a mode, with its measurements.
+     */
+    private static final class Run {
+
+        private final int requests;
+        private final long[] latencies;
+        private final AtomicInteger parsed = new AtomicInteger();
+        private final AtomicInteger next = new AtomicInteger();
+        private final CountDownLatch done;
+        private final AtomicLong peakHeap = new AtomicLong();
+        private final AtomicInteger peakThreads = new AtomicInteger();
+        private double seconds;
+
+        Run(int requests) {
+            this.requests = requests;
+            this.latencies = new long[requests];
+            this.done = new CountDownLatch(requests);
+        }
+
+        void measure(String mode, int inFlight) throws InterruptedException {
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+            sampler.scheduleAtFixedRate(() -> {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+            }, 0, 20, TimeUnit.MILLISECONDS);
+            System.gc();
+
+            Semaphore permits = new Semaphore(inFlight);
+            ExecutorService[] parsers = new ExecutorService[CONSUMERS];
+            ExecutorService virtualThreads = mode.equals("virtual") ? VirtualThreads.newThreadPerTaskExecutor("request-") : null;
+            long start = System.nanoTime();
+            for (int i = 0; i < CONSUMERS; i++) {
+                if (virtualThreads != null) {
+                    new Thread(() -> consumeVirtual(permits, virtualThreads), "benchmark-consumer").start();
+                } else {
+                    parsers[i] = Executors.newFixedThreadPool(PARSER_THREADS);
+                    ExecutorService parser = parsers[i];
+                    new Thread(() -> consumeCallbacks(permits, parser), "benchmark-consumer").start();
+                }
+            }
+            done.await();
+            seconds = (System.nanoTime() - start) / 1e9;
+
+            sampler.shutdownNow();
+            for (ExecutorService parser : parsers) {
+                if (parser != null) {
+                    parser.shutdown();
+                }
+            }
+            if (virtualThreads != null) {
+                virtualThreads.shutdown();
+            }
+        }
+
+        /**
+         * Sends requests with callbacks: the response is handed to the parsing pool of the consumer.
+         */
+        private void consumeCallbacks(Semaphore permits, ExecutorService parser) {
+            while (next.getAndIncrement() < requests) {
+                if (!acquire(permits)) {
+                    return;
+                }
+                long admitted = System.nanoTime();
+                send().whenComplete((status, failure) -> {
+                    permits.release();
+                    parser.execute(() -> parse(admitted));
+                });
+            }
+        }
+
+        /**
+         * Sends requests on virtual threads: each thread waits for its response and parses it.
+         */
+        private void consumeVirtual(Semaphore permits, ExecutorService virtualThreads) {
+            while (next.getAndIncrement() < requests) {
+                if (!acquire(permits)) {
+                    return;
+                }
+                long admitted = System.nanoTime();
+                virtualThreads.execute(() -> {
+                    try {
+                        send().get();
+                        parse(admitted);
+                    } catch (InterruptedException | ExecutionException ignored) {
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+
+        private static boolean acquire(Semaphore permits) {
+            try {
+                permits.acquire();
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void parse(long admitted) {
+            latencies[parsed.getAndIncrement()] = System.nanoTime() - admitted;
+            done.countDown();
+        }
+
+        void print(String mode) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            System.out.printf("%-9s %8.0f requests per second, p50 %.0f ms, p99 %.0f ms, max %.0f ms, peak heap %d MB, peak platform threads %d%n",
+                    mode, requests / seconds, sorted[requests / 2] / 1e6, sorted[(int) (requests * 0.99)] / 1e6,
+                    sorted[requests - 1] / 1e6, peakHeap.get() >> 20, peakThreads.get());
+        }
+    }
+}
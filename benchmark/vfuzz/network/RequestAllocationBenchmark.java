@@ -0,0 +1,151 @@
+package vfuzz.network;
+
+import org.apache.http.client.methods.HttpGet;
+import vfuzz.config.ConfigManager;
+import vfuzz.core.ArgParse;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code RequestAllocationBenchmark} class measures how many bytes the {@link WebRequester} allocates per request,
+ * from {@link WebRequester#submit} to the response handler.
+ *
+ * <p>Requests are sent with the raw transport to a keep-alive HTTP/1.1 server on the loopback interface, without
+ * rate limit, and handled on a small pool like the parsing pool of a consumer. The allocations of all threads are
+ * summed up, except those of the server, whose threads are named {@code benchmark-connection}. This includes the
+ * {@link HttpGet} of every request, which takes about 500 bytes. The first round warms up the JIT and fills the
+ * {@link RequestContext} pool, and is not reported.
+ *
+ * <p>Usage, from the project directory:
+ * <pre>
+ * mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp "target/classes:target/test-classes:$(cat target/classpath.txt)" vfuzz.network.RequestAllocationBenchmark [requests] [rounds]
+ * </pre>
+ * The defaults are 60000 requests and 3 rounds.
+ */
+public final class RequestAllocationBenchmark {
+
+    private static final byte[] RESPONSE = "HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final String SERVER_THREAD = "benchmark-connection";
+
+    private static final AtomicLong handled = new AtomicLong();
+
+    private RequestAllocationBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 60_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        ServerSocket serverSocket = new ServerSocket(0, 4096, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> accept(serverSocket), "benchmark-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        String url = "http://127.0.0.1:" + serverSocket.getLocalPort() + "/";
+
+        ArgParse.registerArguments();
+        ConfigManager configManager = ConfigManager.getInstance();
+        configManager.processArguments(new String[]{"-u", url, "-w", "-", "--transport", "raw", "--pipeline", "8", "--rate-limit", "0"});
+        configManager.compileRunConfig();
+        WebRequester.initialize();
+
+        String[] urls = new String[requests];
+        for (int i = 0; i < requests; i++) {
+            urls[i] = url + "w" + i;
+        }
+        ExecutorService handlerExecutor = Executors.newFixedThreadPool(5, runnable -> {
+            Thread thread = new Thread(runnable, "benchmark-handler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        RequestContext.ResponseHandler handler = context -> handled.incrementAndGet();
+
+        System.out.printf("%d requests per round:%n", requests);
+        for (int round = 0; round <= rounds; round++) {
+            long target = handled.get() + requests;
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                WebRequester.submit(RequestContext.obtain(new HttpGet(urls[i]), urls[i], handler, handlerExecutor), 250, TimeUnit.MILLISECONDS);
+            }
+            while (handled.get() < target) {
+                Thread.sleep(5);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long allocated = allocatedBytes() - allocatedBefore;
+            if (round > 0) {
+                System.out.printf("round %d: %.0f requests per second, %d bytes allocated per request%n", round,
+                        requests / seconds, allocated / requests);
+            }
+        }
+        System.exit(0); // the transports keep their threads running
+    }
+
+    /**
+     * Sums up the bytes allocated by all threads except those of the server.
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long sum = 0;
+        for (ThreadInfo thread : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (thread == null || thread.getThreadName().equals(SERVER_THREAD)) {
+                continue;
+            }
+            sum += Math.max(threads.getThreadAllocatedBytes(thread.getThreadId()), 0);
+        }
+        return sum;
+    }
+
+    private static void accept(ServerSocket serverSocket) {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread worker = new Thread(() -> serve(socket), SERVER_THREAD);
+                worker.setDaemon(true);
+                worker.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Answers the requests on one connection until the client closes it. Responses to pipelined requests are
+     * written together.
+     */
+    private static void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            String line;
+            while ((line = in.readLine()) != null) {
+                while (!line.isEmpty()) {
+                    line = in.readLine();
+                    if (line == null) {
+                        return;
+                    }
+                }
+                out.write(RESPONSE);
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package vfuzz.network.ratelimiter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the non-blocking ways to take a token of the {@link RateLimiterTokenBucket}.
+ *
+ * <p>The project has no test framework, so this is a plain test class that Surefire runs on its own: every public
+ * {@code test} method is a test, and a failure is a thrown {@link AssertionError}.
+ */
+public class RateLimiterTokenBucketTest {
+
+    public void testTryAcquireTakesOnlyAvailableTokens() {
+        RateLimiterTokenBucket bucket = new RateLimiterTokenBucket(10); // one token every 100 milliseconds
+        check(bucket.tryAcquire(), "the first token is available right away");
+        check(!bucket.tryAcquire(), "the second token is not due yet");
+    }
+
+    public void testTryAcquireWithoutLimit() {
+        RateLimiterTokenBucket bucket = new RateLimiterTokenBucket(0);
+        for (int i = 0; i < 1000; i++) {
+            check(bucket.tryAcquire(), "every token is available without a rate limit");
+        }
+    }
+
+    public void testAcquireAsyncCompletesWhenTheTokenIsDue() throws Exception {
+        RateLimiterTokenBucket bucket = new RateLimiterTokenBucket(10);
+        CompletableFuture<Void> first = bucket.acquireAsync();
+        long start = System.nanoTime();
+        CompletableFuture<Void> second = bucket.acquireAsync();
+        check(first.isDone(), "the first token is available right away");
+        check(!second.isDone(), "the second token is not due yet");
+        second.get(1, TimeUnit.SECONDS);
+        check(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50), "the second token was due too early");
+    }
+
+    public void testAcquireAsyncReturnsSeparateFutures() {
+        RateLimiterTokenBucket bucket = new RateLimiterTokenBucket(0);
+        CompletableFuture<Void> first = bucket.acquireAsync();
+        CompletableFuture<Void> second = bucket.acquireAsync();
+        check(first != second, "every caller gets its own future");
+        first.obtrudeException(new IllegalStateException());
+        check(!second.isCompletedExceptionally(), "a caller that changes its future does not affect others");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package vfuzz.network.raw;
+
+import org.apache.http.client.methods.HttpGet;
+import vfuzz.network.transport.ApacheTransport;
+import vfuzz.network.transport.Transport;
+import vfuzz.network.transport.TransportCallback;
+import vfuzz.network.transport.TransportResponse;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@code TransportBenchmark} class compares the throughput of the Apache transport with the raw transport,
+ * with and without pipelining, against a keep-alive HTTP/1.1 server on the loopback interface.
+ *
+ * <p>The server runs in the same process with one thread per connection and answers every request with a small
+ * fixed response, so the numbers mostly show the cost of the clients. Every transport sends the same number of
+ * {@code GET} requests with the same number in flight, in several rounds; the first round warms up the JIT.
+ *
+ * <p>Usage, from the project directory:
+ * <pre>
+ * mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp "target/classes:target/test-classes:$(cat target/classpath.txt)" vfuzz.network.raw.TransportBenchmark [requests] [inFlight] [rounds]
+ * </pre>
+ * The defaults are 20000 requests, 256 in flight and 3 rounds.
+ */
+public final class TransportBenchmark {
+
+    private static final byte[] RESPONSE = "HTTP/1.1 200 OK\r\nContent-Length: 5\r\n\r\nhello".getBytes(StandardCharsets.US_ASCII);
+
+    private TransportBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int inFlight = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        ServerSocket serverSocket = new ServerSocket(0, 4096, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> accept(serverSocket), "benchmark-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        String url = "http://127.0.0.1:" + serverSocket.getLocalPort() + "/";
+
+        Transport apache = new ApacheTransport(false);
+        Transport raw = new RawHttpClient(2, 1, inFlight);
+        Transport pipelined = new RawHttpClient(2, 8, inFlight);
+        System.out.printf("%d requests, %d in flight, requests per second:%n", requests, inFlight);
+        for (int round = 1; round <= rounds; round++) {
+            System.out.printf("round %d: apache %.0f, raw %.0f, raw with pipeline depth 8 %.0f%n", round,
+                    measure(apache, url, requests, inFlight),
+                    measure(raw, url, requests, inFlight),
+                    measure(pipelined, url, requests, inFlight));
+        }
+        apache.close();
+        raw.close();
+        pipelined.close();
+        serverSocket.close();
+    }
+
+    /**
+     * Sends the requests with at most {@code inFlight} of them in flight at once.
+     *
+     * @return The number of requests per second.
+     */
+    private static double measure(Transport transport, String url, int requests, int inFlight) throws InterruptedException {
+        Semaphore permits = new Semaphore(inFlight);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger failed = new AtomicInteger(0);
+        TransportCallback callback = new TransportCallback() {
+            @Override
+            public void completed(TransportResponse response) {
+                permits.release();
+                done.countDown();
+            }
+
+            @Override
+            public void failed(Exception cause) {
+                failed.incrementAndGet();
+                permits.release();
+                done.countDown();
+            }
+        };
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            permits.acquire();
+            transport.send(new HttpGet(url), callback);
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (failed.get() > 0) {
+            System.err.println(failed.get() + " requests failed");
+        }
+        return requests / seconds;
+    }
+
+    private static void accept(ServerSocket serverSocket) {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread worker = new Thread(() -> serve(socket), "benchmark-connection");
+                worker.setDaemon(true);
+                worker.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Answers the requests on one connection until the client closes it. Responses to pipelined requests are
+     * written together.
+     */
+    private static void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            String line;
+            while ((line = in.readLine()) != null) {
+                while (!line.isEmpty()) {
+                    line = in.readLine();
+                    if (line == null) {
+                        return;
+                    }
+                }
+                out.write(RESPONSE);
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException ignored) {
+        }
+    }
+}
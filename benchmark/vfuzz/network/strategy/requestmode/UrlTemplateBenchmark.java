@@ -0,0 +1,157 @@
+package vfuzz.network.strategy.requestmode;
+
+import org.apache.http.client.methods.HttpGet;
+import vfuzz.config.ConfigManager;
+import vfuzz.core.ArgParse;
+import vfuzz.core.wordlist.WordlistEntry;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * The {@code UrlTemplateBenchmark} class measures how long it takes to set the URL and {@code Host} header of a
+ * request for a payload, and how much is allocated for it, in every request mode.
+ *
+ * <p>Each mode is measured twice: with the {@link UrlTemplate} compiled by its strategy, and with the per-request
+ * string processing the templates replaced, which is reproduced in the {@code legacy} methods of this class. Both
+ * variants set the URI of the same {@link HttpGet}, so the numbers only differ by the work of building the URL.
+ * Times and allocations are averaged over all payloads of the fastest round, after the earlier rounds warmed up the
+ * JIT.
+ *
+ * <p>Usage, from the project directory:
+ * <pre>
+ * mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp "target/classes:target/test-classes:$(cat target/classpath.txt)" vfuzz.network.strategy.requestmode.UrlTemplateBenchmark [payloads] [rounds]
+ * </pre>
+ * The defaults are 200000 payloads and 5 rounds.
+ */
+public final class UrlTemplateBenchmark {
+
+    private static final String URL = "http://www.example.com/app";
+    private static final String FUZZ_URL = "http://example.com/app/FUZZ/view?id=1";
+    private static final String FUZZ_MARKER = "FUZZ";
+
+    @FunctionalInterface
+    private interface RequestBuilder {
+        void build(HttpGet request, int payload) throws URISyntaxException;
+    }
+
+    private UrlTemplateBenchmark() {
+    }
+
+    public static void main(String[] args) throws URISyntaxException {
+        int payloadCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        ArgParse.registerArguments();
+        ConfigManager configManager = ConfigManager.getInstance();
+        configManager.processArguments(new String[]{"-u", FUZZ_URL, "-w", "-", "--fuzz-marker", FUZZ_MARKER});
+        configManager.compileRunConfig();
+
+        String[] payloads = new String[payloadCount];
+        WordlistEntry[] entries = new WordlistEntry[payloadCount];
+        for (int i = 0; i < payloadCount; i++) {
+            payloads[i] = "word" + i;
+            entries[i] = new WordlistEntry(payloads[i], payloads[i]);
+        }
+
+        RequestModeStrategy standard = new RequestModeStrategyStandard();
+        RequestModeStrategy fuzz = new RequestModeStrategyFuzz();
+        RequestModeStrategy vhost = new RequestModeStrategyVhost();
+        RequestModeStrategy subdomain = new RequestModeStrategySubdomain();
+        UrlTemplate standardTemplate = standard.compile(URL);
+        UrlTemplate fuzzTemplate = fuzz.compile(FUZZ_URL);
+        UrlTemplate vhostTemplate = vhost.compile(URL);
+        UrlTemplate subdomainTemplate = subdomain.compile(URL);
+
+        System.out.printf("%d payloads, %d rounds, per request:%n", payloadCount, rounds);
+        System.out.printf("%-18s %12s %12s %12s %12s%n", "mode", "before ns", "before B", "after ns", "after B");
+        compare("standard", payloadCount, rounds,
+                (request, i) -> legacyStandard(request, URL, payloads[i]),
+                (request, i) -> standard.modifyRequest(request, standardTemplate, entries[i], ""));
+        compare("standard + .php", payloadCount, rounds,
+                (request, i) -> {
+                    legacyStandard(request, URL, payloads[i]);
+                    request.setURI(URI.create(request.getURI() + ".php"));
+                },
+                (request, i) -> standard.modifyRequest(request, standardTemplate, entries[i], ".php"));
+        compare("fuzz marker", payloadCount, rounds,
+                (request, i) -> request.setURI(new URI(FUZZ_URL.replaceFirst(FUZZ_MARKER, payloads[i]))),
+                (request, i) -> fuzz.modifyRequest(request, fuzzTemplate, entries[i], ""));
+        compare("vhost", payloadCount, rounds,
+                (request, i) -> legacyVhost(request, URL, payloads[i]),
+                (request, i) -> vhost.modifyRequest(request, vhostTemplate, entries[i], ""));
+        compare("subdomain", payloadCount, rounds,
+                (request, i) -> legacySubdomain(request, URL, payloads[i]),
+                (request, i) -> subdomain.modifyRequest(request, subdomainTemplate, entries[i], ""));
+    }
+
+    private static void compare(String mode, int payloadCount, int rounds, RequestBuilder before, RequestBuilder after) throws URISyntaxException {
+        double[] legacy = measure(before, payloadCount, rounds);
+        double[] compiled = measure(after, payloadCount, rounds);
+        System.out.printf("%-18s %12.1f %12.0f %12.1f %12.0f%n", mode, legacy[0], legacy[1], compiled[0], compiled[1]);
+    }
+
+    /**
+     * Builds a request for every payload in several rounds.
+     *
+     * @return The nanoseconds and bytes allocated per request in the fastest round.
+     */
+    private static double[] measure(RequestBuilder builder, int payloadCount, int rounds) throws URISyntaxException {
+        HttpGet request = new HttpGet();
+        double bestNanos = Double.MAX_VALUE;
+        double bytesOfBest = 0;
+        for (int round = 0; round < rounds; round++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < payloadCount; i++) {
+                builder.build(request, i);
+            }
+            double nanos = (double) (System.nanoTime() - start) / payloadCount;
+            double bytes = (double) (allocatedBytes() - allocatedBefore) / payloadCount;
+            if (nanos < bestNanos) {
+                bestNanos = nanos;
+                bytesOfBest = bytes;
+            }
+        }
+        return new double[]{bestNanos, bytesOfBest};
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    // the request mode strategies before the URL was compiled into a template
+
+    private static void legacyStandard(HttpGet request, String requestUrl, String payload) throws URISyntaxException {
+        requestUrl = requestUrl.endsWith("/") ? requestUrl : requestUrl + "/";
+        request.setURI(new URI(requestUrl + payload));
+    }
+
+    private static void legacyVhost(HttpGet request, String requestUrl, String payload) throws URISyntaxException {
+        requestUrl = requestUrl.endsWith("/") ? requestUrl : requestUrl + "/";
+        request.setURI(new URI(requestUrl));
+        request.setHeader("Host", legacyVhostRebuilder(requestUrl, payload));
+    }
+
+    private static void legacySubdomain(HttpGet request, String requestUrl, String payload) throws URISyntaxException {
+        requestUrl = requestUrl.endsWith("/") ? requestUrl : requestUrl + "/";
+        request.setURI(new URI(legacyUrlRebuilder(requestUrl, payload)));
+        request.setHeader("Host", legacyVhostRebuilder(requestUrl, payload));
+    }
+
+    private static String legacyUrlRebuilder(String url, String payload) {
+        String httpPrefix = url.startsWith("https://") ? "https://" : "http://";
+        String urlWithoutScheme = url.substring(httpPrefix.length());
+        String urlWithoutWww = urlWithoutScheme.startsWith("www") ? urlWithoutScheme.substring(4) : urlWithoutScheme;
+        return httpPrefix + payload + "." + urlWithoutWww;
+    }
+
+    private static String legacyVhostRebuilder(String url, String payload) {
+        String httpPrefix = url.startsWith("https://") ? "https://" : "http://";
+        String urlWithoutScheme = url.substring(httpPrefix.length());
+        String urlWithoutWww = urlWithoutScheme.startsWith("www") ? urlWithoutScheme.substring(4) : urlWithoutScheme;
+        return payload + "." + RequestModeStrategy.removeTrailingSlash(urlWithoutWww);
+    }
+}
@@ -0,0 +1,34 @@
+package vfuzz.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads, which are only available from Java 21 on.
+ *
+ * <p>This is the Java 21 version of the class, packaged under {@code META-INF/versions/21} of the multi-release jar.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Checks whether virtual threads can be used on this runtime.
+     *
+     * @return {@code true}.
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Creates an executor that runs every task on a new virtual thread.
+     *
+     * @param namePrefix The prefix of the thread names, followed by a counter.
+     * @return The executor.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+    }
+}
@@ -12,4 +12,5 @@ module VFuzz {
     requires org.dnsjava;
     requires org.jline;
     requires java.logging;
+    requires java.net.http;
 }
\ No newline at end of file
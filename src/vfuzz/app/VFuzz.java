@@ -3,13 +3,23 @@ package vfuzz.app;
 import vfuzz.config.ConfigAccessor;
 import vfuzz.config.ConfigurationPrinter;
 import vfuzz.config.ConfigManager;
+import vfuzz.config.RunConfig;
 import vfuzz.core.ArgParse;
 import vfuzz.core.CommandLineArgument;
 import vfuzz.core.ThreadOrchestrator;
+import vfuzz.core.WordlistReader;
+import vfuzz.core.wordlist.WordlistCompiler;
+import vfuzz.core.wordlist.WordlistMerger;
 import vfuzz.logging.Color;
 import vfuzz.logging.Metrics;
 import vfuzz.network.WebRequester;
 import vfuzz.network.strategy.requestmode.RequestMode;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -24,7 +34,9 @@ import java.util.logging.Level;
  * <ul>
  *     <li>Registers and processes command-line arguments using {@link ArgParse} and {@link ConfigManager}.</li>
  *     <li>Validates that all required arguments are provided, displaying help if the "--help" flag is passed.</li>
+ *     <li>Compiles the settings that are read while fuzzing into a {@link RunConfig}.</li>
  *     <li>Prints the current configuration to the console for verification using {@link ConfigurationPrinter}.</li>
+ *     <li>Merges and deduplicates the word lists with a {@link WordlistMerger} if more than one was given.</li>
  *     <li>Initializes essential components such as the {@link ThreadOrchestrator} and {@link WebRequester}.</li>
  *     <li>Starts metrics collection via {@link Metrics} for monitoring performance.</li>
  *     <li>Suppresses unnecessary logging for cleaner output during execution.</li>
@@ -34,6 +46,7 @@ import java.util.logging.Level;
  * <p>Example usage:
  * <pre>{@code
  * java -jar vfuzz.jar --url http://example.com --wordlist /path/to/wordlist --threads 10
+ * java -jar vfuzz.jar compile-wordlist /path/to/wordlist /path/to/wordlist.vfz
  * }</pre>
  *
  * <p>Features:
@@ -54,6 +67,12 @@ import java.util.logging.Level;
 public class VFuzz {
     public static void main(String[] args) {
 
+        // "compile-wordlist" is a separate command that does not start a scan
+        if (args.length > 0 && args[0].equals("compile-wordlist")) {
+            compileWordlist(args);
+            return;
+        }
+
         // Initialize the ConfigManager singleton to process configuration
         ConfigManager configManager = ConfigManager.getInstance();
 
@@ -79,18 +98,21 @@ public class VFuzz {
         // Verify that all required arguments have been provided
         configManager.verifyRequiredArguments(); // TODO: Check if work!
 
+        // Parse the settings that are read while fuzzing once, and freeze the configuration
+        RunConfig runConfig = configManager.compileRunConfig();
+
         // Print the current configuration to the console for verification
         ConfigurationPrinter.printConfiguration();
 
         // Retrieve the thread count and wordlist path from the configuration
         int threadCount = ConfigAccessor.getConfigValue("threadCount", Integer.class);
-        String wordlistPath = ConfigAccessor.getConfigValue("wordlistPath", String.class);
+        String wordlistPath = prepareWordlist();
 
         // Initialize the ThreadOrchestrator for managing fuzzing threads
-        ThreadOrchestrator orchestrator = new ThreadOrchestrator(wordlistPath, threadCount);
+        ThreadOrchestrator orchestrator = new ThreadOrchestrator(wordlistPath, threadCount, runConfig);
 
         // Initialize WebRequester (static initializer)
-        if (!(ConfigAccessor.getConfigValue("requestMode", RequestMode.class) == RequestMode.SUBDOMAIN)) {
+        if (runConfig.getRequestMode() != RequestMode.SUBDOMAIN) {
             WebRequester.initialize();
         }
 
@@ -105,4 +127,102 @@ public class VFuzz {
         // Start the fuzzing process
         orchestrator.startFuzzing();
     }
+
+    /**
+     * Compiles a text word list into the indexed binary format that is opened without an indexing pass and
+     * carries the URL-encoded form of every payload.
+     *
+     * <p>Usage: {@code java -jar vfuzz.jar compile-wordlist <input> <output>}
+     *
+     * @param args The command-line arguments, starting with "compile-wordlist".
+     */
+    private static void compileWordlist(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: java -jar vfuzz.jar compile-wordlist <input> <output>");
+            System.exit(1);
+        }
+        WordlistCompiler compiler = new WordlistCompiler();
+        try {
+            compiler.compile(Paths.get(args[1]), Paths.get(args[2]));
+            System.out.println("Compiled " + compiler.getCount() + " payloads (" + compiler.getEncodedCount()
+                    + " need URL encoding) into " + args[2]);
+        } catch (IOException | InvalidPathException e) {
+            System.err.println("Failed to compile word list: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Determines the word list used for the scan. If multiple word lists were passed or deduplication was requested,
+     * the lists are merged into a temporary file of unique entries first.
+     *
+     * @return The path of the word list to fuzz with.
+     */
+    private static String prepareWordlist() {
+        List<String> wordlistPaths = ArgParse.getWordlistPaths();
+        if (!ArgParse.getMarkerWordlists().isEmpty()) {
+            checkMarkerWordlists();
+        }
+        if (ArgParse.getDepthWordlists().values().stream().anyMatch(WordlistReader::isReadOnce)) {
+            System.err.println("Depth word lists are read by every recursive target and cannot be a named pipe.");
+            System.exit(1);
+        }
+        if (wordlistPaths.stream().anyMatch(WordlistReader::isReadOnce)) {
+            if (ConfigAccessor.getConfigValue("permutationSeeds", String.class) != null) {
+                System.err.println("The words for subdomain permutations are read once per subdomain and cannot be the standard input or a named pipe.");
+                System.exit(1);
+            }
+            return prepareReadOnceWordlist(wordlistPaths);
+        }
+        if (wordlistPaths.size() <= 1 && !ConfigAccessor.getConfigValue("dedupeWordlists", Boolean.class)) {
+            return wordlistPaths.isEmpty() ? null : wordlistPaths.get(0);
+        }
+
+        System.out.println("Merging and deduplicating " + wordlistPaths.size() + " word list(s)...");
+        WordlistMerger merger = new WordlistMerger(ConfigAccessor.getConfigValue("ignoreCase", Boolean.class));
+        try {
+            Path merged = merger.merge(wordlistPaths.stream().map(Paths::get).toList());
+            System.out.println("Removed " + (merger.getEntriesRead() - merger.getEntriesWritten()) + " duplicates, "
+                    + merger.getEntriesWritten() + " unique payloads remain.\n");
+            return merged.toString();
+        } catch (IOException e) {
+            System.err.println("Failed to merge word lists: " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Checks that the word lists bound to markers can be combined. Every combination reads the lists at arbitrary
+     * positions, so they cannot be read only once, and markers are not supported for recursive targets.
+     */
+    private static void checkMarkerWordlists() {
+        if (ArgParse.getMarkerWordlists().values().stream().anyMatch(WordlistReader::isReadOnce)) {
+            System.err.println("Marker word lists cannot be the standard input or a named pipe.");
+            System.exit(1);
+        }
+        if (ConfigAccessor.getConfigValue("recursionEnabled", Boolean.class)) {
+            System.err.println("Recursion is not supported with '--marker'.");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Checks that a word list which can only be read once, like the standard input or a named pipe, is not
+     * needed more than once. It can neither be merged with other lists nor be reused for recursive targets.
+     *
+     * @param wordlistPaths The word lists passed with "-w".
+     * @return The path of the word list to fuzz with.
+     */
+    private static String prepareReadOnceWordlist(List<String> wordlistPaths) {
+        if (wordlistPaths.size() > 1 || ConfigAccessor.getConfigValue("dedupeWordlists", Boolean.class)) {
+            System.err.println("The standard input or a named pipe cannot be merged with other word lists or deduplicated.");
+            System.exit(1);
+        }
+        if (ConfigAccessor.getConfigValue("recursionEnabled", Boolean.class) && ArgParse.getDepthWordlists().floorKey(1) == null) {
+            System.err.println("Recursion with the standard input or a named pipe requires a separate word list from depth 1 on (--depth-wordlists \"1:/path/to/wordlist\").");
+            System.exit(1);
+        }
+        return wordlistPaths.get(0);
+    }
 }
\ No newline at end of file
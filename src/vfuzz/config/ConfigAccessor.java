@@ -63,6 +63,16 @@ public class ConfigAccessor {
         return result;
     }
 
+    /**
+     * Returns the typed snapshot of the configuration that is read while a scan is running.
+     *
+     * @return The {@link RunConfig} compiled by {@link ConfigManager#compileRunConfig()}.
+     * @throws IllegalStateException If the run configuration has not been compiled yet.
+     */
+    public static RunConfig getRunConfig() {
+        return configManager.getRunConfig();
+    }
+
     /**
      * Converts a string value to the specified type.
      *
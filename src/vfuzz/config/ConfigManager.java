@@ -1,10 +1,17 @@
 package vfuzz.config;
 
 import vfuzz.core.CommandLineArgument;
+import vfuzz.core.VirtualThreads;
 import vfuzz.logging.Color;
 import vfuzz.network.strategy.requestmode.RequestMode;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * The {@code ConfigManager} class is a singleton responsible for managing configuration values
@@ -39,18 +46,24 @@ import java.util.*;
  * ));
  * configManager.processArguments(args);
  * configManager.verifyRequiredArguments();
+ * RunConfig runConfig = configManager.compileRunConfig();
  * }</pre>
  *
+ * <p>Once the {@link RunConfig} has been compiled, the configuration values are frozen. The threads of a scan
+ * read them concurrently, so they can no longer be changed.
+ *
  * @see CommandLineArgument
+ * @see RunConfig
  */
 public class ConfigManager {
 
     private static ConfigManager instance;
 
     private final Map<String, CommandLineArgument> arguments = new LinkedHashMap<>();
-    private final Map<String, String> configValues = new HashMap<>();
+    private volatile Map<String, String> configValues = new HashMap<>();
     private final Map<String, String> defaultValues = new HashMap<>();
     private final Set<String> providedArgs = new HashSet<>();
+    private volatile RunConfig runConfig;
 
     private ConfigManager() {}
 
@@ -123,13 +136,35 @@ public class ConfigManager {
                 }
             }
         }
+        if (configValues.get("markerWordlists") != null && !"true".equals(configValues.get("requestFileFuzzing"))) {
+            this.setConfigValue("requestMode", RequestMode.FUZZ.name()); // named markers are always replaced in place
+        }
         String postRequestData = ConfigAccessor.getConfigValue("postRequestData",String.class);
+        String postDataFile = ConfigAccessor.getConfigValue("postDataFile",String.class);
         String fuzzMarker = ConfigAccessor.getConfigValue("fuzzMarker",String.class);
         if (postRequestData != null && fuzzMarker != null) {
             if ((postRequestData).contains(fuzzMarker)) {
                 this.setConfigValue("requestMode", RequestMode.FUZZ.name());
             }
         }
+        if (postDataFile != null && fuzzMarker != null && fileContains(postDataFile, fuzzMarker)) {
+            this.setConfigValue("requestMode", RequestMode.FUZZ.name());
+        }
+    }
+
+    /**
+     * Checks whether a file contains the given text, reading it line by line.
+     *
+     * @param filePath the path of the file
+     * @param text the text to search for, which must not span lines
+     * @return true if the text occurs in the file, false otherwise or if the file cannot be read
+     */
+    private static boolean fileContains(String filePath, String text) {
+        try (Stream<String> lines = Files.lines(Paths.get(filePath), StandardCharsets.ISO_8859_1)) { // any byte sequence is valid ISO-8859-1
+            return lines.anyMatch(line -> line.contains(text));
+        } catch (IOException | UncheckedIOException e) {
+            return false;
+        }
     }
 
     /**
@@ -160,7 +195,7 @@ public class ConfigManager {
             providedArgs.add(cmdArg.getConfigName());
             return "true";
         }
-        if (index + 1 < args.length && !args[index + 1].startsWith("-")) {
+        if (index + 1 < args.length && (!args[index + 1].startsWith("-") || args[index + 1].equals("-"))) { // a lone "-" is a value (standard input)
             providedArgs.add(cmdArg.getConfigName());
             return args[++index];
         }
@@ -172,6 +207,7 @@ public class ConfigManager {
      *
      * @param key the configuration key
      * @param value the value to be set
+     * @throws UnsupportedOperationException if the configuration values have been frozen by {@link #compileRunConfig()}
      */
     public void setConfigValue(String key, String value) {
         configValues.put(key, value);
@@ -209,17 +245,71 @@ public class ConfigManager {
                 System.out.println("Please provide a domain with '-d'");
                 System.exit(0);
             }
-            if (!providedArgs.contains("wordlist")) {
-                System.out.println("Please provide a wordlist with '-w'");
+            if (!providedArgs.contains("wordlistPath") && !providedArgs.contains("payloadGenerator")) { // markers need a URL, so they are not supported here
+                System.out.println("Please provide a wordlist with '-w' or a payload generator with '--generate'");
+                System.exit(0);
+            }
+            if (providedArgs.contains("permutationSeeds") && !providedArgs.contains("wordlistPath")) {
+                System.out.println("Please provide the words to permute the subdomains with using '-w'");
                 System.exit(0);
             }
             return;
         }
+        if (providedArgs.contains("permutationSeeds")) {
+            System.err.println("'--permute' is only supported in subdomain mode.");
+            printMissingAndExit();
+        }
+        if ("raw".equals(configValues.get("transport")) && "true".equals(configValues.get("followRedirects"))) {
+            System.err.println("'--transport raw' does not follow redirects.");
+            printMissingAndExit();
+        }
+        if (providedArgs.contains("virtualThreads") && !VirtualThreads.isSupported()) {
+            System.err.println("'--virtual-threads' requires Java 21 or newer.");
+            printMissingAndExit();
+        }
+        if (providedArgs.contains("postRequestData") && providedArgs.contains("postDataFile")) {
+            System.err.println("Provide the POST data either with '-d' or with '--post-data-file'.");
+            printMissingAndExit();
+        }
 
         if (arguments.values().stream().anyMatch(arg -> !arg.isOptional() && !providedArgs.contains(arg.getConfigName()))) {
             printMissingAndExit();
         }
+        long payloadSources = Stream.of("wordlistPath", "payloadGenerator", "markerWordlists").filter(providedArgs::contains).count();
+        if (payloadSources != 1) {
+            System.err.println("Provide either a wordlist with '-w', a payload generator with '--generate' or marker wordlists with '--marker'.");
+            printMissingAndExit();
+        }
     }
+
+    /**
+     * Compiles the configuration values into an immutable {@link RunConfig} and freezes them.
+     * Must be called after the arguments have been processed and verified, before a scan starts.
+     *
+     * @return the compiled run configuration
+     */
+    public synchronized RunConfig compileRunConfig() {
+        if (runConfig == null) {
+            configValues = Collections.unmodifiableMap(new HashMap<>(configValues));
+            runConfig = RunConfig.of(this);
+        }
+        return runConfig;
+    }
+
+    /**
+     * Returns the run configuration compiled by {@link #compileRunConfig()}.
+     *
+     * @return the run configuration
+     * @throws IllegalStateException if the run configuration has not been compiled yet
+     */
+    public RunConfig getRunConfig() {
+        RunConfig config = runConfig;
+        if (config == null) {
+            throw new IllegalStateException("The run configuration has not been compiled yet.");
+        }
+        return config;
+    }
+
     private void printMissingAndExit() {
         System.err.println("Missing required arguments. Exiting.");
         System.exit(1);
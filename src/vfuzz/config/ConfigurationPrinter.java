@@ -32,7 +32,26 @@ public class ConfigurationPrinter {
 
         System.out.println(getConfigDisplayString("threadCount", Integer.class, isDefault, "Thread Count"));
 
-        System.out.println(getConfigDisplayString("wordlistPath", String.class, isDefault, "Wordlist Path"));
+        printIfNotNull("wordlistPath", "Wordlist Path");
+
+        printIfNotFalse("dedupeWordlists", "Deduplicate Wordlists");
+
+        printIfNotFalse("mmapWordlist", "Memory-mapped Wordlist");
+
+        printIfNotNull("depthWordlists", "Depth Wordlists");
+
+        printIfNotNull("payloadGenerator", "Payload Generator");
+
+        if (ConfigAccessor.getConfigValue("markerWordlists", String.class) != null) {
+            System.out.println(getConfigDisplayString("markerWordlists", String.class, isDefault, "Marker Wordlists"));
+            System.out.println(getConfigDisplayString("attackMode", String.class, isDefault, "Attack Mode"));
+        }
+
+        printIfNotNull("payloadEncoders", "Payload Encoders");
+
+        printIfNotNull("permutationSeeds", "Permuted Subdomains");
+
+        printIfNotFalse("learnedOrder", "Learned Order");
 
         System.out.println(getConfigDisplayString("url", String.class, isDefault, "URL"));
 
@@ -50,6 +69,24 @@ public class ConfigurationPrinter {
 
         System.out.println(getConfigDisplayString("rateLimit", Integer.class, isDefault, "Rate Limit"));
 
+        System.out.println(getConfigDisplayString("transport", String.class, isDefault, "Transport"));
+
+        if ("raw".equals(ConfigAccessor.getConfigValue("transport", String.class))) {
+            System.out.println(getConfigDisplayString("pipelineDepth", Integer.class, isDefault, "Pipeline Depth"));
+        }
+
+        System.out.println(getConfigDisplayString("limitAlgorithm", String.class, isDefault, "Limit Algorithm"));
+
+        printIfNotNull("virtualThreads", "Virtual Threads");
+
+        printIfNotNull("maxDuration", "Max Duration");
+
+        printIfNotNull("maxRequests", "Max Requests");
+
+        printIfNotNull("targetMaxDuration", "Max Duration per Target");
+
+        printIfNotNull("targetMaxRequests", "Max Requests per Target");
+
         printIfNotFalse("recursionEnabled", "Recursion Enabled");
 
         printIfNotNull("userAgent", "User Agent");
@@ -63,6 +100,7 @@ public class ConfigurationPrinter {
         printIfNotNull("cookies", "Cookies");
 
         printIfNotNull("postRequestData", "Post Data");
+        printIfNotNull("postDataFile", "Post Data File");
 
         printIfNotFalse("randomAgent", "Random Agent");
 
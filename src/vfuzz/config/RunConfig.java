@@ -0,0 +1,215 @@
+package vfuzz.config;
+
+import vfuzz.network.strategy.requestmethod.RequestMethod;
+import vfuzz.network.strategy.requestmode.RequestMode;
+import vfuzz.operations.Range;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The {@code RunConfig} class is an immutable, typed snapshot of the settings that are read while a scan is running.
+ *
+ * <p>The {@link ConfigManager} keeps every setting as a string, and {@link ConfigAccessor} parses it again on every
+ * lookup. The settings in this class are parsed once, after the arguments have been processed and verified, so that
+ * request and response handling only reads final fields: enums instead of names, booleans instead of
+ * {@code "true"}, the file extensions as a list and the excluded status codes and lengths as arrays of bounds.
+ *
+ * <p>The snapshot is created by {@link ConfigManager#compileRunConfig()} and passed to the components of a scan.
+ * Settings that are only needed while a scan is set up are still read with {@link ConfigAccessor}.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * RunConfig runConfig = configManager.compileRunConfig();
+ * if (runConfig.isExcludedStatusCode(response.statusCode())) {
+ *     return;
+ * }
+ * }</pre>
+ *
+ * @see ConfigManager
+ */
+public final class RunConfig {
+
+    private final String url;
+    private final RequestMode requestMode;
+    private final RequestMethod requestMethod;
+    private final boolean ignoreCase;
+    private final boolean followRedirects;
+    private final boolean recursionEnabled;
+    private final List<String> fileExtensions;
+    private final int[] excludedStatusCodes;
+    private final int[] excludedLengths;
+    private final Set<String> excludedResults;
+    private final String transport;
+    private final int pipelineDepth;
+    private final int rateLimit;
+    private final String limitAlgorithm;
+    private final int virtualThreads;
+
+    private RunConfig(ConfigManager configManager) {
+        url = configManager.getConfigValue("url");
+        requestMode = ConfigAccessor.convertToType(configManager.getConfigValue("requestMode"), RequestMode.class);
+        RequestMethod method = ConfigAccessor.convertToType(configManager.getConfigValue("requestMethod"), RequestMethod.class);
+        requestMethod = method == null ? RequestMethod.GET : method;
+        ignoreCase = "true".equals(configManager.getConfigValue("ignoreCase"));
+        followRedirects = "true".equals(configManager.getConfigValue("followRedirects"));
+        recursionEnabled = "true".equals(configManager.getConfigValue("recursionEnabled"));
+
+        String extensions = configManager.getConfigValue("fileExtensions");
+        fileExtensions = extensions == null ? List.of() : List.of(extensions.split(","));
+
+        excludedStatusCodes = parseRanges(configManager.getConfigValue("excludedStatusCodes"));
+        excludedLengths = parseRanges(configManager.getConfigValue("excludeLength"));
+
+        String results = configManager.getConfigValue("excludedResults");
+        excludedResults = results == null ? Set.of() : Set.copyOf(Arrays.asList(results.split(",")));
+
+        transport = configManager.getConfigValue("transport");
+        pipelineDepth = parseInt(configManager.getConfigValue("pipelineDepth"), 1);
+        rateLimit = parseInt(configManager.getConfigValue("rateLimit"), 0);
+        limitAlgorithm = configManager.getConfigValue("limitAlgorithm");
+        virtualThreads = parseInt(configManager.getConfigValue("virtualThreads"), 0);
+    }
+
+    /**
+     * Parses the settings of a configuration manager into a snapshot.
+     *
+     * @param configManager The configuration manager, after the arguments have been processed.
+     * @return The snapshot.
+     */
+    static RunConfig of(ConfigManager configManager) {
+        return new RunConfig(configManager);
+    }
+
+    /**
+     * Parses a comma-separated list of ranges into an array that holds the start and end of every range in turn.
+     */
+    private static int[] parseRanges(String csv) {
+        if (csv == null || csv.trim().isEmpty()) {
+            return new int[0];
+        }
+        String[] parts = csv.split(",");
+        int[] bounds = new int[parts.length * 2];
+        for (int i = 0; i < parts.length; i++) {
+            Range range = Range.parseToRange(parts[i].trim());
+            bounds[2 * i] = range.start();
+            bounds[2 * i + 1] = range.end();
+        }
+        return bounds;
+    }
+
+    private static boolean inRanges(int[] bounds, int value) {
+        for (int i = 0; i < bounds.length; i += 2) {
+            if (value >= bounds[i] && value <= bounds[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public RequestMode getRequestMode() {
+        return requestMode;
+    }
+
+    public RequestMethod getRequestMethod() {
+        return requestMethod;
+    }
+
+    public boolean isPost() {
+        return requestMethod == RequestMethod.POST;
+    }
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    public boolean isFollowRedirects() {
+        return followRedirects;
+    }
+
+    public boolean isRecursionEnabled() {
+        return recursionEnabled;
+    }
+
+    /**
+     * Returns the file extensions appended to every payload.
+     *
+     * @return The extensions, or an empty list if no extensions are fuzzed.
+     */
+    public List<String> getFileExtensions() {
+        return fileExtensions;
+    }
+
+    /**
+     * Returns the number of requests sent for every payload, one per file extension.
+     *
+     * @return The number of requests per payload, at least 1.
+     */
+    public int getRequestsPerPayload() {
+        return Math.max(fileExtensions.size(), 1);
+    }
+
+    /**
+     * Checks whether responses with a status code are excluded from the results.
+     *
+     * @param statusCode The status code.
+     * @return {@code true} if the status code is in one of the excluded ranges.
+     */
+    public boolean isExcludedStatusCode(int statusCode) {
+        return inRanges(excludedStatusCodes, statusCode);
+    }
+
+    /**
+     * Checks whether responses with a content length are excluded from the results.
+     *
+     * @param length The content length.
+     * @return {@code true} if the length is in one of the excluded ranges.
+     */
+    public boolean isExcludedLength(int length) {
+        return inRanges(excludedLengths, length);
+    }
+
+    /**
+     * Checks whether a result has been excluded explicitly.
+     *
+     * @param result The URL, or the host in virtual host mode.
+     * @return {@code true} if the result is excluded.
+     */
+    public boolean isExcludedResult(String result) {
+        return excludedResults.contains(result);
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public int getPipelineDepth() {
+        return pipelineDepth;
+    }
+
+    public int getRateLimit() {
+        return rateLimit;
+    }
+
+    public String getLimitAlgorithm() {
+        return limitAlgorithm;
+    }
+
+    /**
+     * Returns the maximum number of virtual threads that send requests.
+     *
+     * @return The limit, or 0 if requests are not sent on virtual threads.
+     */
+    public int getVirtualThreads() {
+        return virtualThreads;
+    }
+}
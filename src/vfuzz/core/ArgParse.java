@@ -2,11 +2,16 @@ package vfuzz.core;
 
 import org.apache.http.entity.ContentType;
 import vfuzz.config.ConfigManager;
+import vfuzz.core.encoding.EncoderPipeline;
+import vfuzz.core.payload.AttackMode;
+import vfuzz.core.payload.PayloadGenerator;
 import vfuzz.network.strategy.requestmethod.RequestMethod;
 import vfuzz.network.strategy.requestmode.RequestMode;
+import vfuzz.operations.Budget;
 import vfuzz.operations.Range;
 import vfuzz.utils.Validator;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -27,6 +32,10 @@ public class ArgParse {
 
     private static final Set<String> headers = new HashSet<>();
 
+    private static final List<String> wordlistPaths = new ArrayList<>();
+
+    private static final Map<String, String> markerWordlists = new LinkedHashMap<>();
+
 
     /**
      * Registers all available command-line arguments with the {@code ConfigManager} instance.
@@ -48,11 +57,109 @@ public class ArgParse {
 
         configManager.registerArgument(new CommandLineArgument(
                 "-w", "--wordlist", "wordlistPath",
-                (cm, value) -> cm.setConfigValue("wordlistPath", value),
+                (cm, value) -> {
+                    wordlistPaths.add(value);
+                    cm.setConfigValue("wordlistPath", String.join(", ", wordlistPaths)); // for display only, paths may contain commas
+                },
                 Validator::isNotEmpty, // Validator
-                "Path to the word list. This argument is required.",
-                false,
-                null, // Null as default due to the arg being non-optional
+                "Path to the word list. This argument is required unless payloads are generated with --generate. Can be used multiple times; multiple word lists are merged and deduplicated before the scan starts. Use '-' to read the payloads from the standard input.",
+                true, // required unless --generate is used, checked by ConfigManager
+                null,
+                false
+        ));
+
+        configManager.registerArgument(new CommandLineArgument(
+                "--generate", "", "payloadGenerator",
+                (cm, value) -> cm.setConfigValue("payloadGenerator", value),
+                Validator::isValidPayloadGenerator,
+                "Generates the payloads instead of reading them from a word list. Payloads are computed on demand and use no memory.\n    range:FROM-TO[:WIDTH]    numbers, optionally zero-padded to WIDTH digits, e.g. range:1-10000000:8\n    charset:CHARS:MIN-MAX    all strings over CHARS (ranges like a-z allowed) with MIN to MAX characters, e.g. charset:a-z0-9:1-4\n    pattern:FORMAT:FROM-TO   numbers inserted into a printf-style pattern, e.g. pattern:INV-%06d:1-999999",
+                true,
+                null,
+                false
+        ));
+
+        configManager.registerArgument(new CommandLineArgument(
+                "--dedupe", "", "dedupeWordlists",
+                (cm, value) -> cm.setConfigValue("dedupeWordlists", value),
+                value -> true,
+                "Removes duplicate word list entries before the scan starts. Entries that only differ by surrounding whitespace, a trailing slash or (with --ignore-case) case are considered duplicates. Always active when multiple word lists are given.",
+                true,
+                "false",
+                true
+        ));
+
+        configManager.registerArgument(new CommandLineArgument(
+                "--mmap", "", "mmapWordlist",
+                (cm, value) -> cm.setConfigValue("mmapWordlist", value),
+                value -> true,
+                "Memory-maps the wordlist instead of loading it into memory. Payloads are decoded on demand and fuzzing starts while the wordlist is still being indexed.",
+                true,
+                "false",
+                true
+        ));
+
+        configManager.registerArgument(new CommandLineArgument(
+                "--marker", "", "markerWordlists",
+                (cm, value) -> {
+                    String[] parts = value.split("=", 2);
+                    markerWordlists.put(parts[0].trim(), parts[1].trim());
+                    cm.setConfigValue("markerWordlists", markerWordlists.entrySet().stream() // for display only, paths may contain commas
+                            .map(marker -> marker.getKey() + "=" + marker.getValue())
+                            .collect(Collectors.joining(", ")));
+                },
+                Validator::isValidMarkerWordlist,
+                "Binds a named fuzz marker to its own word list, given as 'MARKER=path'. Can be used multiple times to fuzz several markers at once (see --attack-mode). Replaces '-w'.\n    Example: --marker \"USER=/path/to/users.txt\" --marker \"PASS=/path/to/passwords.txt\"",
+                true,
+                null,
+                false
+        ));
+
+        configManager.registerArgument(new CommandLineArgument(
+                "--attack-mode", "", "attackMode",
+                (cm, value) -> cm.setConfigValue("attackMode", value.toUpperCase()),
+                value -> EnumSet.allOf(AttackMode.class).stream()
+                        .map(Enum::name)
+                        .toList()
+                        .contains(value.toUpperCase()),
+                "Sets how the word lists of multiple markers are combined. 'pitchfork' advances all lists together, 'clusterbomb' tries every combination.",
+                true,
+                AttackMode.CLUSTERBOMB.name(),
+                false
+        ));
+
+        configManager.registerArgument(new CommandLineArgument(
+                "--encode", "", "payloadEncoders",
+                (cm, value) -> {
+                    if (cm.getConfigValue("payloadEncoders") == null) {
+                        cm.setConfigValue("payloadEncoders", value);
+                    } else {
+                        cm.setConfigValue("payloadEncoders", cm.getConfigValue("payloadEncoders") + ";" + value);
+                    }
+                },
+                Validator::isValidEncoderChain,
+                "Encodes payloads with a comma-separated chain of encoders before they are injected: none, url, double-url, base64, hex, unicode, upper, lower, mixed-case. Prefix the chain with 'MARKER=' to apply it to a single marker only. Can be used multiple times. Default is 'url'.\n    Example: --encode \"base64,url\" or --encode \"PASS=hex\"",
+                true,
+                null,
+                false
+        ));
+
+        configManager.registerArgument(new CommandLineArgument(
+                "--learned-order", "", "learnedOrder",
+                (cm, value) -> cm.setConfigValue("learnedOrder", value),
+                value -> true,
+                "Fuzzes the payloads that produced the most hits in earlier scans first. Hits are recorded in ~/.vfuzz/hit-statistics.tsv at the end of every scan.",
+                true,
+                "false",
+                true
+        ));
+
+        configManager.registerArgument(new CommandLineArgument(
+                "--depth-wordlists", "", "depthWordlists",
+                (cm, value) -> cm.setConfigValue("depthWordlists", value),
+                Validator::isValidDepthWordlistCsv,
+                "Uses different wordlists for deeper recursion levels, given as comma-separated 'depth:path' pairs. A wordlist applies from its depth on until the next configured depth. Depth 0 always uses the wordlist from '-w'.\n    Example: --depth-wordlists \"1:/path/to/medium.txt,3:/path/to/small.txt\"",
+                true,
+                null,
                 false
         ));
 
@@ -204,6 +311,16 @@ public class ArgParse {
                 true
         ));
 
+        configManager.registerArgument(new CommandLineArgument(
+                "--permute", "", "permutationSeeds",
+                (cm, value) -> cm.setConfigValue("permutationSeeds", value),
+                Validator::isValidFile,
+                "Permutes the known subdomains listed in the given file with the words of the word list in subdomain mode, instead of trying the words on their own.",
+                true,
+                null,
+                false
+        ));
+
         configManager.registerArgument(new CommandLineArgument(
                 "--dns-server","","DNSServer",
                 (cm, value) -> cm.setConfigValue("DNSServer", value),
@@ -258,6 +375,46 @@ public class ArgParse {
                 false
         ));
 
+        configManager.registerArgument(new CommandLineArgument(
+                "--transport", "", "transport",
+                (cm, value) -> cm.setConfigValue("transport", value.toLowerCase()),
+                value -> value.equalsIgnoreCase("apache") || value.equalsIgnoreCase("raw") || value.equalsIgnoreCase("http2"),
+                "Sets how HTTP requests are sent. 'apache' uses the Apache async client, 'raw' a minimal HTTP/1.1 client with request pipelining for plain http targets, 'http2' the JDK client with HTTP/2 multiplexing.",
+                true,
+                "apache",
+                false
+        ));
+
+        configManager.registerArgument(new CommandLineArgument(
+                "--pipeline", "", "pipelineDepth",
+                (cm, value) -> cm.setConfigValue("pipelineDepth", value),
+                value -> Validator.isIntegerInRange(value, 1, 128),
+                "Number of requests in flight per connection with '--transport raw'. Must be a number between 1 and 128.",
+                true,
+                "8",
+                false
+        ));
+
+        configManager.registerArgument(new CommandLineArgument(
+                "--limit-algorithm", "", "limitAlgorithm",
+                (cm, value) -> cm.setConfigValue("limitAlgorithm", value.toLowerCase()),
+                value -> List.of("gradient", "vegas", "aimd", "fixed").contains(value.toLowerCase()),
+                "Sets how the number of requests in flight adapts to the target. 'gradient' shrinks it when latency rises above the minimum, 'vegas' when requests queue up at the target, 'aimd' only on errors, 'fixed' keeps it at 1000.",
+                true,
+                "gradient",
+                false
+        ));
+
+        configManager.registerArgument(new CommandLineArgument(
+                "--virtual-threads", "", "virtualThreads",
+                (cm, value) -> cm.setConfigValue("virtualThreads", value),
+                value -> Validator.isIntegerInRange(value, 1, 1000000),
+                "Runs every request on its own virtual thread that waits for the response, with at most the given number of requests in flight. Requires Java 21.",
+                true,
+                null,
+                false
+        ));
+
         configManager.registerArgument(new CommandLineArgument(
                 "--rate-limit", "", "rateLimit",
                 (cm, value) -> {
@@ -282,6 +439,46 @@ public class ArgParse {
                 false
         ));
 
+        configManager.registerArgument(new CommandLineArgument(
+                "--max-duration", "", "maxDuration",
+                (cm, value) -> cm.setConfigValue("maxDuration", value),
+                Validator::isValidDuration,
+                "Stops the scan after the given time, e.g. '90s', '15m' or '1h30m'. Plain numbers are seconds. Requests in flight get a short grace period to complete.",
+                true,
+                null,
+                false
+        ));
+
+        configManager.registerArgument(new CommandLineArgument(
+                "--max-requests", "", "maxRequests",
+                (cm, value) -> cm.setConfigValue("maxRequests", value),
+                value -> Validator.isIntegerInRange(value, 1, Integer.MAX_VALUE),
+                "Stops the scan after the given number of requests across all targets.",
+                true,
+                null,
+                false
+        ));
+
+        configManager.registerArgument(new CommandLineArgument(
+                "--target-max-duration", "", "targetMaxDuration",
+                (cm, value) -> cm.setConfigValue("targetMaxDuration", value),
+                Validator::isValidDuration,
+                "Stops fuzzing each target after the given time, measured from when the target is discovered. Useful to keep recursion from consuming the whole scan.",
+                true,
+                null,
+                false
+        ));
+
+        configManager.registerArgument(new CommandLineArgument(
+                "--target-max-requests", "", "targetMaxRequests",
+                (cm, value) -> cm.setConfigValue("targetMaxRequests", value),
+                value -> Validator.isIntegerInRange(value, 1, Integer.MAX_VALUE),
+                "Stops fuzzing each target after the given number of requests to it.",
+                true,
+                null,
+                false
+        ));
+
         configManager.registerArgument(new CommandLineArgument(
                 "--recursive", "", "recursionEnabled",
                 (cm, value) -> cm.setConfigValue("recursionEnabled", value),
@@ -363,6 +560,19 @@ public class ArgParse {
                 false
         ));
 
+        configManager.registerArgument(new CommandLineArgument(
+                "--post-data-file", "", "postDataFile",
+                (cm, value) -> {
+                    cm.setConfigValue("postDataFile", value);
+                    cm.setConfigValue("requestMethod", "POST");
+                },
+                Validator::isValidFile,
+                "Reads the POST data from a file instead. The file is memory-mapped and streamed into every request, which suits large bodies.",
+                true,
+                null,
+                false
+        ));
+
         configManager.registerArgument(new CommandLineArgument(
                 "--follow-redirects", "", "followRedirects",
                 (cm, value) -> cm.setConfigValue("followRedirects", value),
@@ -438,6 +648,91 @@ public class ArgParse {
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Retrieves the paths of all word lists that have been passed with {@code -w}.
+     *
+     * @return A list of word list paths in the order they were provided.
+     * If no word list is configured, an empty list is returned.
+     */
+    public static List<String> getWordlistPaths() {
+        return List.copyOf(wordlistPaths);
+    }
+
+    /**
+     * Retrieves the word lists bound to named fuzz markers with {@code --marker}.
+     *
+     * @return A map from marker to word list path, in the order the markers were given. Empty if no markers are
+     * configured.
+     */
+    public static Map<String, String> getMarkerWordlists() {
+        return new LinkedHashMap<>(markerWordlists);
+    }
+
+    /**
+     * Retrieves the encoder pipeline configured with {@code --encode} for a marker. A chain given for the marker
+     * takes precedence over a chain given without a marker.
+     *
+     * @param marker The name of a marker bound with {@code --marker}, or {@code null} for payloads read with '-w'
+     *               or generated with {@code --generate}.
+     * @return The configured pipeline, or {@link EncoderPipeline#DEFAULT} if no chain applies.
+     */
+    public static EncoderPipeline getEncoderPipeline(String marker) {
+        String value = configManager.getConfigValue("payloadEncoders");
+        if (value == null) {
+            return EncoderPipeline.DEFAULT;
+        }
+        String defaultChain = null;
+        for (String chain : value.split(";")) {
+            int separator = chain.indexOf('=');
+            if (separator == -1) {
+                defaultChain = chain;
+            } else if (chain.substring(0, separator).trim().equals(marker)) {
+                return EncoderPipeline.of(chain.substring(separator + 1));
+            }
+        }
+        return defaultChain == null ? EncoderPipeline.DEFAULT : EncoderPipeline.of(defaultChain);
+    }
+
+    /**
+     * Retrieves a duration configured in the form accepted by {@link Budget#parseDuration(String)}.
+     *
+     * @param key The configuration key of the duration, e.g. "maxDuration".
+     * @return The configured duration, or {@code null} if none is configured.
+     */
+    public static Duration getDuration(String key) {
+        String value = configManager.getConfigValue(key);
+        return value == null ? null : Budget.parseDuration(value);
+    }
+
+    /**
+     * Retrieves the payload generator configured with {@code --generate}.
+     *
+     * @return The configured {@link PayloadGenerator}, or {@code null} if payloads are read from a word list.
+     */
+    public static PayloadGenerator getPayloadGenerator() {
+        String spec = configManager.getConfigValue("payloadGenerator");
+        return spec == null ? null : PayloadGenerator.fromSpec(spec);
+    }
+
+    /**
+     * Retrieves the wordlists that have been configured for specific recursion depths.
+     *
+     * @return A map from the recursion depth at which a wordlist starts being used to the path of that wordlist.
+     * If no depth wordlists are configured, an empty map is returned.
+     */
+    public static NavigableMap<Integer, String> getDepthWordlists() {
+        NavigableMap<Integer, String> depthWordlists = new TreeMap<>();
+        String value = configManager.getConfigValue("depthWordlists");
+        if (value == null || value.trim().isEmpty()) {
+            return depthWordlists;
+        }
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":", 2);
+            depthWordlists.put(Integer.parseInt(parts[0].trim()), parts[1].trim());
+        }
+        return depthWordlists;
+    }
+
     /**
      * Retrieves a set of custom headers that have been set for requests.
      *
@@ -1,29 +1,29 @@
 package vfuzz.core;
 
-import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 import vfuzz.config.ConfigAccessor;
+import vfuzz.config.RunConfig;
+import vfuzz.core.payload.PayloadSource;
+import vfuzz.core.wordlist.WordlistEntry;
 import vfuzz.logging.Metrics;
 import vfuzz.network.request.ParsedRequestFactory;
 import vfuzz.network.request.WebRequestFactory;
 import vfuzz.network.strategy.requestmode.RequestMode;
 import vfuzz.network.request.StandardRequestFactory;
+import vfuzz.network.RequestContext;
 import vfuzz.network.WebRequester;
+import vfuzz.network.transport.TransportResponse;
 import vfuzz.operations.Hit;
-import vfuzz.operations.Range;
 import vfuzz.operations.Target;
 
-import java.net.URI;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.*;
 
 /**
  * The {@code QueueConsumer} class is responsible for managing the fuzzing logic
  * for a specific target. It operates as a worker thread that:
  * <ul>
- *     <li>Reads payloads from a wordlist.</li>
+ *     <li>Reads payloads from the {@link PayloadSource} of its target (a wordlist or a generator).</li>
  *     <li>Sends HTTP requests using various request strategies.</li>
  *     <li>Processes HTTP responses to identify hits or excluded results.</li>
  * </ul>
@@ -44,6 +44,10 @@ import java.util.concurrent.*;
  * <p>This class is designed to run in a multi-threaded environment, with each instance
  * managing a specific {@link Target}. Threads are managed by the {@link ThreadOrchestrator}.</p>
  *
+ * <p>With {@code --virtual-threads}, responses are not handled in a chain of asynchronous callbacks. Every request
+ * instead runs on its own virtual thread, which sends it, waits for the response and parses it. The number of these
+ * threads across all consumers is bounded by the value of the option.</p>
+ *
  * @see ThreadOrchestrator
  * @see Target
  * @see Hit
@@ -51,25 +55,30 @@ import java.util.concurrent.*;
 public class QueueConsumer implements Runnable {
 
     private final ThreadOrchestrator orchestrator;
-    private final ExecutorService executor;
+    private final RunConfig runConfig;
     private final ExecutorService parsingExecutor;
-    private final WordlistReader wordlistReader;
-    private final String baseTargetUrl;
+    private final PayloadSource payloadSource;
+    private final String normalizedBaseTargetUrl;
     private final Target target;
     private final String url;
     private final boolean recursionEnabled;
     private final int recursionDepth;
     private final boolean vhostMode;
+    private final boolean postRequests;
+    private final boolean ignoreCase;
     private volatile boolean running = true;
     private static boolean firstThreadFinished = false;
-    private final Set<Range> excludedStatusCodes;
-    private final Set<Range> excludedLength;
-    private final List<String> excludedResults;
+    private static final Semaphore pendingLookups = new Semaphore(1000); // bounds the DNS lookups queued by all consumers
+    private static final int virtualThreadLimit = ConfigAccessor.getRunConfig().getVirtualThreads();
+    private static final Semaphore virtualThreadPermits = virtualThreadLimit == 0 ? null : new Semaphore(virtualThreadLimit);
+    private static final ExecutorService virtualThreadExecutor = virtualThreadLimit == 0 ? null : VirtualThreads.newThreadPerTaskExecutor("vfuzz-request-");
     private WebRequestFactory webRequestFactory;
+    private final RequestContext.ResponseHandler responseHandler = this::handleResponse;
 
 
     /**
      * Constructs a new {@code QueueConsumer} instance with the specified {@link ThreadOrchestrator} and {@link Target}.
+     * The consumer reads its settings from the {@link RunConfig} of the orchestrator.
      *
      * @param orchestrator The thread orchestrator managing the execution of threads.
      * @param target       The target being fuzzed by the current consumer.
@@ -77,25 +86,17 @@ public class QueueConsumer implements Runnable {
     public QueueConsumer(ThreadOrchestrator orchestrator, Target target) {
 
         this.orchestrator = orchestrator;
-        this.executor = orchestrator.getExecutor();
-        parsingExecutor = Executors.newFixedThreadPool(5);
-        this.wordlistReader = target.getWordlistReader();
-        this.baseTargetUrl = ConfigAccessor.getConfigValue("url", String.class);
+        this.runConfig = orchestrator.getRunConfig();
+        parsingExecutor = virtualThreadExecutor == null ? Executors.newFixedThreadPool(5) : null;
+        this.payloadSource = target.getPayloadSource();
+        this.normalizedBaseTargetUrl = normalizeUrl(runConfig.getUrl());
         this.target = target;
         this.url = target.getUrl();
-        this.recursionEnabled = ConfigAccessor.getConfigValue("recursionEnabled", Boolean.class);
+        this.recursionEnabled = runConfig.isRecursionEnabled();
         this.recursionDepth = target.getRecursionDepth();
-        this.excludedStatusCodes = ArgParse.getExcludedStatusCodes();
-        this.excludedLength = ArgParse.getExcludedLength();
-
-        String excludedResults = ConfigAccessor.getConfigValue("excludedResults", String.class);
-        if (excludedResults != null) {
-            this.excludedResults = Arrays.stream((excludedResults).split(",")).toList();
-        } else {
-            this.excludedResults = null;
-        }
-
-        this.vhostMode = ConfigAccessor.getConfigValue("requestMode", RequestMode.class) == RequestMode.VHOST;
+        this.vhostMode = runConfig.getRequestMode() == RequestMode.VHOST;
+        this.postRequests = runConfig.isPost();
+        this.ignoreCase = runConfig.isIgnoreCase();
     }
 
     /**
@@ -113,7 +114,7 @@ public class QueueConsumer implements Runnable {
      */
 
     private void startFuzzing() {
-        if (ConfigAccessor.getConfigValue("requestMode", RequestMode.class) == RequestMode.SUBDOMAIN) {
+        if (runConfig.getRequestMode() == RequestMode.SUBDOMAIN) {
             fuzzSubdomains();
         } else {
             fuzzStandard();
@@ -134,32 +135,28 @@ public class QueueConsumer implements Runnable {
             webRequestFactory = new ParsedRequestFactory();
         }
 
-        boolean fileFuzzingEnabled = false;
-
-        String[] fileExtensions = null;
-        if (ConfigAccessor.getConfigValue("fileExtensions", String.class) != null) {
-            fileFuzzingEnabled = true;
-            fileExtensions = ConfigAccessor.getConfigValue("fileExtensions", String.class).split(",");
-        }
+        List<String> fileExtensions = runConfig.getFileExtensions();
+        int requestsPerPayload = runConfig.getRequestsPerPayload();
 
         while (running) {
-            String payload = wordlistReader.getNextPayload();
-            if (payload == null) {
+            if (!consumeBudget(requestsPerPayload)) {
+                break;
+            }
+            WordlistEntry entry = payloadSource.getNextEntry();
+            if (entry == null) {
                 reachedEndOfWordlist();
                 break;
             }
 
-            if (fileFuzzingEnabled && fileExtensions.length > 0) {
+            if (!fileExtensions.isEmpty()) {
                 for (String extension : fileExtensions) {
-                    HttpRequestBase request = webRequestFactory.buildRequest(payload);
-                    String uri = String.valueOf(request.getURI());
-                    request.setURI(URI.create(uri + extension));
-                    sendAndProcessRequest(request, payload);
+                    HttpRequestBase request = webRequestFactory.buildRequest(entry, extension);
+                    sendAndProcessRequest(request, entry.payload());
                 }
             } else {
-                HttpRequestBase request = webRequestFactory.buildRequest(payload);
+                HttpRequestBase request = webRequestFactory.buildRequest(entry);
 
-                sendAndProcessRequest(request, payload);
+                sendAndProcessRequest(request, entry.payload());
             }
         }
     }
@@ -169,6 +166,9 @@ public class QueueConsumer implements Runnable {
      * Results are processed asynchronously, with valid subdomains logged as hits.
      *
      * <p>If no domain is provided, the method exits with an error message.</p>
+     *
+     * <p>Payloads are only taken from the payload source while fewer than 1000 lookups are pending, so lazily
+     * computed payloads, like subdomain permutations, are not queued up in memory faster than they are resolved.</p>
      */
     private void fuzzSubdomains() {
         String domain = ConfigAccessor.getConfigValue("domainName", String.class);
@@ -186,25 +186,58 @@ public class QueueConsumer implements Runnable {
 
         while (running) {
 
-            String payload = wordlistReader.getNextPayload();
+            try {
+                pendingLookups.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (!consumeBudget(1)) {
+                pendingLookups.release();
+                break;
+            }
+            String payload = payloadSource.getNextPayload();
             if (payload == null) {
+                pendingLookups.release();
                 reachedEndOfWordlist();
                 break;
             }
 
-            executor.submit(() -> {
-                try {
-                    Metrics.incrementRequestsCount();
-                    fuzzer.fuzzAsync(payload).join(); // Ensure the CompletableFuture completes
+            target.incrementSentRequestCount();
+            Metrics.incrementRequestsCount();
+            fuzzer.fuzzAsync(payload).whenComplete((result, e) -> { // runs on the resolver pool, so waiting consumers cannot starve it
+                if (e != null) {
+                    System.err.println("Error fuzzing subdomain: " + e.getMessage());
+                } else {
                     target.incrementSuccessfulRequestCount();
                     Metrics.incrementSuccessfulRequestsCount();
-                } catch (Exception e) {
-                    System.err.println("Error fuzzing subdomain: " + e.getMessage());
                 }
+                pendingLookups.release();
             });
         }
     }
 
+    /**
+     * Reserves the requests for the next payload from the budgets of the target and the scan. If a budget is
+     * exhausted, the consumer stops. A target whose own budget ran out is stopped and treated like a target whose
+     * wordlist has ended, so its threads are redistributed.
+     *
+     * @param requests The number of requests that will be sent for the next payload.
+     * @return {@code true} if the payload may be fuzzed, {@code false} if the consumer has stopped.
+     */
+    private boolean consumeBudget(int requests) {
+        if (!target.getBudget().tryConsume(requests)) {
+            target.stop();
+            reachedEndOfWordlist();
+            return false;
+        }
+        if (!orchestrator.getBudget().tryConsume(requests)) {
+            running = false;
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Marks the end of the wordlist for the current target. Stops the consumer and,
      * if recursion is enabled, redistributes threads for further exploration.
@@ -212,7 +245,7 @@ public class QueueConsumer implements Runnable {
     private void reachedEndOfWordlist() {
         running = false;
         firstThreadFinished = true;
-        if (ConfigAccessor.getConfigValue("recursionEnabled", Boolean.class) && target.setAllocationComplete()) {
+        if (recursionEnabled && target.setAllocationComplete()) {
             orchestrator.redistributeThreads();
         }
     }
@@ -227,16 +260,61 @@ public class QueueConsumer implements Runnable {
      */
     private void sendAndProcessRequest(HttpRequestBase request, String payload) {
         target.incrementSentRequestCount();
-        WebRequester.sendRequest(request, 250, TimeUnit.MILLISECONDS)
-                .thenApplyAsync(response -> {
+        if (request == null) {
+            target.incrementSuccessfulRequestCount(); // the payload does not make a valid request, which has been reported
+            return;
+        }
+        if (virtualThreadExecutor != null) {
+            sendOnVirtualThread(request, payload);
+            return;
+        }
+        WebRequester.submit(RequestContext.obtain(request, payload, responseHandler, parsingExecutor), 250, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Processes the response of a request sent with {@link WebRequester#submit}. Runs on the parsing executor.
+     *
+     * @param context The context of the request, with its response.
+     */
+    private void handleResponse(RequestContext context) {
+        try {
+            if (context.getResponse() != null) { // null if the request could not be sent, which has been reported
+                parseResponse(context.getResponse(), context.getRequest(), context.getPayload());
+            }
+            target.incrementSuccessfulRequestCount(); // we can increment early since we send the request until it arrives!
+        } catch (Exception ignored) {
+        }
+    }
+
+    /**
+     * Sends an HTTP request and processes its response on a new virtual thread. Waits while the maximum number of
+     * virtual threads is running.
+     *
+     * @param request The HTTP request to send.
+     * @param payload The payload used to generate the request.
+     */
+    private void sendOnVirtualThread(HttpRequestBase request, String payload) {
+        try {
+            virtualThreadPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return;
+        }
+        virtualThreadExecutor.execute(() -> {
             try {
-                parseResponse(response, request, payload);
-                target.incrementSuccessfulRequestCount(); // we can increment early since we send the request until it arrives!
+                TransportResponse response = WebRequester.sendBlocking(request, 250, TimeUnit.MILLISECONDS);
+                if (response != null) {
+                    parseResponse(response, request, payload);
+                }
+                target.incrementSuccessfulRequestCount();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             } catch (Exception ignored) {
+            } finally {
+                virtualThreadPermits.release();
             }
-            return response;
-        }, parsingExecutor)
-                .exceptionally(ex -> null);
+        });
     }
 
     /**
@@ -248,26 +326,21 @@ public class QueueConsumer implements Runnable {
      * @param request  The original HTTP request sent.
      * @param payload  The payload used to generate the request.
      */
-    private void parseResponse(HttpResponse response, HttpRequestBase request, String payload) {
+    private void parseResponse(TransportResponse response, HttpRequestBase request, String payload) {
 
-        int responseCode = response.getStatusLine().getStatusCode();
-        for (Range range : excludedStatusCodes) {
-            if (range.contains(responseCode)) {
-                return;
-            }
+        // checking for excluded status codes
+        if (runConfig.isExcludedStatusCode(response.statusCode())) {
+            return;
         }
 
-        // checking for excluded status codes
-        int responseContentLength = (int)response.getEntity().getContentLength();
-        for (Range range : excludedLength) {
-            if (range.contains(responseContentLength)) {
-                return;
-            }
+        // checking for excluded content lengths
+        if (runConfig.isExcludedLength((int) response.contentLength())) {
+            return;
         }
 
         // checking if we hit an excluded url
         String requestUrl = vhostMode ? request.getHeaders("HOST")[0].getValue() : request.getURI().toString();
-        if (isExcluded(requestUrl)) {
+        if (runConfig.isExcludedResult(requestUrl)) {
             return;
         }
 
@@ -284,20 +357,20 @@ public class QueueConsumer implements Runnable {
     }
 
     private boolean isBaseTargetUrl(String url) {
-        String normalizedUrl = normalizeUrl(url);
-        String normalizedBase = normalizeUrl(baseTargetUrl);
-
         // Check if the target URL is the same as the base URL
-        return normalizedUrl.equals(normalizedBase);
+        return normalizeUrl(url).equals(normalizedBaseTargetUrl);
     }
 
     /**
      * Normalizes a URL by removing any trailing slashes.
      *
+     * <p>The same rule is applied to wordlist entries when wordlists are merged before a scan,
+     * so that entries which would only produce double hits are never sent.
+     *
      * @param url The URL to normalize.
      * @return The normalized URL.
      */
-    private String normalizeUrl(String url) {
+    public static String normalizeUrl(String url) {
         if (url.endsWith("/")) {
             return url.substring(0, url.length() - 1);
         }
@@ -311,7 +384,7 @@ public class QueueConsumer implements Runnable {
      * @return {@code true} if the URL is excluded or has already been hit, {@code false} otherwise.
      */
     private boolean isAlreadyHit(String url) {
-        if ("POST".equals(ConfigAccessor.getConfigValue("requestMethod", String.class))) {
+        if (postRequests) {
             return false;
         }
 
@@ -327,31 +400,11 @@ public class QueueConsumer implements Runnable {
             if (normalizeUrl(hit.url()).equals(normalizedUrl)) {
                 return true;
             }
-            if (ConfigAccessor.getConfigValue("ignoreCase", String.class).equals("true")) {
-                if (normalizeUrl(hit.url()).equalsIgnoreCase(url)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
-    }
-
-    /**
-     * Determines if the given URL matches any explicitly excluded results.
-     *
-     * @param url The URL to check.
-     * @return {@code true} if the URL is excluded, {@code false} otherwise.
-     */
-    private boolean isExcluded(String url) {
-        if (excludedResults == null) {
-            return false;
-        }
-        for (String excludedUrl : excludedResults) {
-            if (url.equals(excludedUrl)) {
+            if (ignoreCase && normalizeUrl(hit.url()).equalsIgnoreCase(url)) {
                 return true;
             }
         }
+
         return false;
     }
 
@@ -1,13 +1,32 @@
 package vfuzz.core;
 
 import vfuzz.config.ConfigAccessor;
+import vfuzz.config.RunConfig;
+import vfuzz.core.encoding.EncoderPipeline;
+import vfuzz.core.payload.AttackMode;
+import vfuzz.core.payload.GeneratedPayloadSource;
+import vfuzz.core.payload.MarkerPayloadSource;
+import vfuzz.core.payload.PayloadGenerator;
+import vfuzz.core.payload.PayloadSource;
+import vfuzz.core.payload.SubdomainPermutationSource;
+import vfuzz.core.wordlist.Wordlist;
+import vfuzz.core.wordlist.WordlistStore;
+import vfuzz.operations.Hit;
+import vfuzz.operations.Budget;
+import vfuzz.operations.HitStatistics;
 import vfuzz.operations.Target;
 import vfuzz.logging.TerminalOutput;
 import vfuzz.network.strategy.requestmode.RequestMode;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.concurrent.*;
 
 /**
@@ -24,40 +43,53 @@ import java.util.concurrent.*;
  */
 public class ThreadOrchestrator {
 
-    private final String wordlistPath;
+    private final NavigableMap<Integer, String> wordlistPathsByDepth;
+    private final PayloadGenerator payloadGenerator;
     private ExecutorService executor;
     private ScheduledExecutorService scheduler;
     private final int THREAD_COUNT;
+    private final RunConfig runConfig;
     private TerminalOutput terminalOutput;
     private final ConcurrentHashMap<Target, List<QueueConsumer>> consumerTasks = new ConcurrentHashMap<>();
+    private static final long GRACE_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private Budget budget;
 
     /**
      * Initializes the {@code ThreadOrchestrator} with a wordlist path and thread limit.
      *
-     * @param wordlistPath The path to the wordlist file used during fuzzing.
+     * <p>The given wordlist, the payload generator configured with {@code --generate} or the marker word lists
+     * configured with {@code --marker} are used for the initial target. Recursive targets use the wordlist configured for their depth via {@code --depth-wordlists}, falling
+     * back to the closest shallower depth.
+     *
+     * @param wordlistPath The path to the wordlist file used during fuzzing, or {@code null} if payloads are generated or bound to markers.
      * @param threadLimit  The maximum number of threads allowed for fuzzing.
+     * @param runConfig    The compiled configuration of the scan, which is passed on to its targets and consumers.
      */
-    public ThreadOrchestrator(String wordlistPath, int threadLimit) {
-        this.wordlistPath = wordlistPath;
+    public ThreadOrchestrator(String wordlistPath, int threadLimit, RunConfig runConfig) {
+        this.wordlistPathsByDepth = ArgParse.getDepthWordlists();
+        this.wordlistPathsByDepth.put(0, wordlistPath);
+        this.payloadGenerator = ArgParse.getPayloadGenerator();
         this.THREAD_COUNT = threadLimit;
+        this.runConfig = runConfig;
     }
 
     /**
      * Starts the fuzzing process by initializing the executor service, submitting {@link QueueConsumer}
      * tasks for the initial target, and registering a shutdown hook for graceful termination.
      *
-     * <p>Each {@code QueueConsumer} consumes payloads from the wordlist and sends HTTP requests.
+     * <p>Each {@code QueueConsumer} consumes payloads from the target's payload source and sends HTTP requests.
      * The initial target is created based on the URL fetched from the configuration.
      */
     public void startFuzzing() {
         try {
+            this.budget = new Budget(ConfigAccessor.getConfigValue("maxRequests", Long.class), ArgParse.getDuration("maxDuration"));
+
             this.executor = Executors.newFixedThreadPool(THREAD_COUNT + 1); // plus one for Terminal Output
 
             terminalOutput = new TerminalOutput();
             executor.submit(terminalOutput);
 
-            WordlistReader wordlistReader = new WordlistReader(wordlistPath);
-            Target initialTarget = new Target(ConfigAccessor.getConfigValue("url", String.class), 0, wordlistReader);
+            Target initialTarget = new Target(runConfig.getUrl(), 0, createPayloadSource(0), runConfig);
 
             // Submit the initial tasks to the executor
             List<QueueConsumer> consumersForURL = new ArrayList<>();
@@ -81,6 +113,11 @@ public class ThreadOrchestrator {
                     //noinspection CallToPrintStackTrace
                     e.printStackTrace();
                 }
+                try {
+                    HitStatistics.record(Hit.getHits());
+                } catch (IOException e) {
+                    System.err.println("Failed to update hit statistics: " + e.getMessage());
+                }
                 System.out.println("Goodbye");
             }));
 
@@ -141,15 +178,15 @@ public class ThreadOrchestrator {
     public void initiateRecursion(String newTargetUrl, int currentDepth) {
         int recursionDepthLimit = 5;
         if (currentDepth >= recursionDepthLimit) return; // if max recursion depth is hit, don't add target to list
+        if (budget.isExhausted()) return; // no new targets once the scan budget ran out
         int newDepth = currentDepth + 1;
 
-        if (ConfigAccessor.getConfigValue("requestMode", RequestMode.class) == RequestMode.FUZZ) {
+        if (runConfig.getRequestMode() == RequestMode.FUZZ) {
             newTargetUrl += "/FUZZ";
         }
 
         // Create a new target and allocate threads to it
-        WordlistReader recursiveReader = new WordlistReader(wordlistPath);
-        Target recursiveTarget = new Target(newTargetUrl, newDepth, recursiveReader);
+        Target recursiveTarget = new Target(newTargetUrl, newDepth, createPayloadSource(newDepth), runConfig);
         allocateThreads();
         List<QueueConsumer> consumersForRecursiveURL = new ArrayList<>();
         for (int i = 0; i < recursiveTarget.getAllocatedThreads(); i++) {
@@ -165,7 +202,7 @@ public class ThreadOrchestrator {
             String targetUrl = target.getUrl();
             List<QueueConsumer> consumers = entry.getValue();
 
-            if (targetUrl.equals(ConfigAccessor.getConfigValue("url", String.class))) { // If the original target is still being fuzzed it gets the majority of resources
+            if (targetUrl.equals(runConfig.getUrl())) { // If the original target is still being fuzzed it gets the majority of resources
                 while (consumers.size() > Math.max(THREAD_COUNT / 2, 1)) {
                     QueueConsumer consumer = consumers.remove(consumers.size() - 1); // remove from the end
                     consumer.cancel();
@@ -179,6 +216,70 @@ public class ThreadOrchestrator {
         }
     }
 
+    /**
+     * Creates the payload source for a target at the given recursion depth. Targets use the wordlist configured for
+     * the closest depth that is not deeper than their own, or the payload generator or marker word lists if that is
+     * depth 0 and no wordlist was given. With {@code --permute}, the wordlist provides the words the known subdomains
+     * are permuted with.
+     *
+     * @param depth The recursion depth of the target.
+     * @return A new payload source for the target.
+     */
+    private PayloadSource createPayloadSource(int depth) {
+        String wordlistPath = wordlistPathsByDepth.floorEntry(depth).getValue();
+        if (wordlistPath == null && payloadGenerator != null) {
+            return new GeneratedPayloadSource(payloadGenerator, ArgParse.getEncoderPipeline(null));
+        }
+        if (wordlistPath == null && !ArgParse.getMarkerWordlists().isEmpty()) {
+            return createMarkerPayloadSource();
+        }
+        if (ConfigAccessor.getConfigValue("permutationSeeds", String.class) != null) {
+            return createPermutationSource(wordlistPath);
+        }
+        return new WordlistReader(wordlistPath, ArgParse.getEncoderPipeline(null));
+    }
+
+    /**
+     * Creates a payload source that permutes the subdomains listed in the file configured with {@code --permute}
+     * with the words of the given word list. Subdomains may be listed with or without the target domain.
+     *
+     * @param wordlistPath The path of the word list to permute the subdomains with.
+     * @return The payload source for the subdomain permutations.
+     */
+    private PayloadSource createPermutationSource(String wordlistPath) {
+        String domainSuffix = "." + ConfigAccessor.getConfigValue("domainName", String.class).toLowerCase();
+        try {
+            List<String> seeds = Files.readAllLines(Paths.get(ConfigAccessor.getConfigValue("permutationSeeds", String.class))).stream()
+                    .map(line -> line.trim().toLowerCase())
+                    .map(line -> line.endsWith(domainSuffix) ? line.substring(0, line.length() - domainSuffix.length()) : line)
+                    .filter(line -> !line.isEmpty() && !line.equals(domainSuffix.substring(1)))
+                    .distinct()
+                    .toList();
+            return new SubdomainPermutationSource(seeds, WordlistStore.get(WordlistStore.intern(Paths.get(wordlistPath))));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load subdomains for permutation: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates a payload source that combines the word lists of all markers configured with {@code --marker}.
+     *
+     * @return The payload source for the configured markers and attack mode.
+     */
+    private PayloadSource createMarkerPayloadSource() {
+        Map<String, Wordlist> wordlistsByMarker = new LinkedHashMap<>();
+        Map<String, EncoderPipeline> encodersByMarker = new HashMap<>();
+        for (Map.Entry<String, String> marker : ArgParse.getMarkerWordlists().entrySet()) {
+            encodersByMarker.put(marker.getKey(), ArgParse.getEncoderPipeline(marker.getKey()));
+            try {
+                wordlistsByMarker.put(marker.getKey(), WordlistStore.get(WordlistStore.intern(Paths.get(marker.getValue()))));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to load word list for marker " + marker.getKey() + ": " + e.getMessage());
+            }
+        }
+        return new MarkerPayloadSource(wordlistsByMarker, encodersByMarker, ConfigAccessor.getConfigValue("attackMode", AttackMode.class));
+    }
+
     /**
      * Redistributes threads among active targets. This method assumes that the
      * original target finishes first, and then threads are reallocated to other
@@ -228,13 +329,38 @@ public class ThreadOrchestrator {
         return executor;
     }
 
+    /**
+     * Returns the budget of the whole scan, configured with {@code --max-requests} and {@code --max-duration}.
+     *
+     * @return The budget shared by all targets.
+     */
+    public Budget getBudget() {
+        return budget;
+    }
+
+    public RunConfig getRunConfig() {
+        return runConfig;
+    }
+
 
     /**
      * Schedules a periodic task to check for fuzzing completion every 2 seconds.
+     *
+     * <p>Once the budget of the scan is exhausted, all targets are stopped. Requests in flight get a grace period
+     * of 10 seconds to complete before the scan shuts down with a summary of how much of each target was covered.
      */
     private void scheduleCompletionCheck() {
         scheduler = Executors.newSingleThreadScheduledExecutor();
         scheduler.scheduleAtFixedRate(() -> {
+            if (budget.isExhausted()) {
+                Target.stopAll();
+                if (Target.allTargetsAreFuzzed() || System.nanoTime() - budget.getExhaustedAtNanos() >= GRACE_PERIOD_NANOS) {
+                    terminalOutput.shutdownAfterBudget();
+                    shutdown();
+                    scheduler.shutdown();
+                }
+                return;
+            }
             if (Target.allTargetsAreFuzzed()) {
                 terminalOutput.shutdown();
                 shutdown();
@@ -0,0 +1,36 @@
+package vfuzz.core;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Access to virtual threads, which are only available from Java 21 on.
+ *
+ * <p>VFuzz is built for Java 17. This is the Java 17 version of the class, which reports virtual threads as
+ * unsupported. When VFuzz is built with JDK 21 or newer, the jar is a multi-release jar that also contains the
+ * Java 21 version from {@code src-java21}, and a Java 21 runtime loads that one instead.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Checks whether virtual threads can be used on this runtime.
+     *
+     * @return {@code true} on Java 21 and newer.
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Creates an executor that runs every task on a new virtual thread.
+     *
+     * @param namePrefix The prefix of the thread names, followed by a counter.
+     * @return The executor.
+     * @throws UnsupportedOperationException If virtual threads are not {@linkplain #isSupported() supported}.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or newer.");
+    }
+}
@@ -1,67 +1,268 @@
 package vfuzz.core;
 
+import vfuzz.config.ConfigAccessor;
+import vfuzz.core.encoding.EncoderPipeline;
+import vfuzz.core.payload.PayloadSource;
+import vfuzz.core.wordlist.CompiledWordlist;
+import vfuzz.core.wordlist.LearnedOrder;
+import vfuzz.core.wordlist.MappedWordlist;
+import vfuzz.core.wordlist.PackedWordlist;
+import vfuzz.core.wordlist.Wordlist;
+import vfuzz.core.wordlist.WordlistEntry;
+import vfuzz.core.wordlist.WordlistStore;
+import vfuzz.core.wordlist.WordlistStream;
+import vfuzz.operations.HitStatistics;
+
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.InvalidPathException;
-import java.util.Collections;
-import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The {@code WordlistReader} class provides functionality to read and iterate through a wordlist file.
- * The wordlist is loaded into memory when the class is instantiated, and it can be accessed in a thread-safe
+ * Each reader keeps its own position in the wordlist, and it can be accessed in a thread-safe
  * manner by retrieving each word one by one using the {@link #getNextPayload()} method.
  *
+ * <p>The payloads themselves are held by the {@link WordlistStore}, which loads every file only once. Readers
+ * for the same file therefore share the same payloads, while readers for different files (for example for
+ * different recursion depths) can coexist.
+ *
+ * <p>By default the whole wordlist is loaded into memory as packed UTF-8 bytes by a {@link PackedWordlist},
+ * which avoids keeping a separate {@link String} object per line. If the {@code --mmap} flag is set, the file is
+ * memory-mapped instead and payloads are decoded lazily by a {@link MappedWordlist}, which keeps the heap
+ * usage independent of the wordlist size and lets fuzzing start while the file is still being indexed.
+ *
+ * <p>Wordlists compiled with {@code compile-wordlist} are opened as a {@link CompiledWordlist}, which needs no
+ * indexing pass and also provides the URL-encoded form of every payload through {@link #getNextEntry()}.
+ *
+ * <p>Gzip-compressed wordlists are never loaded as a whole. Each reader decompresses the file through its own
+ * {@link WordlistStream} and hands out the payloads as they are decoded. The size of such a wordlist is estimated
+ * from the share of compressed bytes consumed until the end of the file has been reached.
+ *
+ * <p>The path {@value #STDIN} reads the payloads from the standard input, and a named pipe is read the same way.
+ * Such sources can only be read once and their size is unknown until the writer closes them, so they are
+ * streamed as well. Completion is detected when the end of the input is reached, which allows fuzzing with
+ * generated payload spaces of any size in constant memory.
+ *
+ * <p>With the {@code --learned-order} flag, payloads that produced hits in earlier scans (see {@link HitStatistics})
+ * are served first, ordered by their number of hits, followed by the rest of the wordlist in file order. The
+ * prioritized payloads are found while fuzzing, so the scan does not wait for the wordlist to be loaded. Streamed
+ * wordlists are always read in input order.
+ *
  * <p>This class supports multithreaded environments by using an {@link AtomicInteger} to keep track of
  * the current index being accessed from the wordlist.
  */
-public class WordlistReader {
-    private static List<String> wordlist;
+public class WordlistReader implements PayloadSource {
+
+    /**
+     * The wordlist path that stands for the standard input.
+     */
+    public static final String STDIN = "-";
+
+    private final int wordlistId;
+    private final Wordlist wordlist;
+    private final WordlistStream stream;
+    private final LearnedOrder.Cursor learnedOrder;
+    private final EncoderPipeline encoder;
     private final AtomicInteger currentIndex = new AtomicInteger(0);
 
+    private static Map<String, Integer> learnedYields;
+
 
     /**
-     * Constructs a {@code WordlistReader} and loads the wordlist from the specified file path.
+     * Constructs a {@code WordlistReader} for the wordlist at the specified file path.
      *
-     * <p>The wordlist is loaded once and shared across all instances of the class. The file is read line-by-line
-     * into an immutable list, ensuring that it cannot be modified once loaded.
+     * <p>The wordlist is loaded through the {@link WordlistStore} the first time its path is used and is
+     * shared with all other readers of the same file. Gzip-compressed files, named pipes and the standard input
+     * are streamed instead.
      *
-     * @param path The path to the wordlist file. Must not be null or empty.
+     * @param path    The path to the wordlist file. Must not be null or empty.
+     * @param encoder The pipeline that encodes the payloads.
      * @throws IllegalArgumentException If the path is null, empty, or invalid.
      * @throws RuntimeException If an I/O error occurs while reading the wordlist.
      */
-    public WordlistReader(String path) {
+    public WordlistReader(String path, EncoderPipeline encoder) {
         if (path == null || path.trim().isEmpty()) {
             throw new IllegalArgumentException("Path cannot be null or empty");
         }
-        synchronized (WordlistReader.class) {
-            if (wordlist == null) {
-                try {
-                    wordlist = Collections.unmodifiableList(Files.readAllLines(Paths.get(path)));
-                } catch (InvalidPathException ipe) {
-                    throw new IllegalArgumentException("Invalid path provided: " + path);
-                } catch (IOException ie) {
-                    throw new RuntimeException("Failed to read wordlist from path: " + path, ie);
-                }
+        this.encoder = encoder;
+        if (path.equals(STDIN)) {
+            wordlistId = -1;
+            wordlist = null;
+            stream = WordlistStream.openStdin();
+            learnedOrder = null;
+            return;
+        }
+        try {
+            Path wordlistPath = Paths.get(path);
+            if (isPipe(wordlistPath)) {
+                wordlistId = -1;
+                wordlist = null;
+                stream = WordlistStream.openPipe(wordlistPath);
+            } else if (WordlistStream.isGzip(wordlistPath)) {
+                wordlistId = -1;
+                wordlist = null;
+                stream = WordlistStream.openGzip(wordlistPath);
+            } else {
+                wordlistId = WordlistStore.intern(wordlistPath);
+                wordlist = WordlistStore.get(wordlistId);
+                stream = null;
+            }
+        } catch (InvalidPathException ipe) {
+            throw new IllegalArgumentException("Invalid path provided: " + path);
+        } catch (IOException ie) {
+            throw new RuntimeException("Failed to read wordlist from path: " + path, ie);
+        }
+        if (wordlist != null && ConfigAccessor.getConfigValue("learnedOrder", Boolean.class)) {
+            learnedOrder = LearnedOrder.forWordlist(wordlistId, getLearnedYields(), HitStatistics::normalize).newCursor();
+        } else {
+            learnedOrder = null;
+        }
+    }
+
+    /**
+     * Loads the hit statistics of the current user once. If they cannot be read, the wordlist keeps its file order.
+     */
+    private static synchronized Map<String, Integer> getLearnedYields() {
+        if (learnedYields == null) {
+            try {
+                learnedYields = HitStatistics.load();
+            } catch (IOException e) {
+                System.err.println("Failed to read hit statistics, keeping the wordlist order: " + e.getMessage());
+                learnedYields = Map.of();
             }
         }
+        return learnedYields;
+    }
+
+    /**
+     * Claims the index of the next payload to serve, following the learned order if there is one.
+     */
+    private int nextIndex() {
+        if (learnedOrder == null) {
+            return currentIndex.getAndIncrement();
+        }
+        return learnedOrder.next();
+    }
+
+    /**
+     * Checks whether the wordlist at the given path can only be read once, because it is the standard input or a
+     * named pipe. Such a wordlist cannot be shared between several targets.
+     *
+     * @param path The path to the wordlist.
+     * @return {@code true} if the wordlist can only be read once, {@code false} otherwise.
+     */
+    public static boolean isReadOnce(String path) {
+        if (path.equals(STDIN)) {
+            return true;
+        }
+        try {
+            return isPipe(Paths.get(path));
+        } catch (InvalidPathException ipe) {
+            return false;
+        }
+    }
+
+    private static boolean isPipe(Path path) {
+        return Files.exists(path) && !Files.isRegularFile(path) && !Files.isDirectory(path);
     }
 
     /**
      * Retrieves the next payload from the wordlist.
      *
      * <p>Each call increments the index and returns the word at the current position. When the end of the wordlist
-     * is reached, this method returns {@code null}.
+     * is reached, this method returns {@code null}. If the wordlist is still being indexed, this method blocks until
+     * the payload at the current position is available.
      *
      * @return The next payload from the wordlist, or {@code null} if the end of the wordlist is reached.
      */
+    @Override
     public String getNextPayload() {
-        int index = currentIndex.getAndIncrement();
-        return index < wordlist.size() ? wordlist.get(index) : null;
+        if (stream != null) {
+            return stream.next();
+        }
+        return wordlist.get(nextIndex());
     }
 
-    public int getWordlistSize() {
+    /**
+     * Retrieves the next payload from the wordlist together with its encoded form. URL-encoded forms are read
+     * from the wordlist if it has been compiled; all other forms are computed by the encoder pipeline.
+     *
+     * @return The next entry of the wordlist, or {@code null} if the end of the wordlist is reached.
+     */
+    @Override
+    public WordlistEntry getNextEntry() {
+        if (stream != null) {
+            String payload = stream.next();
+            return payload == null ? null : WordlistEntry.of(payload, encoder);
+        }
+        int index = nextIndex();
+        String payload = wordlist.get(index);
+        if (payload == null) {
+            return null;
+        }
+        String encodedPayload = encoder.isUrlEncodingOnly() ? wordlist.getEncoded(index) : null;
+        return encodedPayload == null ? WordlistEntry.of(payload, encoder) : new WordlistEntry(payload, encodedPayload);
+    }
+
+    /**
+     * Returns the number of payloads in the wordlist. While a memory-mapped wordlist is still being
+     * indexed, this is the number of payloads indexed so far. While a compressed wordlist is still being
+     * decoded, this is an estimate.
+     *
+     * @return The (current or estimated) size of the wordlist.
+     */
+    @Override
+    public long getSize() {
+        if (stream != null) {
+            return stream.getEstimatedSize();
+        }
         return wordlist.size();
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks whether the size of the wordlist is final.
+     *
+     * @return {@code true} if the wordlist has been loaded or indexed completely, {@code false} otherwise.
+     */
+    @Override
+    public boolean isComplete() {
+        if (stream != null) {
+            return stream.isComplete();
+        }
+        return wordlist.isComplete();
+    }
+
+    /**
+     * Checks whether a streamed wordlist could not be decoded to its end.
+     *
+     * @return {@code true} if reading the stream failed, {@code false} otherwise.
+     */
+    @Override
+    public boolean hasFailed() {
+        return stream != null && stream.hasFailed();
+    }
+
+    /**
+     * Stops decoding a streamed wordlist and closes its input. Wordlists kept in the {@link WordlistStore} are
+     * shared with other readers and stay open.
+     */
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Returns the ID under which the wordlist of this reader is kept in the {@link WordlistStore}.
+     *
+     * @return The wordlist ID, or {@code -1} if the wordlist is streamed and not kept in the store.
+     */
+    public int getWordlistId() {
+        return wordlistId;
+    }
+}
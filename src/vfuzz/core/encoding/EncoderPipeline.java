@@ -0,0 +1,126 @@
+package vfuzz.core.encoding;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code EncoderPipeline} class encodes payloads with a chain of {@link Encoding} steps before they are
+ * injected into a request.
+ *
+ * <p>Every payload is encoded once and the result is cached, so recursive targets, file extensions and repeated
+ * scans of the same wordlist reuse it instead of encoding the payload again for every request. Pipelines are
+ * shared through {@link #of(String)}, so all targets that use the same chain also share its cache.
+ *
+ * <p>The cache holds the first {@value #MAX_CACHED_PAYLOADS} payloads that needed encoding and never evicts them;
+ * later payloads are encoded on every use. This is deliberate: every recursive target walks its wordlist from the
+ * start, so an LRU cache smaller than the wordlist would always have evicted the payloads a new target asks for
+ * next, while a cache that keeps the first payloads serves the start of every target.
+ *
+ * <p>Pipelines that only URL-encode skip both the encoding and the cache for payloads that consist solely of
+ * characters which are never URL-encoded. Since most wordlist entries are plain words, this is the common case.
+ */
+public class EncoderPipeline {
+
+    /**
+     * The pipeline used when no encoders are configured. It URL-encodes every payload once.
+     */
+    public static final EncoderPipeline DEFAULT = new EncoderPipeline(List.of(Encoding.URL));
+
+    private static final int MAX_CACHED_PAYLOADS = 1 << 18;
+    private static final Map<String, EncoderPipeline> pipelinesByChain = new ConcurrentHashMap<>();
+
+    static {
+        pipelinesByChain.put(DEFAULT.toString(), DEFAULT);
+    }
+
+    private final Encoding[] steps;
+    private final boolean preservesUrlSafe;
+    private final Map<String, String> cache = new ConcurrentHashMap<>();
+
+    private EncoderPipeline(List<Encoding> steps) {
+        this.steps = steps.toArray(new Encoding[0]);
+        this.preservesUrlSafe = steps.stream().allMatch(Encoding::preservesUrlSafe);
+    }
+
+    /**
+     * Returns the shared pipeline for an encoder chain.
+     *
+     * @param chain The comma-separated names of the encoding steps, in the order they are applied
+     *              (e.g. {@code "base64,url"}).
+     * @return The pipeline for the chain.
+     * @throws IllegalArgumentException If the chain is empty or contains an unknown step.
+     */
+    public static EncoderPipeline of(String chain) {
+        List<Encoding> steps = Arrays.stream(chain.split(","))
+                .map(Encoding::fromName)
+                .toList();
+        if (steps.isEmpty()) {
+            throw new IllegalArgumentException("Encoder chain is empty");
+        }
+        EncoderPipeline pipeline = new EncoderPipeline(steps);
+        return pipelinesByChain.computeIfAbsent(pipeline.toString(), key -> pipeline);
+    }
+
+    /**
+     * Encodes a payload with all steps of this pipeline.
+     *
+     * @param payload The raw payload.
+     * @return The encoded payload.
+     */
+    public String encode(String payload) {
+        if (preservesUrlSafe && isUrlSafe(payload)) {
+            return payload;
+        }
+        String encoded = cache.get(payload);
+        if (encoded != null) {
+            return encoded;
+        }
+        encoded = payload;
+        for (Encoding step : steps) {
+            encoded = step.encode(encoded);
+        }
+        if (cache.size() < MAX_CACHED_PAYLOADS) {
+            cache.put(payload, encoded);
+        }
+        return encoded;
+    }
+
+    /**
+     * Checks whether this pipeline produces the same result as the URL encoding stored in compiled wordlists,
+     * so that their precomputed encoded payloads can be used.
+     *
+     * @return {@code true} if this pipeline only URL-encodes once.
+     */
+    public boolean isUrlEncodingOnly() {
+        return steps.length == 1 && steps[0] == Encoding.URL;
+    }
+
+    /**
+     * Checks whether a payload only consists of characters that {@link java.net.URLEncoder} leaves unchanged.
+     */
+    private static boolean isUrlSafe(String payload) {
+        for (int i = 0; i < payload.length(); i++) {
+            char c = payload.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '-' || c == '*' || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the chain of this pipeline in the form accepted by {@link #of(String)}.
+     *
+     * @return The comma-separated names of the encoding steps.
+     */
+    @Override
+    public String toString() {
+        return Arrays.stream(steps)
+                .map(step -> step.name().toLowerCase().replace('_', '-'))
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,154 @@
+package vfuzz.core.encoding;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * The {@code Encoding} enum represents the single encoding steps that can be chained in an {@link EncoderPipeline}.
+ *
+ * <p>Each step turns a payload into a new string. The steps are applied in the order in which they are given,
+ * so {@code base64,url} first encodes the payload as Base64 and then URL-encodes the result.
+ */
+public enum Encoding {
+
+    /**
+     * Leaves the payload unchanged, so it is sent exactly as it appears in the wordlist.
+     */
+    NONE {
+        @Override
+        public String encode(String payload) {
+            return payload;
+        }
+    },
+
+    /**
+     * URL-encodes the payload as UTF-8 ({@code application/x-www-form-urlencoded}). This is the default.
+     */
+    URL {
+        @Override
+        public String encode(String payload) {
+            return URLEncoder.encode(payload, StandardCharsets.UTF_8);
+        }
+    },
+
+    /**
+     * URL-encodes the payload twice, so that {@code /} becomes {@code %252F}.
+     */
+    DOUBLE_URL {
+        @Override
+        public String encode(String payload) {
+            return URL.encode(URL.encode(payload));
+        }
+    },
+
+    /**
+     * Encodes the UTF-8 bytes of the payload as standard Base64 with padding.
+     */
+    BASE64 {
+        @Override
+        public String encode(String payload) {
+            return Base64.getEncoder().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        }
+    },
+
+    /**
+     * Encodes the UTF-8 bytes of the payload as lowercase hexadecimal digits.
+     */
+    HEX {
+        @Override
+        public String encode(String payload) {
+            return HexFormat.of().formatHex(payload.getBytes(StandardCharsets.UTF_8));
+        }
+    },
+
+    /**
+     * Replaces every character of the payload with its {@code \}{@code uXXXX} escape sequence.
+     */
+    UNICODE {
+        @Override
+        public String encode(String payload) {
+            StringBuilder escaped = new StringBuilder(payload.length() * 6);
+            for (int i = 0; i < payload.length(); i++) {
+                String hex = Integer.toHexString(payload.charAt(i));
+                escaped.append("\\u");
+                escaped.append("0".repeat(4 - hex.length()));
+                escaped.append(hex);
+            }
+            return escaped.toString();
+        }
+    },
+
+    /**
+     * Converts the payload to upper case.
+     */
+    UPPER {
+        @Override
+        public String encode(String payload) {
+            return payload.toUpperCase(Locale.ROOT);
+        }
+    },
+
+    /**
+     * Converts the payload to lower case.
+     */
+    LOWER {
+        @Override
+        public String encode(String payload) {
+            return payload.toLowerCase(Locale.ROOT);
+        }
+    },
+
+    /**
+     * Alternates the case of the letters of the payload, starting with lower case ({@code admin} becomes
+     * {@code aDmIn}).
+     */
+    MIXED_CASE {
+        @Override
+        public String encode(String payload) {
+            StringBuilder mangled = new StringBuilder(payload.length());
+            boolean upper = false;
+            for (int i = 0; i < payload.length(); i++) {
+                char c = payload.charAt(i);
+                if (Character.isLetter(c)) {
+                    mangled.append(upper ? Character.toUpperCase(c) : Character.toLowerCase(c));
+                    upper = !upper;
+                } else {
+                    mangled.append(c);
+                }
+            }
+            return mangled.toString();
+        }
+    };
+
+    /**
+     * Applies this encoding step to a payload.
+     *
+     * @param payload The payload to encode.
+     * @return The encoded payload.
+     */
+    public abstract String encode(String payload);
+
+    /**
+     * Checks whether this step leaves payloads that only consist of characters which are never URL-encoded
+     * ({@code a-z}, {@code A-Z}, {@code 0-9}, {@code .}, {@code -}, {@code *} and {@code _}) unchanged.
+     *
+     * @return {@code true} if such payloads pass through this step unchanged.
+     */
+    boolean preservesUrlSafe() {
+        return this == NONE || this == URL || this == DOUBLE_URL;
+    }
+
+    /**
+     * Parses the name of an encoding step as given on the command line, like {@code double-url}.
+     *
+     * @param name The name of the step, case-insensitive, with {@code -} or {@code _} between words.
+     * @return The matching encoding step.
+     * @throws IllegalArgumentException If no step has the given name.
+     */
+    public static Encoding fromName(String name) {
+        return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
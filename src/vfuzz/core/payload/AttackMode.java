@@ -0,0 +1,20 @@
+package vfuzz.core.payload;
+
+/**
+ * The {@code AttackMode} enum represents the ways the wordlists of several fuzz markers are combined
+ * by a {@link MarkerPayloadSource}.
+ */
+public enum AttackMode {
+
+    /**
+     * All wordlists advance together: the n-th request uses the n-th entry of every wordlist.
+     * The scan ends with the shortest wordlist.
+     */
+    PITCHFORK,
+
+    /**
+     * Every combination of entries is tried (the cartesian product of all wordlists). The last marker
+     * changes fastest.
+     */
+    CLUSTERBOMB
+}
@@ -0,0 +1,104 @@
+package vfuzz.core.payload;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The {@code CharsetGenerator} class produces every string over a character set with a length between a minimum
+ * and a maximum, shorter strings first (a, b, ..., aa, ab, ...).
+ *
+ * <p>The payload at an index is computed by writing the index, minus the number of shorter strings, as a number
+ * in base {@code charset.length()}.
+ */
+public class CharsetGenerator implements PayloadGenerator {
+
+    private final char[] charset;
+    private final int minLength;
+    private final long[] countsByLength; // number of strings of each length from minLength to maxLength
+    private final long size;
+
+    /**
+     * Constructs a generator for all strings over {@code charset} with a length in {@code [minLength, maxLength]}.
+     *
+     * @param charset   The characters to combine. Duplicates are ignored.
+     * @param minLength The minimum string length, at least 1.
+     * @param maxLength The maximum string length, at least {@code minLength}.
+     * @throws IllegalArgumentException If the charset is empty, the lengths are invalid or the number of strings
+     *                                  exceeds {@link Long#MAX_VALUE}.
+     */
+    public CharsetGenerator(String charset, int minLength, int maxLength) {
+        Set<Character> unique = new LinkedHashSet<>();
+        for (char c : charset.toCharArray()) {
+            unique.add(c);
+        }
+        if (unique.isEmpty()) {
+            throw new IllegalArgumentException("Charset must not be empty");
+        }
+        if (minLength < 1 || maxLength < minLength) {
+            throw new IllegalArgumentException("Invalid length range: " + minLength + "-" + maxLength);
+        }
+        this.charset = new char[unique.size()];
+        int i = 0;
+        for (char c : unique) {
+            this.charset[i++] = c;
+        }
+        this.minLength = minLength;
+        this.countsByLength = new long[maxLength - minLength + 1];
+        long total = 0;
+        for (int length = minLength; length <= maxLength; length++) {
+            long count = 1;
+            for (int j = 0; j < length; j++) {
+                count = Math.multiplyExact(count, this.charset.length);
+            }
+            countsByLength[length - minLength] = count;
+            total = Math.addExact(total, count);
+        }
+        this.size = total;
+    }
+
+    /**
+     * Expands ranges like {@code a-z} or {@code 0-9} in a charset specification. A {@code -} at the start or the
+     * end is taken literally.
+     *
+     * @param spec The charset specification.
+     * @return The expanded charset.
+     */
+    public static String expand(String spec) {
+        StringBuilder charset = new StringBuilder();
+        for (int i = 0; i < spec.length(); i++) {
+            char c = spec.charAt(i);
+            if (i + 2 < spec.length() && spec.charAt(i + 1) == '-' && spec.charAt(i + 2) >= c) {
+                for (char r = c; r <= spec.charAt(i + 2); r++) {
+                    charset.append(r);
+                }
+                i += 2;
+            } else {
+                charset.append(c);
+            }
+        }
+        return charset.toString();
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public String generate(long index) {
+        int length = minLength;
+        for (long count : countsByLength) {
+            if (index < count) {
+                break;
+            }
+            index -= count;
+            length++;
+        }
+        char[] payload = new char[length];
+        for (int position = length - 1; position >= 0; position--) {
+            payload[position] = charset[(int) (index % charset.length)];
+            index /= charset.length;
+        }
+        return new String(payload);
+    }
+}
@@ -0,0 +1,52 @@
+package vfuzz.core.payload;
+
+import vfuzz.core.encoding.EncoderPipeline;
+import vfuzz.core.wordlist.WordlistEntry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code GeneratedPayloadSource} class serves the payloads of a {@link PayloadGenerator} in index order.
+ *
+ * <p>Consumers claim indices from a shared counter and compute their payloads independently, so the work splits
+ * across threads without coordination beyond a single atomic increment. The total is known up front.
+ */
+public class GeneratedPayloadSource implements PayloadSource {
+
+    private final PayloadGenerator generator;
+    private final EncoderPipeline encoder;
+    private final AtomicLong currentIndex = new AtomicLong(0);
+
+    /**
+     * Constructs a source that serves all payloads of the given generator.
+     *
+     * @param generator The generator to compute payloads with.
+     * @param encoder   The pipeline that encodes the payloads.
+     */
+    public GeneratedPayloadSource(PayloadGenerator generator, EncoderPipeline encoder) {
+        this.generator = generator;
+        this.encoder = encoder;
+    }
+
+    @Override
+    public String getNextPayload() {
+        long index = currentIndex.getAndIncrement();
+        return index < generator.size() ? generator.generate(index) : null;
+    }
+
+    @Override
+    public WordlistEntry getNextEntry() {
+        String payload = getNextPayload();
+        return payload == null ? null : WordlistEntry.of(payload, encoder);
+    }
+
+    @Override
+    public long getSize() {
+        return generator.size();
+    }
+
+    @Override
+    public boolean isComplete() {
+        return true;
+    }
+}
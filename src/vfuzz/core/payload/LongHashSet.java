@@ -0,0 +1,88 @@
+package vfuzz.core.payload;
+
+/**
+ * A compact set of 64-bit hashes, used to recognize payloads that have been produced before without keeping the
+ * payloads themselves.
+ *
+ * <p>Hashes are stored in a single open-addressing {@code long} array with linear probing, which needs about
+ * 11 to 21 bytes per entry instead of the roughly 100 bytes of a {@code HashSet<String>} entry. Two different
+ * payloads only collide with a probability of about n^2 / 2^65, which is negligible for any realistic number of
+ * candidates.
+ */
+class LongHashSet {
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    private long[] table = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Adds a hash to the set.
+     *
+     * @param hash The hash to add.
+     * @return {@code true} if the hash was not in the set yet, {@code false} otherwise.
+     */
+    synchronized boolean add(long hash) {
+        if (hash == 0) {
+            hash = 1; // 0 marks free slots
+        }
+        if (size >= table.length - (table.length >>> 2)) {
+            resize();
+        }
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            if (table[slot] == 0) {
+                table[slot] = hash;
+                size++;
+                return true;
+            }
+            if (table[slot] == hash) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of hashes in the set.
+     *
+     * @return The number of hashes.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] oldTable = table;
+        table = new long[oldTable.length * 2];
+        int mask = table.length - 1;
+        for (long hash : oldTable) {
+            if (hash == 0) {
+                continue;
+            }
+            int slot = spread(hash) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = hash;
+        }
+    }
+
+    private static int spread(long hash) {
+        return (int) ((hash * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+
+    /**
+     * Computes the 64-bit FNV-1a hash of a string.
+     *
+     * @param value The string to hash.
+     * @return The hash of the string.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,137 @@
+package vfuzz.core.payload;
+
+import vfuzz.core.encoding.EncoderPipeline;
+import vfuzz.core.wordlist.Wordlist;
+import vfuzz.core.wordlist.WordlistEntry;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code MarkerPayloadSource} class combines several named fuzz markers, each bound to its own wordlist,
+ * into one stream of multi-marker payloads.
+ *
+ * <p>Every combination is addressed by a single {@code long} index that is decoded into one wordlist index per
+ * marker when the payload is requested. In {@link AttackMode#PITCHFORK} mode, all markers use the same index. In
+ * {@link AttackMode#CLUSTERBOMB} mode, the index is read as a mixed-radix number whose digits are the wordlist
+ * indices, with the last marker as the least significant digit. The product space is therefore never
+ * materialized, and consumers split it by claiming indices from a shared counter, as with a
+ * {@link GeneratedPayloadSource}.
+ */
+public class MarkerPayloadSource implements PayloadSource {
+
+    private final String[] markers;
+    private final Wordlist[] wordlists;
+    private final EncoderPipeline[] encoders;
+    private final int[] sizes;
+    private final Integer[] replacementOrder; // marker positions, longest marker first
+    private final AttackMode attackMode;
+    private final long size;
+    private final AtomicLong currentIndex = new AtomicLong(0);
+
+    /**
+     * Constructs a source for the given markers. Wordlists that are still loading are waited for, since the
+     * size of the combined space depends on all of them.
+     *
+     * @param wordlistsByMarker The wordlist of each marker, in the order the markers were given.
+     * @param encodersByMarker  The pipeline that encodes the payloads of each marker.
+     * @param attackMode        How the wordlists are combined.
+     * @throws IllegalArgumentException If no marker is given or the cluster bomb space exceeds {@link Long#MAX_VALUE}.
+     * @throws IllegalStateException    If the thread is interrupted before a wordlist is complete.
+     */
+    public MarkerPayloadSource(Map<String, Wordlist> wordlistsByMarker, Map<String, EncoderPipeline> encodersByMarker, AttackMode attackMode) {
+        if (wordlistsByMarker.isEmpty()) {
+            throw new IllegalArgumentException("At least one marker is required");
+        }
+        this.markers = wordlistsByMarker.keySet().toArray(new String[0]);
+        this.wordlists = wordlistsByMarker.values().toArray(new Wordlist[0]);
+        this.encoders = new EncoderPipeline[markers.length];
+        for (int i = 0; i < markers.length; i++) {
+            encoders[i] = encodersByMarker.getOrDefault(markers[i], EncoderPipeline.DEFAULT);
+        }
+        this.sizes = new int[wordlists.length];
+        this.attackMode = attackMode;
+        long combinations = attackMode == AttackMode.PITCHFORK ? Long.MAX_VALUE : 1;
+        for (int i = 0; i < wordlists.length; i++) {
+            sizes[i] = wordlists[i].awaitSize();
+            if (!wordlists[i].isComplete()) {
+                throw new IllegalStateException("Interrupted while waiting for the word list of " + markers[i] + " to be loaded");
+            }
+            if (attackMode == AttackMode.PITCHFORK) {
+                combinations = Math.min(combinations, sizes[i]);
+            } else {
+                try {
+                    combinations = Math.multiplyExact(combinations, sizes[i]);
+                } catch (ArithmeticException e) {
+                    throw new IllegalArgumentException("Too many combinations for cluster bomb mode");
+                }
+            }
+        }
+        this.size = combinations;
+        this.replacementOrder = new Integer[markers.length];
+        for (int i = 0; i < markers.length; i++) {
+            replacementOrder[i] = i;
+        }
+        Arrays.sort(replacementOrder, Comparator.comparingInt((Integer i) -> markers[i].length()).reversed());
+    }
+
+    /**
+     * Decodes a combination index into one wordlist index per marker.
+     */
+    private int[] decode(long index) {
+        int[] indices = new int[wordlists.length];
+        if (attackMode == AttackMode.PITCHFORK) {
+            Arrays.fill(indices, (int) index);
+            return indices;
+        }
+        for (int i = wordlists.length - 1; i >= 0; i--) {
+            indices[i] = (int) (index % sizes[i]);
+            index /= sizes[i];
+        }
+        return indices;
+    }
+
+    @Override
+    public String getNextPayload() {
+        WordlistEntry entry = getNextEntry();
+        return entry == null ? null : entry.payload();
+    }
+
+    @Override
+    public WordlistEntry getNextEntry() {
+        long index = currentIndex.getAndIncrement();
+        if (index >= size) {
+            return null;
+        }
+        int[] indices = decode(index);
+        StringBuilder description = new StringBuilder();
+        String[] encodedPayloads = new String[markers.length];
+        for (int i = 0; i < markers.length; i++) {
+            String payload = wordlists[i].get(indices[i]);
+            String encodedPayload = encoders[i].isUrlEncodingOnly() ? wordlists[i].getEncoded(indices[i]) : null;
+            encodedPayloads[i] = encodedPayload != null ? encodedPayload : encoders[i].encode(payload);
+            if (i > 0) {
+                description.append(", ");
+            }
+            description.append(markers[i]).append('=').append(payload);
+        }
+        Map<String, String> encodedPayloadsByMarker = new LinkedHashMap<>();
+        for (int i : replacementOrder) {
+            encodedPayloadsByMarker.put(markers[i], encodedPayloads[i]);
+        }
+        return new WordlistEntry(description.toString(), encodedPayloads[0], encodedPayloadsByMarker);
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return true;
+    }
+}
@@ -0,0 +1,81 @@
+package vfuzz.core.payload;
+
+import java.util.IllegalFormatException;
+import java.util.Locale;
+
+/**
+ * The {@code PatternGenerator} class inserts the integers of a range into a printf-style pattern, for example
+ * {@code INV-%06d} for {@code INV-000001}, {@code INV-000002}, ... or {@code %x} for hexadecimal IDs.
+ *
+ * <p>The pattern must contain exactly one conversion that accepts an integer; {@code %%} is a literal percent
+ * sign. The text around the conversion is split off once, so only the conversion itself is formatted per payload.
+ */
+public class PatternGenerator implements PayloadGenerator {
+
+    private final String prefix;
+    private final String conversion;
+    private final String suffix;
+    private final long from;
+    private final long size;
+
+    /**
+     * Constructs a generator that formats every number of {@code [from, to]} with the given pattern.
+     *
+     * @param pattern The printf-style pattern with exactly one integer conversion.
+     * @param from    The first number.
+     * @param to      The last number, must not be smaller than {@code from}.
+     * @throws IllegalArgumentException If the pattern is invalid or the range is empty or too large.
+     */
+    public PatternGenerator(String pattern, long from, long to) {
+        if (to < from || to - from < 0 || to - from == Long.MAX_VALUE) { // the difference overflows for huge ranges
+            throw new IllegalArgumentException("Invalid range: " + from + "-" + to);
+        }
+        int start = -1;
+        int end = -1;
+        for (int i = 0; i < pattern.length(); i++) {
+            if (pattern.charAt(i) != '%') {
+                continue;
+            }
+            if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '%') {
+                i++; // literal percent sign
+                continue;
+            }
+            if (start != -1) {
+                throw new IllegalArgumentException("Pattern must contain exactly one conversion: " + pattern);
+            }
+            start = i;
+            end = i + 1;
+            while (end < pattern.length() && !Character.isLetter(pattern.charAt(end))) {
+                end++;
+            }
+            if (end == pattern.length()) {
+                throw new IllegalArgumentException("Incomplete conversion in pattern: " + pattern);
+            }
+            end++; // include the conversion character
+            i = end - 1;
+        }
+        if (start == -1) {
+            throw new IllegalArgumentException("Pattern must contain exactly one conversion: " + pattern);
+        }
+        try {
+            this.prefix = String.format(Locale.ROOT, pattern.substring(0, start));
+            this.conversion = pattern.substring(start, end);
+            this.suffix = String.format(Locale.ROOT, pattern.substring(end));
+            String.format(Locale.ROOT, conversion, from);
+        } catch (IllegalFormatException e) {
+            throw new IllegalArgumentException("Invalid pattern: " + pattern + " (" + e.getMessage() + ")");
+        }
+        this.from = from;
+        this.size = to - from + 1;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public String generate(long index) {
+        return prefix + String.format(Locale.ROOT, conversion, from + index) + suffix;
+    }
+}
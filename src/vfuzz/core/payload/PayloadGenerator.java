@@ -0,0 +1,90 @@
+package vfuzz.core.payload;
+
+/**
+ * The {@code PayloadGenerator} interface describes a finite, ordered space of payloads that are computed from
+ * their index instead of being stored.
+ *
+ * <p>Generators hold no per-payload state, so they use constant memory for any number of payloads and can be
+ * read by several threads at once, each computing whatever index it has claimed.
+ */
+public interface PayloadGenerator {
+
+    /**
+     * Creates a generator from its command-line specification:
+     * <ul>
+     *     <li>{@code range:FROM-TO[:WIDTH]}, e.g. {@code range:1-10000000:8} for zero-padded numbers,</li>
+     *     <li>{@code charset:CHARS:MIN-MAX}, e.g. {@code charset:a-z0-9:1-4} for all strings of 1 to 4 characters,</li>
+     *     <li>{@code pattern:FORMAT:FROM-TO}, e.g. {@code pattern:INV-%06d:1-999999} for printf-style patterns.</li>
+     * </ul>
+     *
+     * @param spec The generator specification.
+     * @return The generator described by the specification.
+     * @throws IllegalArgumentException If the specification is invalid.
+     */
+    static PayloadGenerator fromSpec(String spec) {
+        int typeEnd = spec.indexOf(':');
+        int lastColon = spec.lastIndexOf(':');
+        if (typeEnd == -1) {
+            throw new IllegalArgumentException("Missing generator type in: " + spec);
+        }
+        String type = spec.substring(0, typeEnd);
+        String arguments = spec.substring(typeEnd + 1);
+        try {
+            switch (type) {
+                case "range" -> {
+                    String[] parts = arguments.split(":");
+                    long[] range = parseRange(parts[0]);
+                    int width = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+                    if (parts.length > 2) {
+                        throw new IllegalArgumentException("Too many arguments for range generator: " + spec);
+                    }
+                    return new RangeGenerator(range[0], range[1], width);
+                }
+                case "charset", "pattern" -> {
+                    if (lastColon == typeEnd) {
+                        throw new IllegalArgumentException("Missing range in: " + spec);
+                    }
+                    String text = spec.substring(typeEnd + 1, lastColon); // may contain colons itself
+                    long[] range = parseRange(spec.substring(lastColon + 1));
+                    if (type.equals("pattern")) {
+                        return new PatternGenerator(text, range[0], range[1]);
+                    }
+                    if (range[1] > Integer.MAX_VALUE) {
+                        throw new IllegalArgumentException("Maximum length is too large: " + range[1]);
+                    }
+                    return new CharsetGenerator(CharsetGenerator.expand(text), (int) range[0], (int) range[1]);
+                }
+                default -> throw new IllegalArgumentException("Unknown generator type: " + type);
+            }
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid generator specification: " + spec + " (" + e.getMessage() + ")");
+        }
+    }
+
+    /**
+     * Parses a range of the form {@code FROM-TO}, or a single number that stands for a range of one.
+     */
+    private static long[] parseRange(String range) {
+        int dash = range.indexOf('-', 1); // a leading dash belongs to a negative number
+        if (dash == -1) {
+            long value = Long.parseLong(range.trim());
+            return new long[]{value, value};
+        }
+        return new long[]{Long.parseLong(range.substring(0, dash).trim()), Long.parseLong(range.substring(dash + 1).trim())};
+    }
+
+    /**
+     * Returns the number of payloads this generator produces.
+     *
+     * @return The exact number of payloads.
+     */
+    long size();
+
+    /**
+     * Computes the payload at the given index.
+     *
+     * @param index The zero-based index, smaller than {@link #size()}.
+     * @return The payload at that index.
+     */
+    String generate(long index);
+}
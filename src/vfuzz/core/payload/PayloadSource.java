@@ -0,0 +1,60 @@
+package vfuzz.core.payload;
+
+import vfuzz.core.wordlist.WordlistEntry;
+
+/**
+ * The {@code PayloadSource} interface describes where a {@link vfuzz.operations.Target} gets its payloads from.
+ *
+ * <p>A source hands out every payload exactly once, no matter how many {@link vfuzz.core.QueueConsumer}s pull
+ * from it concurrently, and reports how many payloads it will produce in total so that progress can be shown.
+ * Payloads can be read from a wordlist ({@link vfuzz.core.WordlistReader}) or computed on the fly
+ * ({@link GeneratedPayloadSource}).
+ */
+public interface PayloadSource {
+
+    /**
+     * Retrieves the next payload.
+     *
+     * @return The next payload, or {@code null} if the source is exhausted.
+     */
+    String getNextPayload();
+
+    /**
+     * Retrieves the next payload together with its URL-encoded form.
+     *
+     * @return The next entry, or {@code null} if the source is exhausted.
+     */
+    WordlistEntry getNextEntry();
+
+    /**
+     * Returns the total number of payloads of this source. Until {@link #isComplete()} returns {@code true},
+     * this may be the number of payloads known so far or an estimate.
+     *
+     * @return The (current or estimated) number of payloads.
+     */
+    long getSize();
+
+    /**
+     * Checks whether the value returned by {@link #getSize()} is final.
+     *
+     * @return {@code true} if the size is final, {@code false} otherwise.
+     */
+    boolean isComplete();
+
+    /**
+     * Checks whether this source ended before all of its payloads could be read, e.g. because its wordlist is
+     * damaged. Its size is final then, but it does not cover the whole wordlist.
+     *
+     * @return {@code true} if payloads are missing, {@code false} otherwise.
+     */
+    default boolean hasFailed() {
+        return false;
+    }
+
+    /**
+     * Releases the resources held by this source, e.g. the thread that decodes a streamed wordlist. Called once
+     * the target of the source has been stopped; the source is exhausted afterwards.
+     */
+    default void close() {
+    }
+}
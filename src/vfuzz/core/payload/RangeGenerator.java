@@ -0,0 +1,47 @@
+package vfuzz.core.payload;
+
+/**
+ * The {@code RangeGenerator} class produces the integers of a closed range in ascending order, optionally
+ * left-padded with zeros to a fixed width (for example {@code 00042} for IDs of width 5).
+ */
+public class RangeGenerator implements PayloadGenerator {
+
+    private final long from;
+    private final long size;
+    private final int width;
+
+    /**
+     * Constructs a generator for the range {@code [from, to]}.
+     *
+     * @param from  The first number, must not be negative.
+     * @param to    The last number, must not be smaller than {@code from}.
+     * @param width The minimum number of digits. Shorter numbers are padded with leading zeros; 0 disables padding.
+     * @throws IllegalArgumentException If the range is empty, negative or contains more than {@link Long#MAX_VALUE}
+     *                                  numbers.
+     */
+    public RangeGenerator(long from, long to, int width) {
+        if (from < 0 || to < from || to - from == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid range: " + from + "-" + to);
+        }
+        if (width < 0 || width > 19) {
+            throw new IllegalArgumentException("Padding width must be between 0 and 19: " + width);
+        }
+        this.from = from;
+        this.size = to - from + 1;
+        this.width = width;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public String generate(long index) {
+        String number = Long.toString(from + index);
+        if (number.length() >= width) {
+            return number;
+        }
+        return "0".repeat(width - number.length()) + number;
+    }
+}
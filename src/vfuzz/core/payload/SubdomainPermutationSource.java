@@ -0,0 +1,186 @@
+package vfuzz.core.payload;
+
+import vfuzz.core.wordlist.Wordlist;
+import vfuzz.core.wordlist.WordlistEntry;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code SubdomainPermutationSource} class mutates known subdomains with the words of a wordlist to find
+ * related subdomains, in the style of altdns.
+ *
+ * <p>For every known subdomain ("seed") and every word, the word is joined to the first label of the seed with and
+ * without a dash on either side ({@code dev-api}, {@code api-dev}, {@code devapi}, {@code apidev}) and inserted as a
+ * new label before and after it ({@code dev.api}, {@code api.dev}). In addition, the last number in every seed is
+ * counted up and down ({@code api2} becomes {@code api1}, {@code api3}, ...).
+ *
+ * <p>Candidates are computed from a single index when they are requested, like the payloads of a
+ * {@link GeneratedPayloadSource}, so the candidate space is never materialized. Candidates that have been produced
+ * before, that are seeds themselves or that are no valid host names are skipped. Duplicates are recognized through
+ * a {@link LongHashSet} of candidate hashes. Since skipped candidates are only known once they are reached, the size
+ * is an upper bound until all candidates have been produced.
+ */
+public class SubdomainPermutationSource implements PayloadSource {
+
+    private static final int WORD_MUTATIONS = 6;
+    private static final int NUMBER_RANGE = 5;
+    private static final int NUMBER_MUTATIONS = 2 * NUMBER_RANGE;
+
+    private final String[] seeds;
+    private final Wordlist words;
+    private final int wordCount;
+    private final long candidatesPerSeed;
+    private final long size;
+    private final LongHashSet produced = new LongHashSet();
+    private final AtomicLong currentIndex = new AtomicLong(0);
+    private final AtomicLong skipped = new AtomicLong(0);
+
+    /**
+     * Constructs a source that permutes the given subdomains. If the wordlist is still loading, e.g. because a
+     * memory-mapped wordlist is being indexed, this blocks until it is complete, since the number of candidates
+     * depends on it.
+     *
+     * @param seeds The known subdomains, without the domain (e.g. {@code api.dev} for {@code api.dev.example.com}).
+     * @param words The words to combine the subdomains with.
+     * @throws IllegalArgumentException If no seed is given.
+     * @throws IllegalStateException    If the thread is interrupted before the wordlist is complete.
+     */
+    public SubdomainPermutationSource(List<String> seeds, Wordlist words) {
+        if (seeds.isEmpty()) {
+            throw new IllegalArgumentException("At least one subdomain is required for permutations");
+        }
+        this.seeds = seeds.stream().map(seed -> seed.toLowerCase(Locale.ROOT)).toArray(String[]::new);
+        this.words = words;
+        this.wordCount = words.awaitSize();
+        if (!words.isComplete()) {
+            throw new IllegalStateException("Interrupted while waiting for the word list to be loaded");
+        }
+        this.candidatesPerSeed = (long) wordCount * WORD_MUTATIONS + NUMBER_MUTATIONS;
+        this.size = candidatesPerSeed * this.seeds.length;
+        for (String seed : this.seeds) {
+            produced.add(LongHashSet.hash(seed));
+        }
+    }
+
+    /**
+     * Computes the candidate at the given index.
+     *
+     * @return The candidate, or {@code null} if the mutation does not apply to its seed.
+     */
+    private String candidateAt(long index) {
+        String seed = seeds[(int) (index / candidatesPerSeed)];
+        long mutation = index % candidatesPerSeed;
+        if (mutation >= (long) wordCount * WORD_MUTATIONS) {
+            return countNumber(seed, (int) (mutation - (long) wordCount * WORD_MUTATIONS));
+        }
+        String word = words.get((int) (mutation / WORD_MUTATIONS));
+        if (word == null) {
+            return null;
+        }
+        word = word.trim().toLowerCase(Locale.ROOT);
+        if (word.isEmpty()) {
+            return null;
+        }
+        int labelEnd = seed.indexOf('.');
+        String firstLabel = labelEnd == -1 ? seed : seed.substring(0, labelEnd);
+        String rest = labelEnd == -1 ? "" : seed.substring(labelEnd);
+        return switch ((int) (mutation % WORD_MUTATIONS)) {
+            case 0 -> word + "-" + firstLabel + rest;
+            case 1 -> firstLabel + "-" + word + rest;
+            case 2 -> word + firstLabel + rest;
+            case 3 -> firstLabel + word + rest;
+            case 4 -> word + "." + seed;
+            default -> firstLabel + "." + word + rest;
+        };
+    }
+
+    /**
+     * Counts the last number in a seed up or down, keeping leading zeros.
+     *
+     * @param variant Even variants count up, odd variants count down, by {@code variant / 2 + 1}.
+     * @return The seed with the changed number, or {@code null} if the seed has no number or it would become negative.
+     */
+    private static String countNumber(String seed, int variant) {
+        int end = seed.length();
+        while (end > 0 && !Character.isDigit(seed.charAt(end - 1))) {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && Character.isDigit(seed.charAt(start - 1))) {
+            start--;
+        }
+        if (start == end || end - start > 9) {
+            return null;
+        }
+        int delta = (variant / 2 + 1) * (variant % 2 == 0 ? 1 : -1);
+        int number = Integer.parseInt(seed.substring(start, end)) + delta;
+        if (number < 0) {
+            return null;
+        }
+        String digits = String.valueOf(number);
+        if (digits.length() < end - start) {
+            digits = "0".repeat(end - start - digits.length()) + digits;
+        }
+        return seed.substring(0, start) + digits + seed.substring(end);
+    }
+
+    /**
+     * Checks whether a candidate is a valid sequence of host name labels.
+     */
+    private static boolean isValidHostName(String candidate) {
+        int labelStart = 0;
+        for (int i = 0; i <= candidate.length(); i++) {
+            if (i == candidate.length() || candidate.charAt(i) == '.') {
+                int labelLength = i - labelStart;
+                if (labelLength == 0 || labelLength > 63
+                        || candidate.charAt(labelStart) == '-' || candidate.charAt(i - 1) == '-') {
+                    return false;
+                }
+                labelStart = i + 1;
+                continue;
+            }
+            char c = candidate.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-')) {
+                return false;
+            }
+        }
+        return candidate.length() <= 253;
+    }
+
+    @Override
+    public String getNextPayload() {
+        long index;
+        while ((index = currentIndex.getAndIncrement()) < size) {
+            String candidate = candidateAt(index);
+            if (candidate != null && isValidHostName(candidate) && produced.add(LongHashSet.hash(candidate))) {
+                return candidate;
+            }
+            skipped.incrementAndGet();
+        }
+        return null;
+    }
+
+    @Override
+    public WordlistEntry getNextEntry() {
+        String payload = getNextPayload();
+        return payload == null ? null : WordlistEntry.of(payload);
+    }
+
+    /**
+     * Returns the number of candidates. Until all candidates have been produced, this is an upper bound that
+     * shrinks whenever a candidate is skipped.
+     *
+     * @return The (current upper bound of the) number of candidates.
+     */
+    @Override
+    public long getSize() {
+        return size - skipped.get();
+    }
+
+    @Override
+    public boolean isComplete() {
+        return currentIndex.get() >= size;
+    }
+}
@@ -0,0 +1,172 @@
+package vfuzz.core.wordlist;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The {@code CompiledWordlist} class serves payloads from a wordlist that has been compiled into an indexed binary
+ * file by the {@link WordlistCompiler}.
+ *
+ * <p>The file already contains the offset of every payload, so opening it only maps the file and reads the header.
+ * There is no indexing pass and nothing proportional to the wordlist size is kept on the heap. Besides the raw
+ * payloads, the file holds their URL-encoded form, which {@link #getEncoded(int)} returns without encoding anything
+ * at runtime.
+ *
+ * <p>File layout (all numbers big-endian):
+ * <pre>
+ *   header           magic "VFZW", int version, int count, int reserved,
+ *                    long flags, long raw offsets, long encoded offsets, long end   (48 bytes)
+ *   flags            byte[count], bit 0 set if the payload does not change when URL-encoded
+ *   raw offsets      long[count + 1], absolute start of every raw payload and the end of the last one
+ *   encoded offsets  long[count + 1], absolute start of every encoded payload and the end of the last one
+ *   raw payloads     UTF-8 bytes without line terminators
+ *   encoded payloads URL-encoded bytes, empty for payloads that need no encoding
+ * </pre>
+ */
+public class CompiledWordlist implements Wordlist {
+
+    static final int MAGIC = 0x56465A57; // "VFZW"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 48;
+    static final byte FLAG_NO_ENCODING_NEEDED = 1;
+
+    private static final int SEGMENT_SHIFT = 30; // files are mapped in segments of 1 GB
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final MappedByteBuffer[] segments;
+    private final int count;
+    private final long flagsPosition;
+    private final long rawOffsetsPosition;
+    private final long encodedOffsetsPosition;
+
+    /**
+     * Memory-maps a compiled wordlist and validates its header.
+     *
+     * @param path The path to the compiled wordlist.
+     * @throws IOException If the file cannot be mapped or is not a compiled wordlist of a supported version.
+     */
+    public CompiledWordlist(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Compiled wordlist is truncated: " + path);
+            }
+            int segmentCount = (int) ((fileSize + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long position = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_MASK + 1, fileSize - position));
+            }
+            MappedByteBuffer header = segments[0];
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a compiled wordlist: " + path);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported compiled wordlist version " + header.getInt(4) + ": " + path);
+            }
+            count = header.getInt(8);
+            flagsPosition = header.getLong(16);
+            rawOffsetsPosition = header.getLong(24);
+            encodedOffsetsPosition = header.getLong(32);
+            if (header.getLong(40) != fileSize) {
+                throw new IOException("Compiled wordlist is truncated: " + path);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a file is a compiled wordlist by looking at its magic number.
+     *
+     * @param path The path to the file.
+     * @return {@code true} if the file starts with the magic number of a compiled wordlist, {@code false} otherwise.
+     * @throws IOException If the file cannot be read.
+     */
+    public static boolean isCompiled(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] magic = in.readNBytes(4);
+            return magic.length == 4
+                    && ((magic[0] & 0xff) << 24 | (magic[1] & 0xff) << 16 | (magic[2] & 0xff) << 8 | (magic[3] & 0xff)) == MAGIC;
+        }
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= count) {
+            return null;
+        }
+        return read(rawOffsetsPosition, index);
+    }
+
+    /**
+     * Returns the precompiled URL-encoded form of the payload at the given index.
+     *
+     * @param index The zero-based index of the payload.
+     * @return The URL-encoded payload, or {@code null} if the index lies beyond the end of the wordlist.
+     */
+    @Override
+    public String getEncoded(int index) {
+        if (index < 0 || index >= count) {
+            return null;
+        }
+        if ((byteAt(flagsPosition + index) & FLAG_NO_ENCODING_NEEDED) != 0) {
+            return read(rawOffsetsPosition, index);
+        }
+        return read(encodedOffsetsPosition, index);
+    }
+
+    private String read(long offsetsPosition, int index) {
+        long start = longAt(offsetsPosition + 8L * index);
+        long end = longAt(offsetsPosition + 8L * (index + 1));
+        return decode(start, (int) (end - start));
+    }
+
+    private byte byteAt(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+    }
+
+    private long longAt(long position) {
+        int offsetInSegment = (int) (position & SEGMENT_MASK);
+        MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+        if (offsetInSegment + 8 <= segment.limit()) {
+            return segment.getLong(offsetInSegment);
+        }
+        long value = 0;
+        for (int i = 0; i < 8; i++) { // the value spans two segments
+            value = (value << 8) | (byteAt(position + i) & 0xff);
+        }
+        return value;
+    }
+
+    /**
+     * Decodes UTF-8 bytes from the mapped segments. Payloads that span two segments are copied in parts.
+     */
+    private String decode(long start, int length) {
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            long position = start + copied;
+            MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+            int offsetInSegment = (int) (position & SEGMENT_MASK);
+            int n = Math.min(length - copied, segment.limit() - offsetInSegment);
+            segment.get(offsetInSegment, bytes, copied, n);
+            copied += n;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return true;
+    }
+}
@@ -0,0 +1,203 @@
+package vfuzz.core.wordlist;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The {@code LearnedOrder} class reorders a {@link Wordlist} so that payloads which produced hits in earlier scans
+ * are fuzzed first.
+ *
+ * <p>Which payloads are prioritized follows from the hit statistics alone: a payload is prioritized if its
+ * normalized form has a known yield. Finding them in the wordlist takes a pass over all of its payloads, which
+ * would delay the scan until a memory-mapped wordlist has been indexed completely. The pass therefore runs on a
+ * background thread, and the order is built while fuzzing has already started:
+ * <ul>
+ *     <li>Every {@link Cursor} serves the prioritized payloads found so far first, those with the most hits first
+ *         and ties in file order.</li>
+ *     <li>In between, it serves the other payloads in file order. Payloads with a known yield are skipped there,
+ *         since the background pass finds them and they are served as prioritized payloads instead.</li>
+ * </ul>
+ * Every payload is therefore served exactly once, and only the prioritized payloads are kept in memory, as
+ * {@code long}s that hold the yield and the index.
+ *
+ * <p>Orders are computed once per stored wordlist and shared by all readers of it.
+ */
+public class LearnedOrder {
+
+    private static final Map<Integer, LearnedOrder> ordersByWordlistId = new HashMap<>();
+
+    private final Wordlist wordlist;
+    private final Map<String, Integer> yields;
+    private final Function<String, String> normalizer;
+    private final Object scanLock = new Object();
+
+    private volatile long[] prioritized = new long[16];
+    private volatile int prioritizedCount = 0;
+    private volatile boolean scanComplete = false;
+
+    /**
+     * Starts looking up the payloads of the wordlist in the given yields on a background thread.
+     */
+    private LearnedOrder(Wordlist wordlist, Map<String, Integer> yields, Function<String, String> normalizer) {
+        this.wordlist = wordlist;
+        this.yields = yields;
+        this.normalizer = normalizer;
+        Thread scanner = new Thread(this::scan, "learned-order");
+        scanner.setDaemon(true);
+        scanner.start();
+    }
+
+    /**
+     * Passes over the wordlist once, as far as it has been loaded, and records every payload with a known yield.
+     */
+    private void scan() {
+        try {
+            String payload;
+            for (int index = 0; (payload = wordlist.get(index)) != null; index++) {
+                Integer yield = yields.get(normalizer.apply(payload));
+                if (yield != null) {
+                    append(index, yield);
+                }
+            }
+        } finally {
+            scanComplete = true;
+            synchronized (scanLock) {
+                scanLock.notifyAll();
+            }
+        }
+    }
+
+    private void append(int index, int yield) {
+        long[] current = prioritized;
+        int count = prioritizedCount;
+        if (count == current.length) {
+            current = Arrays.copyOf(current, count * 2);
+            prioritized = current;
+        }
+        current[count] = (long) yield << 32 | (0xFFFFFFFFL - index); // larger values are served first
+        prioritizedCount = count + 1;
+    }
+
+    private static int indexOf(long entry) {
+        return (int) (0xFFFFFFFFL - (entry & 0xFFFFFFFFL));
+    }
+
+    private void awaitScan() {
+        synchronized (scanLock) {
+            while (!scanComplete) {
+                try {
+                    scanLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the learned order of a stored wordlist, starting the pass over it on first use.
+     *
+     * @param wordlistId The ID of the wordlist in the {@link WordlistStore}.
+     * @param yields     The number of hits per normalized payload.
+     * @param normalizer The function that normalizes a payload to the key used in {@code yields}.
+     * @return The learned order of the wordlist.
+     */
+    public static synchronized LearnedOrder forWordlist(int wordlistId, Map<String, Integer> yields, Function<String, String> normalizer) {
+        return ordersByWordlistId.computeIfAbsent(wordlistId, id -> new LearnedOrder(WordlistStore.get(id), yields, normalizer));
+    }
+
+    /**
+     * Creates a cursor that serves every payload of the wordlist once, in the learned order.
+     *
+     * @return A new cursor at the start of the learned order.
+     */
+    public Cursor newCursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Returns the number of payloads that are served ahead of file order. Until the pass over the wordlist is
+     * complete, this is the number found so far.
+     *
+     * @return The number of prioritized payloads.
+     */
+    public int getPrioritizedCount() {
+        return prioritizedCount;
+    }
+
+    /**
+     * A position in the learned order of a wordlist, shared by the consumers of one target.
+     *
+     * <p>The prioritized payloads are taken under the lock of the cursor. Once the pass over the wordlist is
+     * complete and all of them have been served, the cursor only advances an atomic position in file order.
+     */
+    public final class Cursor {
+
+        private final PriorityQueue<Long> queue = new PriorityQueue<>(Comparator.reverseOrder());
+        private final AtomicInteger position = new AtomicInteger(0);
+        private int queued = 0;
+        private volatile boolean prioritizedServed = false;
+
+        private Cursor() {
+        }
+
+        /**
+         * Claims the index of the next payload to serve. If the wordlist is still loading, this blocks like
+         * {@link Wordlist#get(int)}.
+         *
+         * @return The index of the next payload, or an index beyond the end of the wordlist once every payload
+         *         has been served.
+         */
+        public int next() {
+            while (true) {
+                if (!prioritizedServed) {
+                    int index = pollPrioritized();
+                    if (index >= 0) {
+                        return index;
+                    }
+                }
+                int index = position.getAndIncrement();
+                String payload = wordlist.get(index);
+                if (payload == null) {
+                    if (prioritizedServed) {
+                        return index;
+                    }
+                    awaitScan(); // the pass is behind the end of the file order and may still find payloads
+                    int remaining = pollPrioritized();
+                    return remaining >= 0 ? remaining : index;
+                }
+                if (!yields.containsKey(normalizer.apply(payload))) {
+                    return index;
+                }
+            }
+        }
+
+        /**
+         * Takes the prioritized payload with the most hits among those found so far.
+         *
+         * @return Its index, or {@code -1} if none is left at the moment.
+         */
+        private synchronized int pollPrioritized() {
+            boolean complete = scanComplete; // read before the count, so that no payload is missed once it is set
+            int count = prioritizedCount;
+            long[] entries = prioritized;
+            while (queued < count) {
+                queue.add(entries[queued++]);
+            }
+            Long entry = queue.poll();
+            if (entry == null) {
+                if (complete) {
+                    prioritizedServed = true;
+                }
+                return -1;
+            }
+            return indexOf(entry);
+        }
+    }
+}
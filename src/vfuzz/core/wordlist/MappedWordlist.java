@@ -0,0 +1,240 @@
+package vfuzz.core.wordlist;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The {@code MappedWordlist} class serves payloads straight from a memory-mapped wordlist file.
+ *
+ * <p>Instead of reading every line into a {@link String} up front, the file is mapped into memory and a
+ * background thread builds a compact index of line start offsets in one sequential pass. Payloads are only
+ * decoded when they are requested through {@link #get(int)}, so the heap holds little more than the offset
+ * index, regardless of how large the wordlist is.
+ *
+ * <p>Payloads can be read while the index is still being built. Readers that ask for a line the indexer has
+ * not reached yet are blocked until it becomes available, which allows the first requests to be sent
+ * right away instead of after the whole file has been processed.
+ *
+ * <p>Line offsets are stored in chunks of {@value #CHUNK_SIZE} entries. Each chunk keeps its own base offset,
+ * so the entries fit into an {@code int} even for files larger than 2 GB.
+ */
+public class MappedWordlist implements Wordlist {
+
+    private static final int SEGMENT_SHIFT = 30; // files are mapped in segments of 1 GB
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int PUBLISH_INTERVAL = 4096; // how many lines are indexed before waiting readers are woken up
+
+    private final MappedByteBuffer[] segments;
+    private final long fileSize;
+    private final Object indexLock = new Object();
+
+    private volatile int[][] chunks = new int[16][];
+    private volatile long[] chunkBases = new long[16];
+    private volatile int indexedLines = 0;
+    private volatile long lastLineEnd;
+    private volatile boolean complete = false;
+
+    /**
+     * Memory-maps the given wordlist file and starts indexing its lines on a background thread.
+     *
+     * @param path The path to the wordlist file.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    public MappedWordlist(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            fileSize = channel.size();
+            int segmentCount = (int) ((fileSize + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long position = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_MASK + 1, fileSize - position));
+            }
+        }
+
+        Thread indexer = new Thread(this::buildIndex, "wordlist-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    /**
+     * Scans the mapped file once and records the start offset of every line.
+     * Waiting readers are notified every {@value #PUBLISH_INTERVAL} lines and once the scan is complete.
+     */
+    private void buildIndex() {
+        int lines = 0;
+        try {
+            if (fileSize > 0) {
+                appendLineStart(lines, 0);
+                lines++;
+            }
+            for (int s = 0; s < segments.length; s++) {
+                MappedByteBuffer segment = segments[s];
+                long segmentStart = (long) s << SEGMENT_SHIFT;
+                int limit = segment.limit();
+                for (int p = 0; p < limit; p++) {
+                    if (segment.get(p) == '\n') {
+                        long nextLineStart = segmentStart + p + 1;
+                        if (nextLineStart < fileSize) {
+                            appendLineStart(lines, nextLineStart);
+                            lines++;
+                            if ((lines & (PUBLISH_INTERVAL - 1)) == 0) {
+                                publish(lines);
+                            }
+                        }
+                    }
+                }
+            }
+            lastLineEnd = (fileSize > 0 && byteAt(fileSize - 1) == '\n') ? fileSize - 1 : fileSize;
+        } catch (RuntimeException e) {
+            System.err.println("Failed to index wordlist: " + e.getMessage());
+            // keep the lines whose end is known and drop the one that was being scanned
+            lastLineEnd = lines > 1 ? lineStart(lines - 1) - 1 : 0;
+            lines = Math.max(lines - 1, 0);
+        } finally {
+            indexedLines = lines;
+            complete = true;
+            synchronized (indexLock) {
+                indexLock.notifyAll();
+            }
+        }
+    }
+
+    private void appendLineStart(int line, long offset) {
+        int chunk = line >>> CHUNK_SHIFT;
+        int[][] currentChunks = chunks;
+        long[] currentBases = chunkBases;
+        if (chunk == currentChunks.length) {
+            int[][] grownChunks = new int[currentChunks.length * 2][];
+            long[] grownBases = new long[currentBases.length * 2];
+            System.arraycopy(currentChunks, 0, grownChunks, 0, currentChunks.length);
+            System.arraycopy(currentBases, 0, grownBases, 0, currentBases.length);
+            chunkBases = currentBases = grownBases;
+            chunks = currentChunks = grownChunks;
+        }
+        if (currentChunks[chunk] == null) {
+            currentChunks[chunk] = new int[CHUNK_SIZE];
+            currentBases[chunk] = offset;
+        }
+        long relativeOffset = offset - currentBases[chunk];
+        if (relativeOffset > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Wordlist lines are too long to be indexed (line " + line + ")");
+        }
+        currentChunks[chunk][line & CHUNK_MASK] = (int) relativeOffset;
+    }
+
+    private void publish(int lines) {
+        indexedLines = lines;
+        synchronized (indexLock) {
+            indexLock.notifyAll();
+        }
+    }
+
+    private long lineStart(int line) {
+        int chunk = line >>> CHUNK_SHIFT;
+        return chunkBases[chunk] + chunks[chunk][line & CHUNK_MASK];
+    }
+
+    private byte byteAt(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+    }
+
+    /**
+     * Blocks until the end of the given line is known, either because the following line has been indexed
+     * or because indexing is complete.
+     *
+     * @param line The line to wait for.
+     * @return {@code true} if the line exists, {@code false} if it lies beyond the end of the file.
+     */
+    private boolean awaitLine(int line) {
+        while (true) {
+            if (line < indexedLines - 1) {
+                return true;
+            }
+            if (complete) {
+                return line < indexedLines;
+            }
+            synchronized (indexLock) {
+                if (!complete && line >= indexedLines - 1) {
+                    try {
+                        indexLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Blocks until the whole file has been indexed.
+     */
+    @Override
+    public void awaitComplete() {
+        synchronized (indexLock) {
+            while (!complete) {
+                try {
+                    indexLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int awaitSize() {
+        awaitComplete();
+        return size();
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || !awaitLine(index)) {
+            return null;
+        }
+        long start = lineStart(index);
+        long end = index + 1 < indexedLines ? lineStart(index + 1) - 1 : lastLineEnd;
+        if (end > start && byteAt(end - 1) == '\r') {
+            end--;
+        }
+        return decode(start, (int) (end - start));
+    }
+
+    /**
+     * Decodes a UTF-8 encoded line from the mapped segments. Lines that span two segments are copied in parts.
+     */
+    private String decode(long start, int length) {
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            long position = start + copied;
+            MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+            int offsetInSegment = (int) (position & SEGMENT_MASK);
+            int count = Math.min(length - copied, segment.limit() - offsetInSegment);
+            segment.get(offsetInSegment, bytes, copied, count);
+            copied += count;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int size() {
+        boolean done = complete;
+        int lines = indexedLines;
+        return done ? lines : Math.max(lines - 1, 0);
+    }
+
+    @Override
+    public boolean isComplete() {
+        return complete;
+    }
+}
@@ -0,0 +1,178 @@
+package vfuzz.core.wordlist;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The {@code PackedWordlist} class keeps a wordlist in memory as raw UTF-8 bytes packed into a few large arenas.
+ *
+ * <p>Holding every line as a separate {@link String} costs a string header and a backing array per line and
+ * leaves the garbage collector with millions of small objects to trace. This class instead copies the lines,
+ * without their line terminators, back to back into {@code byte[]} arenas of {@value #ARENA_SIZE} bytes and
+ * records where each line starts in a parallel {@code int} array. A line never spans two arenas, so it ends
+ * where the next line in the same arena starts, or where the arena's used space ends.
+ *
+ * <p>Payloads are decoded into a {@link String} only when they are requested through {@link #get(int)}.
+ * The wordlist is read completely by the constructor and is immutable afterwards.
+ */
+public class PackedWordlist implements Wordlist {
+
+    private static final int ARENA_SIZE = 1 << 24; // 16 MB per arena
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private byte[][] arenas = new byte[4][];
+    private int[] arenaUsed = new int[4];
+    private int[] arenaFirstLine = new int[4];
+    private int arenaCount = 0;
+
+    private int[] lineStarts = new int[1024];
+    private int lineCount = 0;
+
+    // state used while reading
+    private byte[] currentArena;
+    private int currentUsed;
+    private int currentLineStart;
+
+    /**
+     * Reads the given wordlist file into packed arenas.
+     *
+     * @param path The path to the wordlist file.
+     * @throws IOException If the file cannot be read.
+     */
+    public PackedWordlist(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            read(in);
+        }
+    }
+
+    /**
+     * Reads all lines from the given stream into packed arenas. Lines are terminated by {@code \n};
+     * a {@code \r} directly before the terminator is dropped.
+     *
+     * @param in The stream to read from. It is not closed by this constructor.
+     * @throws IOException If reading from the stream fails.
+     */
+    public PackedWordlist(InputStream in) throws IOException {
+        read(in);
+    }
+
+    private void read(InputStream in) throws IOException {
+        openArena(ARENA_SIZE);
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        boolean pendingLine = false;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            int segmentStart = 0;
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    appendBytes(buffer, segmentStart, i - segmentStart);
+                    endLine();
+                    segmentStart = i + 1;
+                }
+            }
+            appendBytes(buffer, segmentStart, read - segmentStart);
+            pendingLine = segmentStart < read;
+        }
+        if (pendingLine) {
+            endLine(); // the last line has no terminator
+        }
+        finish();
+    }
+
+    /**
+     * Appends bytes of the line currently being read. If the arena is full, the partial line is moved
+     * into a fresh arena that is large enough to hold it.
+     */
+    private void appendBytes(byte[] source, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        if (currentUsed + length > currentArena.length) {
+            int partialLength = currentUsed - currentLineStart;
+            byte[] previousArena = currentArena;
+            int previousLineStart = currentLineStart;
+            if (arenaFirstLine[arenaCount - 1] == lineCount) {
+                arenaCount--; // no line has been completed in the current arena, so replace it instead of leaving it empty
+            } else {
+                arenaUsed[arenaCount - 1] = currentLineStart;
+            }
+            openArena(Math.max(ARENA_SIZE, partialLength + length));
+            System.arraycopy(previousArena, previousLineStart, currentArena, 0, partialLength);
+            currentUsed = partialLength;
+        }
+        System.arraycopy(source, offset, currentArena, currentUsed, length);
+        currentUsed += length;
+    }
+
+    private void endLine() {
+        if (currentUsed > currentLineStart && currentArena[currentUsed - 1] == '\r') {
+            currentUsed--;
+        }
+        if (lineCount == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lineStarts.length + (lineStarts.length >> 1));
+        }
+        lineStarts[lineCount++] = currentLineStart;
+        currentLineStart = currentUsed;
+    }
+
+    private void openArena(int size) {
+        if (arenaCount == arenas.length) {
+            arenas = Arrays.copyOf(arenas, arenaCount * 2);
+            arenaUsed = Arrays.copyOf(arenaUsed, arenaCount * 2);
+            arenaFirstLine = Arrays.copyOf(arenaFirstLine, arenaCount * 2);
+        }
+        currentArena = new byte[size];
+        currentUsed = 0;
+        currentLineStart = 0;
+        arenas[arenaCount] = currentArena;
+        arenaFirstLine[arenaCount] = lineCount;
+        arenaCount++;
+    }
+
+    /**
+     * Trims the last arena and the index arrays to their used size.
+     */
+    private void finish() {
+        arenas[arenaCount - 1] = Arrays.copyOf(currentArena, currentLineStart);
+        arenaUsed[arenaCount - 1] = currentLineStart;
+        arenas = Arrays.copyOf(arenas, arenaCount);
+        arenaUsed = Arrays.copyOf(arenaUsed, arenaCount);
+        arenaFirstLine = Arrays.copyOf(arenaFirstLine, arenaCount);
+        lineStarts = Arrays.copyOf(lineStarts, lineCount);
+        currentArena = null;
+    }
+
+    /**
+     * Finds the arena holding the given line.
+     */
+    private int arenaOf(int line) {
+        int arena = Arrays.binarySearch(arenaFirstLine, line);
+        return arena >= 0 ? arena : -arena - 2;
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= lineCount) {
+            return null;
+        }
+        int arena = arenaOf(index);
+        int nextArenaFirstLine = arena + 1 < arenaCount ? arenaFirstLine[arena + 1] : lineCount;
+        int start = lineStarts[index];
+        int end = index + 1 < nextArenaFirstLine ? lineStarts[index + 1] : arenaUsed[arena];
+        return new String(arenas[arena], start, end - start, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int size() {
+        return lineCount;
+    }
+
+    @Override
+    public boolean isComplete() {
+        return true;
+    }
+}
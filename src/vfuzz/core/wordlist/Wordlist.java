@@ -0,0 +1,67 @@
+package vfuzz.core.wordlist;
+
+/**
+ * The {@code Wordlist} interface describes an index-addressable, read-only list of payloads.
+ *
+ * <p>Implementations decide how the payloads are stored (on the heap, memory-mapped, ...). They must
+ * be safe to read from multiple threads at once, since every {@link vfuzz.core.QueueConsumer} of a
+ * target pulls payloads from the same instance.
+ *
+ * <p>A wordlist may still be loading while it is read. {@link #size()} then reports the number of
+ * payloads known so far and {@link #isComplete()} returns {@code false} until the final size is known.
+ */
+public interface Wordlist {
+
+    /**
+     * Retrieves the payload at the given index.
+     *
+     * <p>If the wordlist is still loading and the index has not been reached yet, this method blocks
+     * until the payload is available or loading has finished.
+     *
+     * @param index The zero-based index of the payload.
+     * @return The payload, or {@code null} if the index lies beyond the end of the wordlist.
+     */
+    String get(int index);
+
+    /**
+     * Retrieves the URL-encoded form of the payload at the given index, if the wordlist stores it precomputed.
+     *
+     * @param index The zero-based index of the payload.
+     * @return The URL-encoded payload, or {@code null} if the wordlist does not store encoded payloads or the
+     *         index lies beyond its end.
+     */
+    default String getEncoded(int index) {
+        return null;
+    }
+
+    /**
+     * Returns the number of payloads that are currently known.
+     *
+     * @return The number of payloads loaded so far. Equals the final size once {@link #isComplete()} is {@code true}.
+     */
+    int size();
+
+    /**
+     * Blocks until the wordlist has been loaded completely. Wordlists that are loaded completely when they are
+     * created return right away.
+     */
+    default void awaitComplete() {
+    }
+
+    /**
+     * Blocks until the wordlist has been loaded completely and returns its final size.
+     *
+     * @return The final number of payloads.
+     */
+    default int awaitSize() {
+        awaitComplete();
+        return size();
+    }
+
+    /**
+     * Indicates whether the wordlist has been loaded completely.
+     *
+     * @return {@code true} if {@link #size()} is final, {@code false} if loading is still in progress.
+     */
+    boolean isComplete();
+}
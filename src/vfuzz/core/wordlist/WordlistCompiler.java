@@ -0,0 +1,162 @@
+package vfuzz.core.wordlist;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The {@code WordlistCompiler} class compiles a text wordlist into the indexed binary format read by
+ * {@link CompiledWordlist}.
+ *
+ * <p>Compiling moves all per-payload work that does not depend on the target out of the scan: splitting the file
+ * into lines, indexing them and URL-encoding every payload. A wordlist that is used for many scans only has to be
+ * compiled once.
+ *
+ * <p>The sections of the output file are first written to temporary files, since their positions depend on the
+ * number of payloads, and are then concatenated. Memory usage therefore does not depend on the wordlist size.
+ */
+public class WordlistCompiler {
+
+    private final List<Path> temporaryFiles = new ArrayList<>();
+    private int count = 0;
+    private int encodedCount = 0;
+
+    /**
+     * Compiles the given wordlist. Gzip-compressed input is decompressed on the fly.
+     *
+     * @param input  The text wordlist, one payload per line.
+     * @param output The path of the compiled wordlist. An existing file is overwritten.
+     * @throws IOException If reading the input or writing the output fails, or if the input has more than
+     *                     {@link Integer#MAX_VALUE} lines.
+     */
+    public void compile(Path input, Path output) throws IOException {
+        count = 0;
+        encodedCount = 0;
+        try {
+            Path flags = createTemporaryFile();
+            Path rawOffsets = createTemporaryFile();
+            Path encodedOffsets = createTemporaryFile();
+            Path raw = createTemporaryFile();
+            Path encoded = createTemporaryFile();
+            long rawSize = 0;
+            long encodedSize = 0;
+
+            InputStream in = Files.newInputStream(input);
+            if (WordlistStream.isGzip(input)) {
+                in = new GZIPInputStream(in, 1 << 16);
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+                 OutputStream flagsOut = newOutputStream(flags);
+                 DataOutputStream rawOffsetsOut = new DataOutputStream(newOutputStream(rawOffsets));
+                 DataOutputStream encodedOffsetsOut = new DataOutputStream(newOutputStream(encodedOffsets));
+                 OutputStream rawOut = newOutputStream(raw);
+                 OutputStream encodedOut = newOutputStream(encoded)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (count == Integer.MAX_VALUE) {
+                        throw new IOException("Wordlist has too many lines to be compiled: " + input);
+                    }
+                    String encodedLine = URLEncoder.encode(line, StandardCharsets.UTF_8);
+                    byte[] rawBytes = line.getBytes(StandardCharsets.UTF_8);
+                    rawOffsetsOut.writeLong(rawSize);
+                    encodedOffsetsOut.writeLong(encodedSize);
+                    rawOut.write(rawBytes);
+                    rawSize += rawBytes.length;
+                    if (encodedLine.equals(line)) {
+                        flagsOut.write(CompiledWordlist.FLAG_NO_ENCODING_NEEDED);
+                    } else {
+                        byte[] encodedBytes = encodedLine.getBytes(StandardCharsets.UTF_8);
+                        flagsOut.write(0);
+                        encodedOut.write(encodedBytes);
+                        encodedSize += encodedBytes.length;
+                        encodedCount++;
+                    }
+                    count++;
+                }
+                rawOffsetsOut.writeLong(rawSize);
+                encodedOffsetsOut.writeLong(encodedSize);
+            }
+
+            long flagsPosition = CompiledWordlist.HEADER_SIZE;
+            long rawOffsetsPosition = flagsPosition + count;
+            long encodedOffsetsPosition = rawOffsetsPosition + 8L * (count + 1);
+            long rawPosition = encodedOffsetsPosition + 8L * (count + 1);
+            long encodedPosition = rawPosition + rawSize;
+            long end = encodedPosition + encodedSize;
+
+            try (DataOutputStream out = new DataOutputStream(newOutputStream(output))) {
+                out.writeInt(CompiledWordlist.MAGIC);
+                out.writeInt(CompiledWordlist.VERSION);
+                out.writeInt(count);
+                out.writeInt(0);
+                out.writeLong(flagsPosition);
+                out.writeLong(rawOffsetsPosition);
+                out.writeLong(encodedOffsetsPosition);
+                out.writeLong(end);
+                Files.copy(flags, out);
+                copyOffsets(rawOffsets, rawPosition, out);
+                copyOffsets(encodedOffsets, encodedPosition, out);
+                Files.copy(raw, out);
+                Files.copy(encoded, out);
+            }
+        } finally {
+            for (Path temporaryFile : temporaryFiles) {
+                Files.deleteIfExists(temporaryFile);
+            }
+            temporaryFiles.clear();
+        }
+    }
+
+    /**
+     * Copies offsets relative to the start of their section and turns them into absolute file positions.
+     */
+    private static void copyOffsets(Path offsets, long base, DataOutputStream out) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(offsets), 1 << 16))) {
+            long remaining = Files.size(offsets) / 8;
+            for (long i = 0; i < remaining; i++) {
+                out.writeLong(base + in.readLong());
+            }
+        }
+    }
+
+    private Path createTemporaryFile() throws IOException {
+        Path file = Files.createTempFile("vfuzz-compile-", ".tmp");
+        temporaryFiles.add(file);
+        return file;
+    }
+
+    private static OutputStream newOutputStream(Path path) throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(path), 1 << 16);
+    }
+
+    /**
+     * Returns the number of payloads written during the last compilation.
+     *
+     * @return The number of payloads.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of payloads that needed URL encoding during the last compilation.
+     *
+     * @return The number of payloads stored with a separate encoded form.
+     */
+    public int getEncodedCount() {
+        return encodedCount;
+    }
+}
@@ -0,0 +1,81 @@
+package vfuzz.core.wordlist;
+
+import vfuzz.core.encoding.EncoderPipeline;
+import vfuzz.network.request.TemplateText;
+
+import java.util.Map;
+
+/**
+ * A payload together with its encoded form.
+ *
+ * <p>Request factories insert the encoded form into URLs, while the raw payload is used for logging hits.
+ * Carrying both lets the encoding happen once per payload, or not at all during the scan if the wordlist
+ * has been compiled with the {@link WordlistCompiler}. Payloads are URL-encoded unless another
+ * {@link EncoderPipeline} is configured.
+ *
+ * <p>When several fuzz markers are used, an entry holds one encoded payload per marker, and {@link #payload()}
+ * describes the whole combination.
+ *
+ * @param payload                 The raw payload as it appears in the wordlist, or a description of all payloads
+ *                                of a multi-marker entry.
+ * @param encodedPayload          The encoded payload. For multi-marker entries, the payload of the first marker.
+ * @param encodedPayloadsByMarker The encoded payload for each marker, longest marker first, or {@code null}
+ *                                for single-marker entries.
+ */
+public record WordlistEntry(String payload, String encodedPayload, Map<String, String> encodedPayloadsByMarker) {
+
+    /**
+     * Creates a single-marker entry.
+     *
+     * @param payload        The raw payload.
+     * @param encodedPayload The encoded payload.
+     */
+    public WordlistEntry(String payload, String encodedPayload) {
+        this(payload, encodedPayload, null);
+    }
+
+    /**
+     * Creates an entry for a payload whose encoded form has not been precomputed.
+     *
+     * @param payload The raw payload.
+     * @return An entry holding the payload and its URL-encoded form.
+     */
+    public static WordlistEntry of(String payload) {
+        return of(payload, EncoderPipeline.DEFAULT);
+    }
+
+    /**
+     * Creates an entry for a payload by encoding it with the given pipeline.
+     *
+     * @param payload The raw payload.
+     * @param encoder The pipeline that encodes the payload.
+     * @return The entry holding the payload and its encoded form.
+     */
+    public static WordlistEntry of(String payload, EncoderPipeline encoder) {
+        return new WordlistEntry(payload, encoder.encode(payload));
+    }
+
+    /**
+     * Checks whether this entry holds payloads for several named markers.
+     *
+     * @return {@code true} for multi-marker entries, {@code false} otherwise.
+     */
+    public boolean hasMarkers() {
+        return encodedPayloadsByMarker != null;
+    }
+
+    /**
+     * Replaces every occurrence of each marker in the given text with the marker's encoded payload. The text is
+     * scanned once from left to right, so a payload that contains the name of another marker is inserted as it is.
+     * At each position, longer markers are matched first, so that {@code FUZZ10} is not mistaken for {@code FUZZ1}
+     * followed by {@code 0}.
+     *
+     * @param text The text containing the markers.
+     * @return The text with all markers replaced.
+     */
+    public String replaceMarkers(String text) {
+        String[] markers = encodedPayloadsByMarker.keySet().toArray(new String[0]);
+        String[] payloads = encodedPayloadsByMarker.values().toArray(new String[0]);
+        return TemplateText.compile(text, markers, false).expand(payloads);
+    }
+}
@@ -0,0 +1,316 @@
+package vfuzz.core.wordlist;
+
+import vfuzz.core.QueueConsumer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The {@code WordlistMerger} class merges several wordlists into one list of unique payloads before a scan starts.
+ *
+ * <p>Public wordlists overlap heavily and often contain variants of the same entry that only differ by a trailing
+ * slash, surrounding whitespace or case. Sending all of them wastes requests that {@link QueueConsumer} would
+ * discard afterwards anyway. This class normalizes every entry with the same rules the consumer uses to detect
+ * double hits and keeps only the first occurrence of each normalized entry. The normalized form is only used to
+ * compare entries; the merged wordlist contains the first occurrence as it was written in its input, so merging
+ * does not change the requests that are sent.
+ *
+ * <p>The merge is a bounded-memory external merge sort:
+ * <ol>
+ *     <li>All entries are numbered in input order and sorted by their normalized key in runs that fit into the memory budget.
+ *     Each run is spilled to a temporary file.</li>
+ *     <li>The runs are merged by key. Duplicates end up next to each other, and only the one with the lowest
+ *     sequence number is kept. The unique entries are again collected into runs, this time sorted by sequence
+ *     number.</li>
+ *     <li>These runs are merged by sequence number and written to the output file, which restores the original
+ *     order of the wordlists.</li>
+ * </ol>
+ *
+ * <p>Keeping the input order matters because wordlists are usually sorted by how likely an entry is to be found.
+ *
+ * <p>Inputs may be plain text, gzip-compressed or compiled with the {@link WordlistCompiler}; compiled wordlists are
+ * decoded entry by entry.
+ */
+public class WordlistMerger {
+
+    private static final long DEFAULT_RUN_BUFFER_BYTES = 64L << 20;
+    private static final int ENTRY_OVERHEAD_BYTES = 64; // rough per-entry cost of the record, the String and the list slot
+
+    private static final Comparator<Entry> BY_KEY = Comparator.comparing(Entry::key).thenComparingLong(Entry::sequence);
+    private static final Comparator<Entry> BY_SEQUENCE = Comparator.comparingLong(Entry::sequence);
+
+    private final boolean ignoreCase;
+    private final long runBufferBytes;
+    private final List<Path> temporaryFiles = new ArrayList<>();
+    private long entriesRead = 0;
+    private long entriesWritten = 0;
+
+    /**
+     * An entry as it was read, together with its normalized key and its position in the concatenated input.
+     */
+    private record Entry(long sequence, String key, String line) {}
+
+    @FunctionalInterface
+    private interface EntrySink {
+        void accept(Entry entry) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface LineSink {
+        void accept(String line) throws IOException;
+    }
+
+    /**
+     * Constructs a {@code WordlistMerger} with the default memory budget of 64 MB per run.
+     *
+     * @param ignoreCase Whether entries that only differ by case are considered duplicates.
+     */
+    public WordlistMerger(boolean ignoreCase) {
+        this(ignoreCase, DEFAULT_RUN_BUFFER_BYTES);
+    }
+
+    /**
+     * Constructs a {@code WordlistMerger} with a custom memory budget.
+     *
+     * @param ignoreCase     Whether entries that only differ by case are considered duplicates.
+     * @param runBufferBytes The approximate amount of heap a single run may use before it is spilled to disk.
+     */
+    public WordlistMerger(boolean ignoreCase, long runBufferBytes) {
+        this.ignoreCase = ignoreCase;
+        this.runBufferBytes = runBufferBytes;
+    }
+
+    /**
+     * Normalizes a wordlist entry. Surrounding whitespace and a trailing slash are removed, and the entry is
+     * lower-cased if case is ignored.
+     *
+     * @param entry The raw wordlist entry.
+     * @return The normalized entry.
+     */
+    String normalize(String entry) {
+        String normalized = QueueConsumer.normalizeUrl(entry.trim());
+        return ignoreCase ? normalized.toLowerCase(Locale.ROOT) : normalized;
+    }
+
+    /**
+     * Merges the given wordlists into a temporary file that contains the first occurrence of every normalized entry,
+     * in input order. The file is deleted when the JVM exits.
+     *
+     * @param inputs The wordlists to merge.
+     * @return The path of the merged wordlist.
+     * @throws IOException If reading an input or writing a temporary file fails.
+     */
+    public Path merge(List<Path> inputs) throws IOException {
+        entriesRead = 0;
+        entriesWritten = 0;
+        try {
+            List<Path> runsByKey = writeRunsByKey(inputs);
+            List<Path> runsBySequence = removeDuplicates(runsByKey);
+            Path output = Files.createTempFile("vfuzz-wordlist-", ".txt");
+            output.toFile().deleteOnExit();
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(output), StandardCharsets.UTF_8))) {
+                mergeRuns(runsBySequence, BY_SEQUENCE, entry -> {
+                    writer.write(entry.line());
+                    writer.write('\n');
+                    entriesWritten++;
+                });
+            }
+            return output;
+        } finally {
+            for (Path temporaryFile : temporaryFiles) {
+                Files.deleteIfExists(temporaryFile);
+            }
+            temporaryFiles.clear();
+        }
+    }
+
+    /**
+     * Reads all inputs, normalizes their entries and spills them as runs sorted by key.
+     */
+    private List<Path> writeRunsByKey(List<Path> inputs) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<Entry> buffer = new ArrayList<>();
+        long[] bufferedBytes = {0};
+        for (Path input : inputs) {
+            readLines(input, line -> {
+                Entry entry = new Entry(entriesRead++, normalize(line), line);
+                buffer.add(entry);
+                bufferedBytes[0] += estimateSize(entry);
+                if (bufferedBytes[0] >= runBufferBytes) {
+                    runs.add(spill(buffer, BY_KEY));
+                    bufferedBytes[0] = 0;
+                }
+            });
+        }
+        if (!buffer.isEmpty()) {
+            runs.add(spill(buffer, BY_KEY));
+        }
+        return runs;
+    }
+
+    /**
+     * Passes every entry of an input to the sink. Gzip-compressed inputs are decompressed on the fly, and compiled
+     * wordlists are decoded instead of being read as text.
+     */
+    private static void readLines(Path input, LineSink sink) throws IOException {
+        if (CompiledWordlist.isCompiled(input)) {
+            CompiledWordlist wordlist = new CompiledWordlist(input);
+            for (int i = 0; i < wordlist.size(); i++) {
+                sink.accept(wordlist.get(i));
+            }
+            return;
+        }
+        InputStream in = Files.newInputStream(input);
+        if (WordlistStream.isGzip(input)) {
+            in = new GZIPInputStream(in, 1 << 16);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                sink.accept(line);
+            }
+        }
+    }
+
+    /**
+     * Merges the runs sorted by key, keeps the first occurrence of every key and spills the remaining entries as
+     * runs sorted by sequence number.
+     */
+    private List<Path> removeDuplicates(List<Path> runsByKey) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<Entry> buffer = new ArrayList<>();
+        long[] bufferedBytes = {0};
+        String[] previousKey = {null};
+        mergeRuns(runsByKey, BY_KEY, entry -> {
+            if (entry.key().equals(previousKey[0])) {
+                return; // entries with equal keys arrive in sequence order, so the first one is kept
+            }
+            previousKey[0] = entry.key();
+            buffer.add(entry);
+            bufferedBytes[0] += estimateSize(entry);
+            if (bufferedBytes[0] >= runBufferBytes) {
+                runs.add(spill(buffer, BY_SEQUENCE));
+                bufferedBytes[0] = 0;
+            }
+        });
+        if (!buffer.isEmpty()) {
+            runs.add(spill(buffer, BY_SEQUENCE));
+        }
+        for (Path run : runsByKey) {
+            Files.deleteIfExists(run);
+        }
+        return runs;
+    }
+
+    private static long estimateSize(Entry entry) {
+        return ENTRY_OVERHEAD_BYTES + 2L * (entry.key().length() + entry.line().length());
+    }
+
+    /**
+     * Sorts the buffered entries, writes them to a temporary run file and clears the buffer.
+     */
+    private Path spill(List<Entry> buffer, Comparator<Entry> order) throws IOException {
+        buffer.sort(order);
+        Path run = Files.createTempFile("vfuzz-run-", ".tmp");
+        temporaryFiles.add(run);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            for (Entry entry : buffer) {
+                out.writeLong(entry.sequence());
+                writeString(out, entry.key());
+                writeString(out, entry.line());
+            }
+        }
+        buffer.clear();
+        return run;
+    }
+
+    /**
+     * Performs a k-way merge of sorted run files and passes every entry to the sink in the given order.
+     */
+    private void mergeRuns(List<Path> runs, Comparator<Entry> order, EntrySink sink) throws IOException {
+        List<DataInputStream> readers = new ArrayList<>();
+        PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> order.compare(a.entry, b.entry));
+        try {
+            for (Path run : runs) {
+                DataInputStream reader = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+                readers.add(reader);
+                Entry first = readEntry(reader);
+                if (first != null) {
+                    heads.add(new Head(first, reader));
+                }
+            }
+            while (!heads.isEmpty()) {
+                Head head = heads.poll();
+                sink.accept(head.entry);
+                Entry next = readEntry(head.reader);
+                if (next != null) {
+                    heads.add(new Head(next, head.reader));
+                }
+            }
+        } finally {
+            for (DataInputStream reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private record Head(Entry entry, DataInputStream reader) {}
+
+    private static Entry readEntry(DataInputStream in) throws IOException {
+        long sequence;
+        try {
+            sequence = in.readLong();
+        } catch (EOFException e) {
+            return null;
+        }
+        return new Entry(sequence, readString(in), readString(in));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of entries read from all inputs during the last merge.
+     *
+     * @return The number of input entries.
+     */
+    public long getEntriesRead() {
+        return entriesRead;
+    }
+
+    /**
+     * Returns the number of unique entries written during the last merge.
+     *
+     * @return The number of unique entries.
+     */
+    public long getEntriesWritten() {
+        return entriesWritten;
+    }
+}
@@ -0,0 +1,84 @@
+package vfuzz.core.wordlist;
+
+import vfuzz.config.ConfigAccessor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The {@code WordlistStore} class is the shared store for all wordlists used during a scan.
+ *
+ * <p>Every wordlist file is loaded only once and is afterwards referenced by a numeric ID. Targets that use
+ * the same file, like the dozens of recursive targets created during a deep scan, all read from the same
+ * {@link Wordlist} instance instead of holding their own copy of the payloads. Files are identified by their
+ * real path, so different spellings of the same path share one entry as well.
+ *
+ * <p>All methods are thread-safe.
+ */
+public class WordlistStore {
+
+    private static final Map<Path, Integer> idsByPath = new HashMap<>();
+    private static final List<Wordlist> wordlists = new ArrayList<>();
+
+    private WordlistStore() {}
+
+    /**
+     * Returns the ID of the wordlist at the given path, loading the wordlist if this is the first request for it.
+     *
+     * @param path The path to the wordlist file.
+     * @return The ID under which the wordlist is stored.
+     * @throws IOException If the wordlist cannot be read.
+     */
+    public static synchronized int intern(Path path) throws IOException {
+        Path realPath = path.toRealPath();
+        Integer id = idsByPath.get(realPath);
+        if (id != null) {
+            return id;
+        }
+        wordlists.add(open(realPath));
+        id = wordlists.size() - 1;
+        idsByPath.put(realPath, id);
+        return id;
+    }
+
+    /**
+     * Retrieves a stored wordlist by its ID.
+     *
+     * @param id The ID returned by {@link #intern(Path)}.
+     * @return The wordlist stored under the given ID.
+     * @throws IndexOutOfBoundsException If no wordlist is stored under the given ID.
+     */
+    public static synchronized Wordlist get(int id) {
+        return wordlists.get(id);
+    }
+
+    /**
+     * Opens the wordlist with the storage strategy selected in the configuration. Compiled wordlists are
+     * always memory-mapped, gzip-compressed wordlists are always decompressed into packed arenas.
+     *
+     * @param path The path to the wordlist file.
+     * @return The opened {@link Wordlist}.
+     * @throws IOException If the file cannot be read or mapped.
+     */
+    private static Wordlist open(Path path) throws IOException {
+        if (CompiledWordlist.isCompiled(path)) {
+            return new CompiledWordlist(path);
+        }
+        if (WordlistStream.isGzip(path)) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(path), 1 << 16)) {
+                return new PackedWordlist(in);
+            }
+        }
+        if (ConfigAccessor.getConfigValue("mmapWordlist", Boolean.class)) {
+            return new MappedWordlist(path);
+        }
+        return new PackedWordlist(path);
+    }
+}
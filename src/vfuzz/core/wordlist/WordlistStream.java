@@ -0,0 +1,269 @@
+package vfuzz.core.wordlist;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The {@code WordlistStream} class provides the lines of a wordlist one after another while they are being decoded.
+ *
+ * <p>Unlike a {@link Wordlist}, a stream is never held in memory as a whole and cannot be accessed by index. A
+ * background thread decodes the input and fills a bounded read-ahead buffer, and consumers take lines from that
+ * buffer with {@link #next()}. If the consumers fall behind, the decoder blocks until there is room in the buffer
+ * again, so memory usage stays constant no matter how large the input is. The same applies to a producer writing
+ * into a pipe: once the buffer is full the decoder stops reading, the pipe fills up and the producer blocks.
+ *
+ * <p>Because the number of lines is only known once the input has been read completely, the stream estimates
+ * it from the share of input bytes consumed so far, if the total input size is known.
+ *
+ * <p>A stream whose consumers stop early, e.g. because the budget of its target ran out, has to be closed with
+ * {@link #close()}. Otherwise the decoder would wait for room in the buffer forever and keep the input open.
+ */
+public class WordlistStream {
+
+    private static final int READ_AHEAD_LINES = 16384;
+    private static final long OFFER_TIMEOUT_MILLIS = 100; // how often a waiting decoder checks whether the stream was closed
+
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    private static final String END_OF_STREAM = new String(); // compared by identity
+
+    private static final AtomicBoolean stdinOpened = new AtomicBoolean(false);
+
+    private final BlockingQueue<String> buffer = new ArrayBlockingQueue<>(READ_AHEAD_LINES);
+    private final long totalBytes;
+    private final Thread decoder;
+    private volatile long bytesConsumed = 0;
+    private volatile long linesDecoded = 0;
+    private volatile boolean complete = false;
+    private volatile boolean failed = false;
+    private volatile boolean closed = false;
+
+    /**
+     * Starts decoding lines from the given stream on a background thread.
+     *
+     * @param source      The stream to decode. It is closed once its end has been reached.
+     * @param totalBytes  The number of bytes the source will deliver, or {@code -1} if unknown.
+     * @param countedBytes A stream of the source chain whose read bytes are counted for progress estimation,
+     *                     for example the raw file stream below a decompressing stream. May be {@code null} if
+     *                     {@code totalBytes} is unknown.
+     */
+    private WordlistStream(InputStream source, long totalBytes, CountingInputStream countedBytes) {
+        this.totalBytes = totalBytes;
+        decoder = new Thread(() -> decode(source, countedBytes), "wordlist-decoder");
+        decoder.setDaemon(true);
+        decoder.start();
+    }
+
+    /**
+     * Opens the standard input as a stream, for example to fuzz with payloads that another tool generates on the fly.
+     * The standard input can only be opened once per process.
+     *
+     * @return A stream of the lines read from the standard input.
+     * @throws IllegalStateException If the standard input has already been opened.
+     */
+    public static WordlistStream openStdin() {
+        if (!stdinOpened.compareAndSet(false, true)) {
+            throw new IllegalStateException("The standard input can only be used as a wordlist once");
+        }
+        return new WordlistStream(System.in, -1, null);
+    }
+
+    /**
+     * Opens a file that can only be read sequentially, like a named pipe, as a stream. The size of such a file is
+     * unknown until its writer closes it.
+     *
+     * @param path The path to the file.
+     * @return A stream of the lines read from the file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static WordlistStream openPipe(Path path) throws IOException {
+        return new WordlistStream(Files.newInputStream(path), -1, null);
+    }
+
+    /**
+     * Opens a gzip-compressed wordlist file as a stream.
+     *
+     * @param path The path to the compressed wordlist.
+     * @return A stream of the decompressed lines.
+     * @throws IOException If the file cannot be opened or is not in gzip format.
+     */
+    public static WordlistStream openGzip(Path path) throws IOException {
+        CountingInputStream counted = new CountingInputStream(Files.newInputStream(path));
+        return new WordlistStream(new GZIPInputStream(counted, 1 << 16), Files.size(path), counted);
+    }
+
+    /**
+     * Checks whether a file is gzip-compressed by looking at its magic number.
+     *
+     * @param path The path to the file.
+     * @return {@code true} if the file starts with the gzip magic number, {@code false} otherwise.
+     * @throws IOException If the file cannot be read.
+     */
+    public static boolean isGzip(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.read() == 0x1f && in.read() == 0x8b;
+        }
+    }
+
+    private void decode(InputStream source, CountingInputStream countedBytes) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!offer(line)) {
+                    return;
+                }
+                linesDecoded++;
+                if (countedBytes != null) {
+                    bytesConsumed = countedBytes.getCount();
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                failed = true;
+                System.err.println("Failed to read wordlist stream: " + e.getMessage());
+            }
+        } finally {
+            complete = true;
+            offer(END_OF_STREAM);
+        }
+    }
+
+    /**
+     * Adds a line to the buffer, waiting for room as long as the stream is open.
+     *
+     * @return {@code true} if the line was added, {@code false} if the stream has been closed.
+     */
+    private boolean offer(String line) {
+        try {
+            while (!closed) {
+                if (buffer.offer(line, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Stops decoding and releases the input. Lines that have not been taken yet are discarded, and {@link #next()}
+     * returns {@code null} from then on. The decoder is interrupted, which also aborts a read that is blocked on a
+     * file or a named pipe.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        decoder.interrupt();
+        buffer.clear();
+        buffer.offer(END_OF_STREAM);
+    }
+
+    /**
+     * Retrieves the next line of the stream, blocking until it has been decoded.
+     *
+     * @return The next line, or {@code null} if the end of the stream has been reached.
+     */
+    public String next() {
+        try {
+            String line = buffer.take();
+            if (line == END_OF_STREAM) {
+                buffer.offer(END_OF_STREAM); // leave the marker for the other consumers
+                return null;
+            }
+            return line;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Indicates whether decoding has ended, either at the end of the input or because it could not be read any
+     * further. The number of lines is final from then on.
+     *
+     * @return {@code true} if decoding has ended, {@code false} otherwise.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Indicates whether decoding ended before the end of the input because it could not be read, e.g. because a
+     * compressed wordlist is truncated. The lines decoded until then are still handed out.
+     *
+     * @return {@code true} if the input could not be read to the end, {@code false} otherwise.
+     */
+    public boolean hasFailed() {
+        return failed;
+    }
+
+    /**
+     * Returns the number of lines in the stream. Until the stream is complete, this is an estimate based on the
+     * share of input bytes consumed so far, or the number of lines decoded so far if the input size is unknown.
+     *
+     * @return The exact or estimated number of lines.
+     */
+    public long getEstimatedSize() {
+        boolean done = complete;
+        long lines = linesDecoded;
+        long consumed = bytesConsumed;
+        if (done || totalBytes <= 0 || consumed == 0) {
+            return lines;
+        }
+        return Math.max(lines, (long) ((double) lines * totalBytes / consumed));
+    }
+
+    /**
+     * A stream wrapper that counts the bytes read through it.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private volatile long count = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
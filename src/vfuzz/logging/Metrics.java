@@ -1,7 +1,5 @@
 package vfuzz.logging;
 
-import vfuzz.network.WebRequester;
-
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -59,17 +57,8 @@ public class Metrics {
     private static final AtomicLong totalSuccessfulRequests = new AtomicLong();
     private static final AtomicLong totalRetries = new AtomicLong();
 
-    // Counter for successive measuring points with increased retry rate
-    private static int requestsWithIncident = 0;
-
-    // Number of successive measuring points after which rate limiting starts. Acts as a buffer to prevent jitter
-    private static final int incidentLimit = 20;
-
-    // Declares minimum threshold of a problematic retry rate. Everything above this value is considered problematic
-    private static final double acceptableRetryRate = 0.1;
-
     /**
-     * Starts the scheduled task to update metrics and rate limits at regular intervals.
+     * Starts the scheduled task to update metrics at regular intervals.
      * <p>This method is synchronized to ensure only one instance of the update task is running.
      */
     public static synchronized void startMetrics() {
@@ -80,7 +69,7 @@ public class Metrics {
     }
 
     /**
-     * Stops the scheduled task that updates the metrics and rate limits.
+     * Stops the scheduled task that updates the metrics.
      * <p>This method is synchronized to ensure that the task is safely shut down without leaving any running tasks.
      */
     public static synchronized void stopMetrics() {
@@ -91,12 +80,12 @@ public class Metrics {
     }
 
     /**
-     * Updates both metrics and the dynamic rate limiter at each interval.
+     * Updates the metrics and the retry rate at each interval.
      * This method is run at a fixed rate and ensures that metrics are kept current.
      */
     private static void updateAll() {
         updateMetrics();
-        updateDynamicRateLimiter();
+        updateRetryRate();
     }
 
     /**
@@ -179,25 +168,15 @@ public class Metrics {
 
     /**
      * Updates the retry rate, which is calculated as the ratio of retries to requests over time.
+     *
+     * <p>The number of requests in flight is no longer derived from the retry rate. It is adapted after every
+     * request by the {@link vfuzz.network.limit.ConcurrencyLimiter} of the {@link vfuzz.network.WebRequester}.
      */
-    private static void updateDynamicRateLimiter() {
+    private static void updateRetryRate() {
         double requestsPerSecond = getRequestsPerSecond();
         double retriesPerSecond = getRetriesPerSecond();
 
         retryRate = (requestsPerSecond != 0) ? retriesPerSecond / requestsPerSecond : retriesPerSecond;
-
-        if (retryRate > acceptableRetryRate) {
-            requestsWithIncident++;
-
-            if (requestsWithIncident >= incidentLimit) {
-                WebRequester.decreaseFutureLimit();
-                // System.out.println("Decreasing future limit to " + WebRequester.getFutureLimit());
-            }
-        } else {
-            requestsWithIncident = 0;
-            WebRequester.increaseFutureLimit();
-            // System.out.println("Increasing future limit to " + WebRequester.getFutureLimit());
-        }
     }
 
     public static double getRetryRate() {
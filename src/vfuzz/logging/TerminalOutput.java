@@ -2,7 +2,9 @@ package vfuzz.logging;
 
 import org.jline.terminal.Terminal;
 import org.jline.terminal.TerminalBuilder;
+import vfuzz.network.AdmissionGate;
 import vfuzz.network.WebRequester;
+import vfuzz.network.limit.ConcurrencyLimiter;
 import vfuzz.operations.Hit;
 import vfuzz.operations.Target;
 
@@ -19,6 +21,10 @@ public class TerminalOutput implements Runnable {
 
     private ArrayList<String> temporaryOutput = new ArrayList<>();
 
+    private long lastDelayedAdmissions = 0;
+
+    private long lastTotalWaitNanos = 0;
+
     public TerminalOutput() {
         try {
             terminal = TerminalBuilder.builder()
@@ -80,12 +86,12 @@ public class TerminalOutput implements Runnable {
         }
     }
 
-    private String progressBar(int total, int current, int width, String message) {
-        int completed = (int) ((double) current / total * width);
+    private String progressBar(long total, long current, boolean estimated, int width, String message) {
+        int completed = total > 0 ? (int) Math.min((double) current / total * width, width) : 0;
 
         StringBuilder progressBar = new StringBuilder();
         progressBar.append("[").append("=".repeat(completed)).append(" ".repeat(width - completed)).append("]");
-        progressBar.append(" ").append(current).append("/").append(total).append(" " + message);
+        progressBar.append(" ").append(current).append("/").append(estimated ? "~" : "").append(total).append(" " + message);
         return progressBar.toString();
     }
 
@@ -104,6 +110,13 @@ public class TerminalOutput implements Runnable {
         temporaryOutput.add(
                 "Rate limit: " + WebRequester.getRateLimiter().getRateLimitPerSecond()
         );
+        ConcurrencyLimiter limiter = WebRequester.getConcurrencyLimiter();
+        String limiterState = limiter.getState();
+        temporaryOutput.add(
+                "Concurrency:    " + limiter.getAlgorithmName() + ", limit " + WebRequester.getAdmissionGate().getLimit()
+                + (limiterState.isEmpty() ? "" : " (" + limiterState + ")")
+        );
+        temporaryOutput.add(buildAdmissionLine());
         temporaryOutput.add(
                 "Attempted R/s:  " + Metrics.getRequestsPerSecond()
         );
@@ -123,11 +136,28 @@ public class TerminalOutput implements Runnable {
         );
     }
 
+    /**
+     * Describes the requests in flight and how long requests waited to be admitted since the last print cycle.
+     */
+    private String buildAdmissionLine() {
+        AdmissionGate gate = WebRequester.getAdmissionGate();
+        long delayedAdmissions = gate.getDelayedAdmissions();
+        long totalWaitNanos = gate.getTotalWaitNanos();
+        long delayed = delayedAdmissions - lastDelayedAdmissions;
+        double averageWaitMillis = delayed > 0 ? (totalWaitNanos - lastTotalWaitNanos) / (delayed * 1_000_000.0) : 0;
+        lastDelayedAdmissions = delayedAdmissions;
+        lastTotalWaitNanos = totalWaitNanos;
+        return "In flight:      " + gate.getInFlight() + "/" + gate.getLimit()
+                + " (" + gate.getWaiting() + " waiting, " + String.format("%.1f", averageWaitMillis) + " ms avg wait)";
+    }
+
     private void buildProgressBars() {
+        boolean estimated = Target.isTotalRequestNumberEstimated(); // streamed payload sources only know their size at the end
         temporaryOutput.add(
                 progressBar(
                         Target.getTotalRequestNumberToSend(),
                         Target.getSentRequestsForAllTargets(),
+                        estimated,
                         30,
                         "requests sent"
                 )
@@ -136,6 +166,7 @@ public class TerminalOutput implements Runnable {
                 progressBar(
                         Target.getTotalRequestNumberToSend(),
                         Target.getSuccessfulRequestsForAllTargets(),
+                        estimated,
                         30,
                         "responses processed"
                 )
@@ -174,6 +205,17 @@ public class TerminalOutput implements Runnable {
         printExitMessage();
     }
 
+    /**
+     * Stops the output after the budget of the scan ran out and prints how much of each target was covered.
+     */
+    public void shutdownAfterBudget() {
+        running = false;
+        handleOutput(); // print one last time
+        System.out.println("\nThe scan budget is exhausted. Initiating shutdown...");
+        printCoverageSummary();
+        System.out.println("Thank you for fuzzing with VFuzz.");
+    }
+
     private void moveUpAndDeleteLines(int n) {
         // System.out.printf("\033[%dF",n);
         System.out.printf("\033[%dF\033[J", n);
@@ -183,8 +225,28 @@ public class TerminalOutput implements Runnable {
         String s = Target.getTargets().size() == 1 ? "target" : "targets";
         System.out.println(
                 "\nAll fuzzing tasks are complete. Initiating shutdown...\n"
-                + "Fuzzing completed after sending " + Metrics.getTotalSuccessfulRequests() + " requests to " + Target.getTargets().size() + " " + s + ".\n"
-                + "Thank you for fuzzing with VFuzz."
+                + "Fuzzing completed after sending " + Metrics.getTotalSuccessfulRequests() + " requests to " + Target.getTargets().size() + " " + s + "."
         );
+        if (Target.getTargets().stream().anyMatch(target -> target.isStopped() || target.getPayloadSource().hasFailed())) { // some targets ran out of their budget or payloads
+            printCoverageSummary();
+        }
+        System.out.println("Thank you for fuzzing with VFuzz.");
+    }
+
+    /**
+     * Prints, for every target, how many of the requests needed to cover its wordlist have been sent.
+     */
+    private void printCoverageSummary() {
+        System.out.println("Coverage by target:");
+        for (Target target : Target.getTargets()) {
+            long total = target.getRequestNumberToSend();
+            long sent = Math.min(target.sentRequestsCount.get(), total);
+            double coverage = total > 0 ? 100.0 * sent / total : 100.0;
+            String status = target.isStopped() ? "stopped by budget"
+                    : target.getPayloadSource().hasFailed() ? "incomplete, the wordlist could not be read to the end"
+                    : target.targetIsFuzzed() ? "complete" : "interrupted";
+            System.out.printf("  %s: %d/%s%d requests (%.1f%%), %s%n", target.getUrl(), sent,
+                    target.getPayloadSource().isComplete() ? "" : "~", total, coverage, status);
+        }
     }
 }
\ No newline at end of file
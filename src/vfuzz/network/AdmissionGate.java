@@ -0,0 +1,170 @@
+package vfuzz.network;
+
+import java.io.Serial;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code AdmissionGate} class bounds the number of requests in flight with a semaphore whose number of permits
+ * can be changed at runtime.
+ *
+ * <p>A request takes a permit before it is sent and returns it as soon as its attempt has completed or failed. A
+ * thread that finds no permit blocks until one is returned, and is woken by that return. Lowering the limit takes
+ * the permits away, and may leave the semaphore with a negative number of permits, so that no request is admitted
+ * until enough requests in flight have completed to get below the new limit. The limit is therefore never
+ * exceeded, also not while it shrinks.
+ *
+ * <p>The gate records how often requests had to wait for a permit and for how long, which shows whether the limit
+ * or the rate limiter holds the scan back.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * AdmissionGate gate = new AdmissionGate(1000);
+ * gate.acquire();
+ * transport.send(request, callback); // the callback calls gate.release()
+ * }</pre>
+ */
+public class AdmissionGate {
+
+    private final ResizableSemaphore permits;
+    private volatile int limit;
+
+    private final LongAdder admissions = new LongAdder();
+    private final LongAdder delayedAdmissions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    /**
+     * Constructs a gate.
+     *
+     * @param limit The initial maximum number of requests in flight.
+     * @throws IllegalArgumentException If the limit is less than 1.
+     */
+    public AdmissionGate(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The limit must be at least 1, but was " + limit);
+        }
+        this.permits = new ResizableSemaphore(limit);
+        this.limit = limit;
+    }
+
+    /**
+     * Takes a permit, waiting until one is available.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        admissions.increment();
+        if (permits.tryAcquire()) {
+            return;
+        }
+        long waitStart = System.nanoTime();
+        permits.acquire();
+        delayedAdmissions.increment();
+        totalWaitNanos.add(System.nanoTime() - waitStart);
+    }
+
+    /**
+     * Returns a permit and wakes a waiting thread, if there is one.
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Changes the maximum number of requests in flight. Raising the limit admits waiting requests immediately;
+     * lowering it holds back new requests until the requests in flight are below the new limit.
+     *
+     * @param newLimit The new limit.
+     * @throws IllegalArgumentException If the limit is less than 1.
+     */
+    public synchronized void setLimit(int newLimit) {
+        if (newLimit < 1) {
+            throw new IllegalArgumentException("The limit must be at least 1, but was " + newLimit);
+        }
+        int delta = newLimit - limit;
+        if (delta > 0) {
+            permits.release(delta);
+        } else if (delta < 0) {
+            permits.reducePermits(-delta);
+        }
+        limit = newLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of requests that hold a permit. The value is a snapshot and may be slightly off while the
+     * limit is changed.
+     *
+     * @return The number of requests in flight.
+     */
+    public int getInFlight() {
+        return limit - permits.availablePermits();
+    }
+
+    /**
+     * Returns an estimate of the number of threads that are waiting for a permit.
+     *
+     * @return The number of waiting threads.
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Returns the number of requests that have been admitted or are waiting to be admitted.
+     *
+     * @return The number of admissions.
+     */
+    public long getAdmissions() {
+        return admissions.sum();
+    }
+
+    /**
+     * Returns the number of requests that had to wait for a permit.
+     *
+     * @return The number of delayed admissions.
+     */
+    public long getDelayedAdmissions() {
+        return delayedAdmissions.sum();
+    }
+
+    /**
+     * Returns the total time that requests have waited for a permit.
+     *
+     * @return The total wait time in nanoseconds.
+     */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    /**
+     * Returns the average time that a delayed request waited for its permit.
+     *
+     * @return The average wait time in milliseconds, or 0 if no request had to wait.
+     */
+    public double getAverageWaitMillis() {
+        long delayed = delayedAdmissions.sum();
+        return delayed == 0 ? 0 : totalWaitNanos.sum() / (delayed * 1_000_000.0);
+    }
+
+    /**
+     * A semaphore whose permits can be taken away without acquiring them.
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        ResizableSemaphore(int permits) {
+            super(permits);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
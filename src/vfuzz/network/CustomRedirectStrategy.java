@@ -6,24 +6,34 @@ import org.apache.http.ProtocolException;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.impl.client.DefaultRedirectStrategy;
 import org.apache.http.protocol.HttpContext;
-import vfuzz.config.ConfigAccessor;
 
 /**
  * The {@code CustomRedirectStrategy} class extends the {@link DefaultRedirectStrategy} to provide
  * custom handling of HTTP redirects based on the application’s configuration.
  *
- * <p>This strategy allows redirects to be optionally followed based on a configuration value.
+ * <p>This strategy allows redirects to be optionally followed based on the {@code followRedirects} setting.
  * If redirects are disabled in the configuration, no redirect will be followed, even if the server
  * returns a redirect response. Additionally, the strategy checks for a "Location" header in the response,
  * which is required for following the redirect.
  */
 public class CustomRedirectStrategy extends DefaultRedirectStrategy {
 
+    private final boolean followRedirects;
+
+    /**
+     * Constructs a new {@code CustomRedirectStrategy}.
+     *
+     * @param followRedirects Whether redirects are followed at all.
+     */
+    public CustomRedirectStrategy(boolean followRedirects) {
+        this.followRedirects = followRedirects;
+    }
+
     /**
      * Determines if the given request should be redirected based on the HTTP response and context.
      *
-     * <p>This method first checks the configuration to see if redirects are enabled. If redirects are
-     * disabled in the configuration (via the "followRedirects" key), it returns {@code false}.
+     * <p>This method first checks whether redirects are enabled. If redirects are disabled,
+     * it returns {@code false}.
      * Otherwise, it falls back to the default redirect handling provided by {@link DefaultRedirectStrategy},
      * but adds an additional check to ensure that the "Location" header is present in the response.
      *
@@ -35,7 +45,7 @@ public class CustomRedirectStrategy extends DefaultRedirectStrategy {
      */
     @Override
     public boolean isRedirected(HttpRequest request, HttpResponse response, HttpContext context) throws ProtocolException {
-        if (!ConfigAccessor.getConfigValue("followRedirects", Boolean.class)) {
+        if (!followRedirects) {
             return false;
         }
         boolean isRedirect = super.isRedirected(request, response, context);
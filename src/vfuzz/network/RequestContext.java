@@ -0,0 +1,210 @@
+package vfuzz.network;
+
+import org.apache.http.client.methods.HttpRequestBase;
+import vfuzz.network.transport.RejectedRequestException;
+import vfuzz.network.transport.TransportCallback;
+import vfuzz.network.transport.TransportResponse;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The {@code RequestContext} class carries one request through the {@link WebRequester}: from being sent, through
+ * any retries, to the handling of its response.
+ *
+ * <p>The context is the only object that the {@code WebRequester} needs per request. It is the task that sends the
+ * request, the callback that the transport reports to, and the task that hands the response to its handler.
+ * Contexts are pooled, and a context is returned to the pool as soon as its handler has returned, so handlers must
+ * not keep a reference to it.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * RequestContext context = RequestContext.obtain(request, payload, this::handleResponse, parsingExecutor);
+ * WebRequester.submit(context, 250, TimeUnit.MILLISECONDS);
+ * }</pre>
+ */
+public final class RequestContext implements Runnable, TransportCallback {
+
+    /**
+     * Processes the response of a request.
+     */
+    @FunctionalInterface
+    public interface ResponseHandler {
+
+        /**
+         * Processes the response held by a context. The context is recycled when this method returns.
+         *
+         * @param context The context of the request, with its response.
+         */
+        void handle(RequestContext context);
+    }
+
+    private enum Phase { SEND, RETRY, HANDLE }
+
+    private static final int POOL_CAPACITY = WebRequester.MAX_CONCURRENCY_LIMIT; // at most this many requests are in flight
+    private static final BlockingQueue<RequestContext> pool = new ArrayBlockingQueue<>(POOL_CAPACITY);
+
+    private HttpRequestBase request;
+    private String payload;
+    private ResponseHandler handler;
+    private Executor handlerExecutor;
+    private TransportResponse response;
+    private Phase phase;
+    private long retryDelayNanos;
+    private long createdNanos;
+    private long sentNanos;
+    private int attempts;
+
+    private RequestContext() {
+    }
+
+    /**
+     * Takes a context from the pool, or creates one if the pool is empty, and sets it up for a request.
+     *
+     * @param request         The request to send.
+     * @param payload         The payload used to generate the request.
+     * @param handler         The handler of the response.
+     * @param handlerExecutor The executor that runs the handler, so that it does not run on an I/O thread.
+     * @return The context.
+     */
+    public static RequestContext obtain(HttpRequestBase request, String payload, ResponseHandler handler, Executor handlerExecutor) {
+        RequestContext context = pool.poll();
+        if (context == null) {
+            context = new RequestContext();
+        }
+        context.request = request;
+        context.payload = payload;
+        context.handler = handler;
+        context.handlerExecutor = handlerExecutor;
+        context.phase = Phase.SEND;
+        context.createdNanos = System.nanoTime();
+        return context;
+    }
+
+    /**
+     * Clears the context and returns it to the pool. A full pool drops it.
+     */
+    private void recycle() {
+        request = null;
+        payload = null;
+        handler = null;
+        handlerExecutor = null;
+        response = null;
+        attempts = 0;
+        pool.offer(this);
+    }
+
+    public HttpRequestBase getRequest() {
+        return request;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    /**
+     * Returns the response. Only set while the handler runs.
+     *
+     * @return The response, or {@code null} if the request could not be sent at all.
+     */
+    public TransportResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * Returns the number of times the request has been sent, including the attempt that succeeded.
+     *
+     * @return The number of attempts.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Returns when the context was obtained for the request, in {@link System#nanoTime()} units.
+     *
+     * @return The creation time.
+     */
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    /**
+     * Returns when the latest attempt was handed to the transport, in {@link System#nanoTime()} units.
+     *
+     * @return The send time of the latest attempt.
+     */
+    public long getSentNanos() {
+        return sentNanos;
+    }
+
+    /**
+     * Prepares the next attempt. Called by the {@link WebRequester} once the request has been admitted.
+     */
+    void beginAttempt(long retryDelayNanos) {
+        this.retryDelayNanos = retryDelayNanos;
+        attempts++;
+        phase = Phase.SEND;
+    }
+
+    /**
+     * Records that the current attempt is handed to the transport. Called by the {@link WebRequester}.
+     */
+    void markSent() {
+        sentNanos = System.nanoTime();
+    }
+
+    long getRetryDelayNanos() {
+        return retryDelayNanos;
+    }
+
+    /**
+     * Runs the current phase: sends the request, submits it again after a failure, or handles the response.
+     */
+    @Override
+    public void run() {
+        switch (phase) {
+            case SEND -> WebRequester.transmit(this);
+            case RETRY -> WebRequester.resubmit(this);
+            case HANDLE -> {
+                try {
+                    handler.handle(this);
+                } finally {
+                    recycle();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void completed(TransportResponse response) {
+        this.response = response;
+        WebRequester.completed(this);
+        handle();
+    }
+
+    /**
+     * Retries the request, unless it cannot be sent at all: then the handler gets it without a response.
+     */
+    @Override
+    public void failed(Exception cause) {
+        if (cause instanceof RejectedRequestException) {
+            WebRequester.rejected(this, cause);
+            handle();
+            return;
+        }
+        phase = Phase.RETRY;
+        WebRequester.failed(this);
+    }
+
+    private void handle() {
+        phase = Phase.HANDLE;
+        try {
+            handlerExecutor.execute(this);
+        } catch (RejectedExecutionException e) {
+            recycle(); // the consumer has been shut down
+        }
+    }
+}
@@ -1,55 +1,82 @@
 package vfuzz.network;
 
-import org.apache.http.HttpResponse;
-import org.apache.http.ProtocolException;
-import org.apache.http.ProtocolVersion;
-import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.concurrent.FutureCallback;
-import org.apache.http.conn.ConnectionKeepAliveStrategy;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
-import org.apache.http.impl.nio.client.HttpAsyncClients;
-import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
-import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
-import org.apache.http.impl.nio.reactor.IOReactorConfig;
-import org.apache.http.message.BasicHttpResponse;
-import org.apache.http.nio.client.HttpAsyncClient;
-import org.apache.http.nio.reactor.ConnectingIOReactor;
-import org.apache.http.nio.reactor.IOReactorException;
 import vfuzz.config.ConfigAccessor;
+import vfuzz.config.RunConfig;
 import vfuzz.logging.Metrics;
-import vfuzz.network.ratelimiter.RateLimiterLeakyBucket;
-import java.nio.charset.StandardCharsets;
+import vfuzz.network.limit.AimdLimit;
+import vfuzz.network.limit.ConcurrencyLimiter;
+import vfuzz.network.limit.FixedLimit;
+import vfuzz.network.limit.GradientLimit;
+import vfuzz.network.limit.LimitAlgorithm;
+import vfuzz.network.limit.VegasLimit;
+import vfuzz.network.ratelimiter.RateLimiterTokenBucket;
+import vfuzz.network.raw.RawHttpClient;
+import vfuzz.network.transport.ApacheTransport;
+import vfuzz.network.transport.Http2Transport;
+import vfuzz.network.transport.RejectedRequestException;
+import vfuzz.network.transport.Transport;
+import vfuzz.network.transport.TransportResponse;
+
+import java.io.IOException;
 
-import java.util.Optional;
 import java.util.Random;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * The {@code WebRequester} class handles sending HTTP requests asynchronously with built-in support for rate limiting,
- * retries, and optional jitter. It uses an asynchronous HTTP client to send requests and provides functionality for
- * retrying requests if they fail.
+ * retries, and optional jitter. It sends requests with the {@link Transport} selected by {@code --transport} and
+ * provides functionality for retrying requests if they fail.
  *
  * <p>This class is designed to work in a high-throughput environment where multiple requests are sent continuously.
- * It integrates with a leaky bucket rate limiter to ensure requests are sent within predefined rate limits.
+ * It integrates with a token bucket rate limiter to ensure requests are sent within predefined rate limits.
  * Optional jitter is applied to simulate network variability, and retries are handled for failed requests.
+ *
+ * <p>The number of requests in flight is bounded by an {@link AdmissionGate}. A request takes its permit right
+ * before it is handed to the transport, after the rate limiter, the jitter or the retry delay, and returns it as soon
+ * as its attempt has completed or failed. The gate therefore only counts requests that are at the target, which is
+ * what its limit is about: it is adjusted after every attempt by a {@link ConcurrencyLimiter}, from the round-trip
+ * time of the attempt and whether it was dropped. The requests that wait for their time to be sent are bounded
+ * separately, which holds back the callers of {@link #submit}.
+ *
+ * <p>Requests that are delayed by the rate limiter, the jitter or a retry are woken by a timer, which only hands
+ * them to a pool of sender threads. The timer therefore keeps its pace however long sending takes, and requests
+ * that are due at the same time are sent in parallel.
+ *
+ * <p>Requests that the selected transport does not support, such as {@code https} requests with
+ * {@code --transport raw}, are sent with the {@link ApacheTransport}.
  */
 public class WebRequester {
 
-    private static final AtomicInteger activeFutures = new AtomicInteger(0);
+    private static final AdmissionGate admissionGate = new AdmissionGate(1000);
+
+    private static final int MAX_SCHEDULED_REQUESTS = 10000;
+
+    static final int MAX_CONCURRENCY_LIMIT = 10000;
 
-    private static double futureLimit = 1000;
+    private static final Semaphore scheduledRequests = new Semaphore(MAX_SCHEDULED_REQUESTS);
 
-    private static final RateLimiterLeakyBucket rateLimiter;
+    private static final ConcurrencyLimiter concurrencyLimiter;
+
+    private static final RateLimiterTokenBucket rateLimiter;
 
     private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
 
-    private static final CloseableHttpAsyncClient client;
+    private static final ScheduledExecutorService jitterScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "request-jitter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ExecutorService sender = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+        Thread thread = new Thread(runnable, "request-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Transport transport;
+
+    private static final Transport fallbackTransport;
 
     private static final Random random = new Random();
 
@@ -58,212 +85,232 @@ public class WebRequester {
     private final static boolean jitterEnabled = true;
 
     static {
-        rateLimiter = new RateLimiterLeakyBucket(ConfigAccessor.getConfigValue("rateLimit", Integer.class));
+        RunConfig runConfig = ConfigAccessor.getRunConfig();
+        rateLimiter = new RateLimiterTokenBucket(runConfig.getRateLimit());
 
         System.setProperty("networkaddress.cache.ttl", "60");
         System.setProperty("networkaddress.cache.negative.ttl", "10");
 
-        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
-                .setIoThreadCount(Runtime.getRuntime().availableProcessors())
-                .setConnectTimeout(5000)
-                .setSoTimeout(5000)
-                .build();
-
-        ConnectingIOReactor ioReactor;
-        try {
-            ioReactor = new DefaultConnectingIOReactor(ioReactorConfig);
-        } catch (IOReactorException e) {
-            throw new RuntimeException(e);
-        }
+        fallbackTransport = new ApacheTransport(runConfig.isFollowRedirects());
+        transport = createTransport(runConfig);
+        concurrencyLimiter = new ConcurrencyLimiter(createLimitAlgorithm(runConfig.getLimitAlgorithm()), admissionGate, 10, MAX_CONCURRENCY_LIMIT);
+    }
 
-        PoolingNHttpClientConnectionManager connManager = new PoolingNHttpClientConnectionManager(ioReactor);
-        connManager.setMaxTotal(10000);
-        connManager.setDefaultMaxPerRoute(2000);
-        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
-            return 5 * 1000; // keep alive for 5 seconds
+    /**
+     * Creates the transport selected with {@code --transport}: {@code apache}, {@code raw} or {@code http2}.
+     *
+     * @param runConfig The compiled configuration of the scan.
+     * @return The transport, which is the {@link #fallbackTransport} for {@code apache}.
+     */
+    private static Transport createTransport(RunConfig runConfig) {
+        return switch (runConfig.getTransport()) {
+            case "raw" -> {
+                try {
+                    yield new RawHttpClient(Runtime.getRuntime().availableProcessors(),
+                            runConfig.getPipelineDepth(), 2000);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            case "http2" -> new Http2Transport(runConfig.isFollowRedirects());
+            default -> fallbackTransport;
         };
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectTimeout(5000)
-                .setConnectionRequestTimeout(5000)
-                .setSocketTimeout(5000)
-                .build();
-
-        client = HttpAsyncClients.custom()
-                .setDefaultRequestConfig(requestConfig)
-                .setConnectionManager(connManager)
-                .setKeepAliveStrategy(keepAliveStrategy)
-                .setRedirectStrategy(new CustomRedirectStrategy())
-                .build();
-        client.start();
     }
 
+    /**
+     * Creates the algorithm selected with {@code --limit-algorithm}.
+     *
+     * @param name The name of the algorithm: {@code gradient}, {@code vegas}, {@code aimd} or {@code fixed}.
+     * @return The algorithm.
+     */
+    private static LimitAlgorithm createLimitAlgorithm(String name) {
+        return switch (name) {
+            case "vegas" -> new VegasLimit();
+            case "aimd" -> new AimdLimit();
+            case "fixed" -> new FixedLimit();
+            default -> new GradientLimit();
+        };
+    }
 
     /**
-     * Sends an HTTP request asynchronously, applying an optional jitter to simulate network variability. This method first
-     * acquires a token from a rate limiter to ensure compliance with rate limiting policies before sending the request.
-     * If the initial request fails, it automatically retries the request based on the specified delay and time unit.
+     * Sends an HTTP request asynchronously, applying an optional jitter to simulate network variability. This method
+     * waits while {@value #MAX_SCHEDULED_REQUESTS} requests are waiting to be sent, and then reserves a token from the
+     * rate limiter. The request is scheduled for the time at which its token is due, plus the jitter, so no thread
+     * waits for the token. When it is due, a sender thread waits for a permit of the {@link AdmissionGate} and sends
+     * it.
      *
-     * @param request The {@link HttpRequestBase} object representing the HTTP request to be sent. It must be fully
-     *                configured with the target URL, headers, and any necessary request body.
-     * @param retryDelay The delay between retries, if the initial request fails.
+     * <p>The request is carried by its {@link RequestContext}, which is also the callback of the transport, so no
+     * futures are created per request. When the response arrives, the handler of the context is run on its executor.
+     * If the request fails, it is sent again after the retry delay, and this continues indefinitely. A request that
+     * cannot be sent at all, see {@link RejectedRequestException}, is handed to the handler without a response.
+     *
+     * @param context The context of the request, obtained with {@link RequestContext#obtain}.
+     * @param retryDelay The delay between retries, if a request fails.
      * @param unit The {@link TimeUnit} of the {@code retryDelay}, specifying time unit of the delay.
-     * @return A {@link CompletableFuture<HttpResponse>} that eventually completes with the result of the HTTP request.
-     *         The future completes exceptionally if all retry attempts fail or if an error occurs during request processing.
-     *         On successful completion, returns the HTTP response. If the request fails, the method retries sending the
-     *         request as per the specified delay and continues to do so indefinitely.
      */
-    @SuppressWarnings("BusyWait")
-    public static CompletableFuture<HttpResponse> sendRequest(HttpRequestBase request, long retryDelay, TimeUnit unit) {
-
-        while (!futureSlotAvailable()) {
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            }
+    public static void submit(RequestContext context, long retryDelay, TimeUnit unit) {
+        try {
+            scheduledRequests.acquire();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
         }
+        schedule(context, unit.toNanos(retryDelay));
+    }
 
-        activeFutures.incrementAndGet();
-        rateLimiter.awaitToken();
-
-        CompletableFuture<HttpResponse> responseFuture = new CompletableFuture<>();
-
-        Runnable requestTask = () -> executeRequest(request, responseFuture);
-
+    /**
+     * Schedules the next attempt of a request for the time at which its token is due, plus the jitter. Never blocks.
+     */
+    private static void schedule(RequestContext context, long retryDelayNanos) {
+        long delayNanos = rateLimiter.reserve();
         if (jitterEnabled) {
-            int jitter = random.nextInt(500);
-            CompletableFuture.delayedExecutor(jitter, TimeUnit.MILLISECONDS).execute(requestTask);
+            delayNanos += TimeUnit.MILLISECONDS.toNanos(random.nextInt(500));
+        }
+
+        context.beginAttempt(retryDelayNanos);
+        if (delayNanos > 0) {
+            jitterScheduler.schedule(() -> sender.execute(context), delayNanos, TimeUnit.NANOSECONDS);
         } else {
-            requestTask.run();
+            sender.execute(context);
         }
+    }
+
+    /**
+     * Sends an HTTP request and waits for its response, for callers that run on their own virtual thread. Rate
+     * limiting, jitter, retries and the {@link AdmissionGate} work as in {@link #submit(RequestContext, long, TimeUnit)},
+     * but the calling thread simply sleeps through them and waits for the permit itself. Every attempt is reported to
+     * the {@link ConcurrencyLimiter}, so the limit adapts in this mode too.
+     *
+     * @param request The {@link HttpRequestBase} object representing the HTTP request to be sent.
+     * @param retryDelay The delay between retries, if a request fails.
+     * @param unit The {@link TimeUnit} of the {@code retryDelay}.
+     * @return The response of the first attempt that succeeds, or {@code null} if the request cannot be sent at all.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public static TransportResponse sendBlocking(HttpRequestBase request, long retryDelay, TimeUnit unit) throws InterruptedException {
+        while (true) {
+            rateLimiter.awaitToken();
+            if (jitterEnabled) {
+                Thread.sleep(random.nextInt(500));
+            }
+
+            Transport selected = transport.supports(request) ? transport : fallbackTransport;
+            TransportResponse response = null;
+            Exception rejection = null;
+            admissionGate.acquire();
+            long sentNanos = System.nanoTime();
+            try {
+                response = selected.send(request).get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RejectedRequestException rejected) {
+                    rejection = rejected;
+                }
+            } catch (CancellationException ignored) {
+            } catch (RuntimeException e) {
+                rejection = e;
+            } finally {
+                if (rejection == null) {
+                    sample(sentNanos, response == null || isOverloaded(response.statusCode()));
+                }
+                admissionGate.release();
+            }
 
-        return responseFuture.handle((response, throwable) -> {
-            activeFutures.decrementAndGet();
             Metrics.incrementRequestsCount();
-            if (throwable != null) {
-                Metrics.incrementRetriesCount();
-                return handleRetries(request, retryDelay, unit);
-            } else {
+            if (rejection != null) {
+                System.err.println("Request not sent: " + rejection.getMessage());
+                return null;
+            }
+            if (response != null) {
                 Metrics.incrementSuccessfulRequestsCount();
-                return CompletableFuture.completedFuture(response);
+                return response;
             }
-        }).thenCompose(Function.identity());
+            Metrics.incrementRetriesCount();
+            unit.sleep(retryDelay);
+        }
     }
 
-    private static boolean futureSlotAvailable() {
-        return activeFutures.get() <= futureLimit;
+    /**
+     * Waits for a permit of the {@link AdmissionGate} and sends a request of a context with the selected
+     * {@link Transport}, or with the fallback transport if the selected one does not support the request. The context
+     * receives the outcome, also if the transport throws instead of reporting a failure. Runs on a sender thread.
+     */
+    static void transmit(RequestContext context) {
+        try {
+            admissionGate.acquire();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        if (context.getAttempts() == 1) {
+            scheduledRequests.release();
+        }
+        try {
+            context.markSent();
+            HttpRequestBase request = context.getRequest();
+            Transport selected = transport.supports(request) ? transport : fallbackTransport;
+            selected.send(request, context);
+        } catch (RuntimeException e) {
+            context.failed(new RejectedRequestException("The request could not be sent: " + e.getMessage(), e));
+        }
     }
 
     /**
-     * Handles the retries for an HTTP request asynchronously. This method is called when an initial request fails and
-     * continues to retry the request indefinitely until it succeeds or the application stops it. It uses a scheduled
-     * executor to delay retries according to the specified delay and time unit.
-     *
-     * @param request The {@link HttpRequestBase} object that needs to be retried. This request should already be configured
-     *                with all necessary settings like URL, headers, and body as required.
-     * @param delay The time to wait before making another retry attempt.
-     * @param unit The {@link TimeUnit} that specifies the unit of the {@code delay}.
-     * @return A {@link CompletableFuture<HttpResponse>} that completes with the response of the successful HTTP request.
-     *         If a retry attempt fails, the method schedules another attempt using the same delay, effectively creating
-     *         an infinite loop of retries until successful completion.
+     * Records a response that has arrived for a context. Responses with status {@code 429} or {@code 503} count as
+     * dropped for the {@link ConcurrencyLimiter}, as the target signals that it is overloaded.
      */
-    private static CompletableFuture<HttpResponse> handleRetries(HttpRequestBase request, long delay, TimeUnit unit) {
-        return CompletableFuture.supplyAsync(() ->
-                sendRequest(request, delay, unit), scheduler
-        ).thenCompose(Function.identity());
+    static void completed(RequestContext context) {
+        sample(context.getSentNanos(), isOverloaded(context.getResponse().statusCode()));
+        admissionGate.release();
+        Metrics.incrementRequestsCount();
+        Metrics.incrementSuccessfulRequestsCount();
     }
 
     /**
-     * Executes an HTTP request asynchronously using {@link HttpAsyncClient}. This method handles the completion of the
-     * request whether it succeeds, fails, or is cancelled, and updates the provided {@link CompletableFuture} accordingly.
-     *
-     * @param request The {@link HttpRequestBase} object representing the HTTP request to be sent. It should be fully configured
-     *                with the target URL, headers, and any request body as needed.
-     * @param responseFuture A {@link CompletableFuture<HttpResponse>} that will be completed when the HTTP request completes.
-     *                       If the request is successful, the future is completed with the response. If the request fails
-     *                       due to an exception, the future completes exceptionally, wrapping the encountered exception.
-     *                       If the request is cancelled, the future is cancelled as well.
+     * Records a failed attempt of a context and schedules the next one after the retry delay.
      */
-    private static void executeRequest(HttpRequestBase request, CompletableFuture<HttpResponse> responseFuture) {
-        client.execute(request, new FutureCallback<>() {
-            @Override
-            public void completed(HttpResponse response) {
-                responseFuture.complete(response);
-            }
-
-            @Override
-            public void failed(Exception ex) {
-                Throwable cause = extractRelevantCause(ex);
-                if (cause instanceof ProtocolException) {
-                    Optional<HttpResponse> response = tryParseHttpResponse(cause.getMessage());
-                    if (response.isPresent()) {
-                        responseFuture.complete(response.get());
-                        return;
-                    }
-                }
-                responseFuture.completeExceptionally(ex);
-            }
-            @Override
-            public void cancelled() {
-                responseFuture.cancel(true);
-            }
-        });
+    static void failed(RequestContext context) {
+        sample(context.getSentNanos(), true);
+        admissionGate.release();
+        Metrics.incrementRequestsCount();
+        Metrics.incrementRetriesCount();
+        scheduler.schedule(context, context.getRetryDelayNanos(), TimeUnit.NANOSECONDS);
     }
 
-
     /**
-     * Extracts the most relevant cause for an exception.
-     * If no cause is found, returns the given exception.
-     *
-     * @param ex The exception from which to extract the cause.
-     * @return The most relevant cause or the original exception if no cause is found.
+     * Records a request that cannot be sent at all. It never reached the target, so it is no sample for the
+     * {@link ConcurrencyLimiter}, and it is not retried.
      */
-    private static Throwable extractRelevantCause(Throwable ex) {
-        return (ex.getCause() != null) ? ex.getCause() : ex;
+    static void rejected(RequestContext context, Exception cause) {
+        admissionGate.release();
+        Metrics.incrementRequestsCount();
+        System.err.println("Request not sent: " + cause.getMessage());
     }
 
     /**
-     * Attempts to parse an HTTP response from an exception message containing unexpected response codes.
-     *
-     * @param message The exception message to parse.
-     * @return An {@link Optional<HttpResponse>} containing the parsed HTTP response, if parsing is successful.
+     * Schedules the next attempt of a context after a failed one. Runs on the retry scheduler and does not block it.
      */
-    private static Optional<HttpResponse> tryParseHttpResponse(String message) {
-        Pattern pattern = Pattern.compile("(\\S+?)/(\\d)\\.(\\d) (\\d{3})");
-        Matcher matcher = pattern.matcher(message);
-        if (matcher.find()) {
-            return Optional.of(createHttpResponseFromException(matcher));
-        }
-        return Optional.empty();
+    static void resubmit(RequestContext context) {
+        schedule(context, context.getRetryDelayNanos());
+    }
+
+    private static boolean isOverloaded(int statusCode) {
+        return statusCode == 429 || statusCode == 503;
     }
 
     /**
-     * Creates an {@link HttpResponse} from the matched exception message.
-     *
-     * @param matcher The {@link Matcher} containing matched groups from the exception message.
-     * @return A {@link HttpResponse} object representing the HTTP response parsed from the exception message.
+     * Reports the outcome of an attempt to the {@link ConcurrencyLimiter}.
      */
-    private static HttpResponse createHttpResponseFromException(Matcher matcher) {
-        String protocol = matcher.group(1);
-        int protocolVersionMajor = Integer.parseInt(matcher.group(2));
-        int protocolVersionMinor = Integer.parseInt(matcher.group(3));
-        int statusCode = Integer.parseInt(matcher.group(4));
-        ProtocolVersion protocolVersion = new ProtocolVersion(protocol, protocolVersionMajor, protocolVersionMinor);
-
-        HttpResponse response = new BasicHttpResponse(protocolVersion, statusCode, null);
-        response.setEntity(new StringEntity("", StandardCharsets.UTF_8));
-        return response;
+    private static void sample(long sentNanos, boolean dropped) {
+        concurrencyLimiter.onSample(sentNanos, System.nanoTime() - sentNanos, admissionGate.getInFlight(), dropped);
     }
 
-    public static RateLimiterLeakyBucket getRateLimiter() {
+    public static RateLimiterTokenBucket getRateLimiter() {
         return rateLimiter;
     }
 
-    public static void increaseFutureLimit() {
-        futureLimit = Math.min(futureLimit * 1.005, 10000);
+    public static AdmissionGate getAdmissionGate() {
+        return admissionGate;
     }
 
-    public static void decreaseFutureLimit() {
-        futureLimit = Math.max((int) (futureLimit * .995), 10);
+    public static ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
     }
 }
\ No newline at end of file
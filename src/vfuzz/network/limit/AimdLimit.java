@@ -0,0 +1,37 @@
+package vfuzz.network.limit;
+
+/**
+ * The {@code AimdLimit} class grows the limit by one for every successful request and multiplies it with a backoff
+ * ratio for every dropped request, like the congestion window of TCP Reno.
+ *
+ * <p>The limit only grows while at least half of it is used, so it does not drift upwards while the scan is held
+ * back by something else, like the rate limiter. It reacts to errors only, not to rising latency.
+ */
+public class AimdLimit implements LimitAlgorithm {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private int backoffs;
+
+    @Override
+    public double update(double limit, long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            backoffs++;
+            return limit * BACKOFF_RATIO;
+        }
+        if (inFlight * 2 >= limit) {
+            return limit + 1;
+        }
+        return limit;
+    }
+
+    @Override
+    public String getName() {
+        return "aimd";
+    }
+
+    @Override
+    public String getState() {
+        return backoffs + " backoffs";
+    }
+}
@@ -0,0 +1,153 @@
+package vfuzz.network.limit;
+
+import vfuzz.network.AdmissionGate;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The {@code ConcurrencyLimiter} class drives the limit of an {@link AdmissionGate} with a {@link LimitAlgorithm}.
+ *
+ * <p>The {@link vfuzz.network.WebRequester} reports the outcome of every attempt as a sample. The limiter passes it
+ * to the algorithm, keeps the new limit between a lower and an upper bound and hands it to the gate.
+ *
+ * <p>Requests that fail together, e.g. because the target stopped answering, would each lower the limit. Like TCP
+ * after a loss, the limiter therefore backs off at most once per round trip: drops of requests that were sent
+ * before the last backoff are ignored.
+ *
+ * <p>Samples arrive on the I/O threads of the transports, which must not wait for each other. A thread that finds
+ * the lock taken therefore only queues its sample and returns; the thread that holds the lock applies the queued
+ * samples as well, up to {@value #MAX_SAMPLES_PER_DRAIN} per call. If more than {@value #MAX_QUEUED_SAMPLES}
+ * samples are queued, further successful samples are left out, as the algorithms only follow averages of them; drops
+ * are always queued. Samples that cannot change the limit, because the algorithm is not adaptive or because the drop
+ * was sent before the last backoff, do not take the lock at all.
+ *
+ * <p>Example usage:
+ * <pre>{@code
+ * ConcurrencyLimiter limiter = new ConcurrencyLimiter(new GradientLimit(), gate, 10, 10000);
+ * limiter.onSample(sentNanos, System.nanoTime() - sentNanos, gate.getInFlight(), false);
+ * }</pre>
+ */
+public class ConcurrencyLimiter {
+
+    private static final int MAX_SAMPLES_PER_DRAIN = 256;
+    private static final int MAX_QUEUED_SAMPLES = 4096;
+
+    private record Sample(long sentNanos, long rttNanos, int inFlight, boolean dropped) {
+    }
+
+    private final ConcurrentLinkedQueue<Sample> samples = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedSamples = new AtomicInteger(0);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LimitAlgorithm algorithm;
+    private final AdmissionGate gate;
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private volatile long lastBackoffNanos;
+
+    /**
+     * Constructs a limiter and sets the limit of the gate to the initial limit of the algorithm.
+     *
+     * @param algorithm The algorithm that computes the limit.
+     * @param gate      The gate whose limit is driven.
+     * @param minLimit  The lowest limit.
+     * @param maxLimit  The highest limit.
+     */
+    public ConcurrencyLimiter(LimitAlgorithm algorithm, AdmissionGate gate, int minLimit, int maxLimit) {
+        this.algorithm = algorithm;
+        this.gate = gate;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, algorithm.getInitialLimit()));
+        this.lastBackoffNanos = System.nanoTime();
+        gate.setLimit((int) limit);
+    }
+
+    /**
+     * Adds the outcome of an attempt and updates the limit of the gate, either right away or, if another thread is
+     * updating it, shortly after. Never blocks.
+     *
+     * @param sentNanos The time at which the attempt was sent, in {@link System#nanoTime()} units.
+     * @param rttNanos  The round-trip time of the attempt in nanoseconds.
+     * @param inFlight  The number of requests in flight, including this one.
+     * @param dropped   Whether the attempt failed or the target signalled overload.
+     */
+    public void onSample(long sentNanos, long rttNanos, int inFlight, boolean dropped) {
+        if (!algorithm.isAdaptive() || dropped && sentNanos - lastBackoffNanos < 0) {
+            return;
+        }
+        int applied = 0;
+        if (lock.tryLock()) {
+            try {
+                apply(sentNanos, rttNanos, inFlight, dropped);
+                applied = drain(1);
+            } finally {
+                lock.unlock();
+            }
+        } else if (dropped || queuedSamples.get() < MAX_QUEUED_SAMPLES) {
+            queuedSamples.incrementAndGet();
+            samples.add(new Sample(sentNanos, rttNanos, inFlight, dropped));
+        }
+        // samples queued while the lock was released are applied by the next thread that gets it
+        while (applied < MAX_SAMPLES_PER_DRAIN && !samples.isEmpty() && lock.tryLock()) {
+            try {
+                applied = drain(applied);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Applies queued samples in order. Called with the lock held.
+     *
+     * @param applied The number of samples applied so far in this call.
+     * @return The number of samples applied in this call, at most {@value #MAX_SAMPLES_PER_DRAIN}.
+     */
+    private int drain(int applied) {
+        Sample sample;
+        while (applied < MAX_SAMPLES_PER_DRAIN && (sample = samples.poll()) != null) {
+            queuedSamples.decrementAndGet();
+            apply(sample.sentNanos(), sample.rttNanos(), sample.inFlight(), sample.dropped());
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Passes a sample to the algorithm. Called with the lock held.
+     */
+    private void apply(long sentNanos, long rttNanos, int inFlight, boolean dropped) {
+        if (dropped && sentNanos - lastBackoffNanos < 0) {
+            return; // sent with the limit before the last backoff
+        }
+        double newLimit = Math.max(minLimit, Math.min(maxLimit, algorithm.update(limit, rttNanos, inFlight, dropped)));
+        if (dropped && newLimit < limit) {
+            lastBackoffNanos = System.nanoTime();
+        }
+        limit = newLimit;
+        if ((int) newLimit != gate.getLimit()) {
+            gate.setLimit((int) newLimit);
+        }
+    }
+
+    public String getAlgorithmName() {
+        return algorithm.getName();
+    }
+
+    /**
+     * Describes the state of the algorithm for the terminal output.
+     *
+     * @return The state of the algorithm.
+     */
+    public String getState() {
+        lock.lock();
+        try {
+            return algorithm.getState();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package vfuzz.network.limit;
+
+/**
+ * The {@code FixedLimit} class keeps the limit at 1000, for scans that should not adapt to the target.
+ */
+public class FixedLimit implements LimitAlgorithm {
+
+    @Override
+    public int getInitialLimit() {
+        return 1000;
+    }
+
+    @Override
+    public double update(double limit, long rttNanos, int inFlight, boolean dropped) {
+        return limit;
+    }
+
+    @Override
+    public boolean isAdaptive() {
+        return false;
+    }
+
+    @Override
+    public String getName() {
+        return "fixed";
+    }
+
+    @Override
+    public String getState() {
+        return "";
+    }
+}
@@ -0,0 +1,51 @@
+package vfuzz.network.limit;
+
+/**
+ * The {@code GradientLimit} class adapts the limit to the gradient between the minimum round-trip time and the
+ * round-trip time of the latest requests.
+ *
+ * <p>Single round-trip times vary too much to be compared, so both sides of the gradient are taken from the
+ * round-trip time smoothed over the latest requests: {@code rtt} is its current value and {@code minRtt} its
+ * minimum. The gradient is {@code tolerance * minRtt / rtt}, clamped to between 0.5 and 1. While requests are at
+ * most {@code tolerance} times slower than the fastest ones, the gradient is 1 and the limit grows by its square
+ * root, which leaves room for a small queue. Once latency rises beyond that, the gradient shrinks the limit in
+ * proportion, before the target starts to time out. The new limit is smoothed with the old one, so single slow
+ * responses do not move it much. A dropped request aims at half the limit, which the smoothing turns into a cut by a
+ * tenth: a single drop barely matters, while a burst of seven drops halves the limit.
+ */
+public class GradientLimit implements LimitAlgorithm {
+
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final MinRtt minRtt = new MinRtt();
+    private double smoothedRttNanos;
+    private double gradient = 1.0;
+
+    @Override
+    public double update(double limit, long rttNanos, int inFlight, boolean dropped) {
+        double newLimit;
+        if (dropped) {
+            newLimit = limit / 2;
+        } else {
+            smoothedRttNanos = smoothedRttNanos == 0 ? rttNanos : smoothedRttNanos * 0.95 + rttNanos * 0.05;
+            long minRttNanos = minRtt.update((long) smoothedRttNanos, limit);
+            if (inFlight * 2 < limit) {
+                return limit; // the limit is not what holds the scan back
+            }
+            gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * minRttNanos / smoothedRttNanos));
+            newLimit = limit * gradient + Math.sqrt(limit);
+        }
+        return limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+    }
+
+    @Override
+    public String getName() {
+        return "gradient";
+    }
+
+    @Override
+    public String getState() {
+        return String.format("min RTT %.1f ms, RTT %.1f ms, gradient %.2f", minRtt.get() / 1e6, smoothedRttNanos / 1e6, gradient);
+    }
+}
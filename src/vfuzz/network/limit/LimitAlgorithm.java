@@ -0,0 +1,67 @@
+package vfuzz.network.limit;
+
+/**
+ * The {@code LimitAlgorithm} interface defines how a {@link ConcurrencyLimiter} derives the number of requests that
+ * may be in flight from the outcome of every request.
+ *
+ * <p>Each completed attempt is a sample with its round-trip time, the number of requests in flight when it
+ * completed, and whether it was dropped: failed, timed out, or answered with {@code 429} or {@code 503}. The
+ * algorithm returns the new limit, which the limiter keeps within its bounds. Algorithms are called by one thread
+ * at a time and need no synchronization.
+ *
+ * <p>Implementations are selected with {@code --limit-algorithm}:
+ * <ul>
+ *     <li>{@code gradient}: {@link GradientLimit}, follows the ratio of the minimum to the current round-trip time.
+ *         This is the default.</li>
+ *     <li>{@code vegas}: {@link VegasLimit}, estimates the requests queued at the server like TCP Vegas.</li>
+ *     <li>{@code aimd}: {@link AimdLimit}, grows additively and backs off multiplicatively on drops.</li>
+ *     <li>{@code fixed}: {@link FixedLimit}, keeps the initial limit.</li>
+ * </ul>
+ */
+public interface LimitAlgorithm {
+
+    /**
+     * Returns the limit to start with. Adaptive algorithms start low and grow quickly while the latency stays flat,
+     * since they can only learn the latency without queueing from requests that are not queued.
+     *
+     * @return The initial limit.
+     */
+    default int getInitialLimit() {
+        return 20;
+    }
+
+    /**
+     * Computes the new limit from a sample.
+     *
+     * @param limit    The current limit.
+     * @param rttNanos The round-trip time of the request in nanoseconds.
+     * @param inFlight The number of requests in flight, including this one.
+     * @param dropped  Whether the request was dropped. The round-trip time of a dropped request says little about
+     *                 the server and should not be used as a latency sample.
+     * @return The new limit.
+     */
+    double update(double limit, long rttNanos, int inFlight, boolean dropped);
+
+    /**
+     * Checks whether the algorithm ever changes the limit. Samples are not passed to algorithms that do not.
+     *
+     * @return {@code true} if {@link #update} may return a different limit.
+     */
+    default boolean isAdaptive() {
+        return true;
+    }
+
+    /**
+     * Returns the name of the algorithm, as passed to {@code --limit-algorithm}.
+     *
+     * @return The name.
+     */
+    String getName();
+
+    /**
+     * Describes the internal state of the algorithm for the terminal output.
+     *
+     * @return The state, e.g. the measured round-trip times, or an empty string.
+     */
+    String getState();
+}
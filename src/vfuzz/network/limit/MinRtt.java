@@ -0,0 +1,40 @@
+package vfuzz.network.limit;
+
+/**
+ * Tracks the minimum round-trip time, the latency of the target without queueing.
+ *
+ * <p>After a number of samples proportional to the limit, the minimum is raised by a tenth, so that a target that
+ * has become slower for good, e.g. because its network path changed, is measured again instead of being seen as
+ * overloaded forever. It is not reset outright: while the target is queueing, no sample shows its latency without
+ * queueing, and the minimum would be set to the queueing latency.
+ */
+final class MinRtt {
+
+    private static final int PROBE_SAMPLES_PER_LIMIT = 1000;
+    private static final double PROBE_INCREASE = 1.1;
+
+    private long minRttNanos;
+    private long samples;
+
+    /**
+     * Adds a sample.
+     *
+     * @param rttNanos The round-trip time of the sample.
+     * @param limit    The current limit, which determines how long the minimum is kept.
+     * @return The minimum round-trip time in nanoseconds.
+     */
+    long update(long rttNanos, double limit) {
+        if (++samples >= PROBE_SAMPLES_PER_LIMIT * limit) {
+            samples = 0;
+            minRttNanos = (long) (minRttNanos * PROBE_INCREASE);
+        }
+        if (minRttNanos == 0 || rttNanos < minRttNanos) {
+            minRttNanos = rttNanos;
+        }
+        return minRttNanos;
+    }
+
+    long get() {
+        return minRttNanos;
+    }
+}
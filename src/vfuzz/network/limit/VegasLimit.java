@@ -0,0 +1,54 @@
+package vfuzz.network.limit;
+
+/**
+ * The {@code VegasLimit} class adapts the limit to the number of requests that are queued at the target, estimated
+ * like in TCP Vegas.
+ *
+ * <p>If the minimum round-trip time is the latency without queueing, a request that took longer waited behind
+ * {@code limit * (1 - minRtt / rtt)} other requests. Like in {@link GradientLimit}, both round-trip times are
+ * taken from the round-trip time smoothed over the latest requests, as single ones vary too much. While this queue
+ * is short, the limit grows; once it exceeds a threshold, or requests are dropped, the limit shrinks. Both
+ * thresholds and the step size grow with the logarithm of the limit, so small limits move slowly and large ones
+ * quickly.
+ */
+public class VegasLimit implements LimitAlgorithm {
+
+    private final MinRtt minRtt = new MinRtt();
+    private double smoothedRttNanos;
+    private double queueSize;
+
+    @Override
+    public double update(double limit, long rttNanos, int inFlight, boolean dropped) {
+        double step = Math.max(1, Math.log10(limit));
+        if (dropped) {
+            return limit - step;
+        }
+        smoothedRttNanos = smoothedRttNanos == 0 ? rttNanos : smoothedRttNanos * 0.95 + rttNanos * 0.05;
+        long minRttNanos = minRtt.update((long) smoothedRttNanos, limit);
+        queueSize = Math.ceil(limit * (1 - minRttNanos / smoothedRttNanos));
+
+        if (inFlight * 2 < limit) {
+            return limit; // the limit is not what holds the scan back
+        }
+        if (queueSize <= step) {
+            return limit + 6 * step;
+        }
+        if (queueSize < 3 * step) {
+            return limit + step;
+        }
+        if (queueSize > 6 * step) {
+            return limit - step;
+        }
+        return limit;
+    }
+
+    @Override
+    public String getName() {
+        return "vegas";
+    }
+
+    @Override
+    public String getState() {
+        return String.format("min RTT %.1f ms, RTT %.1f ms, queue %.0f", minRtt.get() / 1e6, smoothedRttNanos / 1e6, queueSize);
+    }
+}
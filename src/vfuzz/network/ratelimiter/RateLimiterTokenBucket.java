@@ -1,119 +1,165 @@
 package vfuzz.network.ratelimiter;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * The {@code RateLimiterTokenBucket} class implements a token bucket rate-limiting algorithm
- * to control the rate of requests. The rate limiter allows requests at a steady rate by providing
- * tokens at a specified refill rate per second. If no tokens are available, requests are blocked
- * until tokens become available.
+ * to control the rate of requests, without locks and without polling.
+ *
+ * <p>The whole state of the bucket is a single {@code long}: the {@link System#nanoTime()} at which the next token
+ * becomes available. Every token moves this time forward by the interval between two requests, and a full bucket
+ * corresponds to a time in the past, up to the burst tolerance. Taking a token is one compare-and-set of this value,
+ * so concurrent requests never block each other, and tokens are paced with nanosecond precision instead of being
+ * refilled in whole milliseconds or seconds.
  *
- * <p>The token bucket algorithm works by "refilling" tokens at a specified rate, and each request
- * consumes one token. The class can dynamically adjust the rate limit, enable or disable rate
- * limiting, and block until a token is available.
+ * <p>A token can be taken in four ways:
+ * <ul>
+ *     <li>{@link #reserve()} takes the next token, which may lie in the future, and returns how long to wait for it.
+ *         The caller schedules its work accordingly, like the {@link vfuzz.network.WebRequester} does.</li>
+ *     <li>{@link #awaitToken()} parks the calling thread once, until its token is due.</li>
+ *     <li>{@link #acquireAsync()} returns a future that a shared timer completes when the token is due, so no
+ *         thread waits for it.</li>
+ *     <li>{@link #tryAcquire()} takes a token only if one is available now.</li>
+ * </ul>
+ * Tokens are handed out in the order in which they are taken, so no caller can starve.
  *
- * <p>This class is thread-safe and ensures that concurrent requests are handled correctly
- * with synchronized methods. It can also block threads until tokens are available using
- * a busy-wait loop.
+ * <p>The bucket holds 10 milliseconds' worth of tokens, at least one, so short pauses of the callers are made up for
+ * without sending large bursts.
  */
 public class RateLimiterTokenBucket {
 
-    private int maxTokens;
-    private int refillRatePerSecond;
-    private long availableTokens;
-    private long lastRefillTimestamp;
-    private boolean enabled = true;
+    private static final long BURST_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limiter-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong nextTokenNanos;
+    private volatile long intervalNanos;
+    private volatile long burstToleranceNanos;
+    private volatile int rateLimitPerSecond;
 
     /**
-     * Constructs a new {@code RateLimiterTokenBucket} with the specified refill rate.
+     * Constructs a new {@code RateLimiterTokenBucket} with the specified rate limit. The bucket starts with one token.
      *
-     * @param refillRatePerSecond The number of tokens refilled per second, which also represents
-     *                            the number of requests allowed per second.
+     * @param rateLimitPerSecond The number of requests allowed per second, or 0 to disable rate limiting.
      */
-    public RateLimiterTokenBucket(int refillRatePerSecond) {
-        this.maxTokens = refillRatePerSecond;
-        this.refillRatePerSecond = refillRatePerSecond;
-        this.availableTokens = 0;
-        this.lastRefillTimestamp = System.currentTimeMillis();
+    public RateLimiterTokenBucket(int rateLimitPerSecond) {
+        setRateLimitPerSecond(rateLimitPerSecond);
+        this.nextTokenNanos = new AtomicLong(System.nanoTime());
     }
 
     /**
-     * Sets the rate limit, which controls the number of tokens refilled per second.
+     * Changes the rate limit. Tokens that have already been taken keep their time.
      *
-     * @param refillRatePerSecond The new rate limit value, equivalent to the number of requests per second.
+     * @param rateLimitPerSecond The number of requests allowed per second, or 0 to disable rate limiting.
+     * @throws IllegalArgumentException If the rate limit is negative.
      */
-    public void setRateLimit(int refillRatePerSecond) { // synonymous to requests per second
-        this.maxTokens = refillRatePerSecond;
-        this.refillRatePerSecond = refillRatePerSecond;
+    public void setRateLimitPerSecond(int rateLimitPerSecond) {
+        if (rateLimitPerSecond < 0) {
+            throw new IllegalArgumentException("The rate limit cannot be negative, but was " + rateLimitPerSecond);
+        }
+        long interval = rateLimitPerSecond == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / rateLimitPerSecond;
+        this.intervalNanos = interval;
+        this.burstToleranceNanos = Math.max(BURST_NANOS - interval, 0); // the token itself plus the tolerance make up the burst
+        this.rateLimitPerSecond = rateLimitPerSecond;
     }
 
     /**
-     * Attempts to acquire a token from the bucket.
+     * Takes a token if one is available now.
      *
-     * <p>This method first refills the bucket based on the elapsed time since the last refill.
-     * If tokens are available, one token is consumed, and the request is allowed. Otherwise, the
-     * request is rejected.
-     *
-     * @return {@code true} if a token is available and the request is allowed; {@code false} otherwise.
+     * @return {@code true} if a token was taken; {@code false} if the next token lies in the future.
      */
-    public synchronized boolean tokenAvailable() {
-        if (!enabled) {
+    public boolean tryAcquire() {
+        long interval = intervalNanos;
+        if (interval == 0) {
             return true;
         }
-        refill();
-        if (availableTokens > 0) { // are there tokens left?
-            availableTokens--; // subtract a token
-            return true; // signal we can consume a token
+        long burstTolerance = burstToleranceNanos;
+        while (true) {
+            long next = nextTokenNanos.get();
+            long now = System.nanoTime();
+            long tokenNanos = Math.max(next, now - burstTolerance);
+            if (tokenNanos - now > 0) {
+                return false;
+            }
+            if (nextTokenNanos.compareAndSet(next, tokenNanos + interval)) {
+                return true;
+            }
         }
-        return false;
     }
 
     /**
-     * Refills the token bucket based on the elapsed time since the last refill.
+     * Takes the next token, even if it lies in the future.
      *
-     * <p>This method calculates how many tokens should be added based on the elapsed time
-     * and adds them to the bucket, ensuring the bucket does not exceed its maximum capacity.
+     * @return The time until the token is due in nanoseconds, or 0 if it is available now.
      */
-    private void refill() {
-        long now = System.currentTimeMillis();
-        long elapsedTime = now - lastRefillTimestamp;
-        long tokensToAdd = (elapsedTime / 1000) * refillRatePerSecond; // calculates number of tokens to refill
-        if (tokensToAdd > 0) {
-            availableTokens = Math.min(maxTokens,  availableTokens + tokensToAdd); // ensures the tokens top off at maxTokens
-            lastRefillTimestamp = now; // updates
+    public long reserve() {
+        long interval = intervalNanos;
+        if (interval == 0) {
+            return 0;
+        }
+        long burstTolerance = burstToleranceNanos;
+        while (true) {
+            long next = nextTokenNanos.get();
+            long now = System.nanoTime();
+            long tokenNanos = Math.max(next, now - burstTolerance);
+            if (nextTokenNanos.compareAndSet(next, tokenNanos + interval)) {
+                return Math.max(tokenNanos - now, 0);
+            }
         }
     }
 
     /**
-     * Blocks the calling thread until a token becomes available.
+     * Blocks the calling thread until a token is available.
      *
-     * <p>This method uses a busy-wait loop to block until a token is available. It waits
-     * for a short time (100 ms) between attempts to acquire a token.
+     * <p>The token is taken right away, and the thread is parked until it is due. If the thread is interrupted, it
+     * returns early with its interrupt flag set; the token is used up nevertheless.
      */
-    @SuppressWarnings("BusyWait")
     public void awaitToken() {
-        if (enabled && maxTokens > 0) {
-            while (!tokenAvailable()) {
-                try {
-                    Thread.sleep(100); // if this is too low there are weird issues and the requests throw IOExceptions
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
+        long delay = reserve();
+        if (delay == 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + delay;
+        while (!Thread.currentThread().isInterrupted()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
             }
+            LockSupport.parkNanos(this, remaining);
         }
     }
 
-    public int getRateLimit() {
-        return maxTokens;
+    /**
+     * Takes a token and returns a future that completes when it is due. The future is completed by a timer that is
+     * shared by all buckets; no thread waits for it.
+     *
+     * @return A new future that completes when the token is due, and is already complete if the token is available
+     *         now.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        long delay = reserve();
+        if (delay == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        timer.schedule(() -> future.complete(null), delay, TimeUnit.NANOSECONDS);
+        return future;
     }
 
     public boolean isEnabled() {
-        return enabled;
-    }
-
-    public void enable() {
-        this.enabled = true;
+        return rateLimitPerSecond > 0;
     }
 
-    public void disable() {
-        this.enabled = false;
+    public int getRateLimitPerSecond() {
+        return rateLimitPerSecond;
     }
 }
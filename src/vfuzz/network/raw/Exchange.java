@@ -0,0 +1,37 @@
+package vfuzz.network.raw;
+
+import vfuzz.network.transport.TransportCallback;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One request on its way through the raw transport, from being rendered to its response.
+ */
+final class Exchange {
+
+    final Route route;
+    final ByteBuffer[] request; // the head, then the segments of the body
+    final boolean head;
+    final boolean idempotent;
+    final TransportCallback callback;
+    int attempts = 0;
+
+    Exchange(Route route, ByteBuffer[] request, String method, TransportCallback callback) {
+        this.route = route;
+        this.callback = callback;
+        this.request = request;
+        this.head = method.equals("HEAD");
+        this.idempotent = method.equals("GET") || method.equals("HEAD");
+    }
+
+    /**
+     * Returns fresh views of the rendered request, so that it can be written again after a requeue.
+     */
+    ByteBuffer[] requestBuffers() {
+        ByteBuffer[] buffers = new ByteBuffer[request.length];
+        for (int i = 0; i < request.length; i++) {
+            buffers[i] = request[i].duplicate();
+        }
+        return buffers;
+    }
+}
@@ -0,0 +1,450 @@
+package vfuzz.network.raw;
+
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.ProtocolException;
+import vfuzz.network.transport.TransportResponse;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The {@code IoLoop} class runs one selector thread of the raw transport.
+ *
+ * <p>Every loop owns its connections and their per-route pools, so no state is shared between loops and nothing
+ * is locked. Other threads only hand over rendered requests through a queue. A request is queued on the first
+ * connection of its route that has room in its pipeline; a new connection is only opened once all connections are
+ * full, and requests wait in the pool once the connection limit is reached.
+ *
+ * <p>When the server closes a connection, which keep-alive servers do after a number of requests, the idempotent
+ * requests that were still in flight are sent again on another connection, up to {@value #MAX_ATTEMPTS} times.
+ * Requests that time out or hit a protocol error fail, and are retried by the {@link vfuzz.network.WebRequester}.
+ *
+ * <p>A server that announces the end of the connection with its response, with {@code Connection: close} or by
+ * answering with HTTP/1.0, has not read the requests behind it. They are sent again without counting as an
+ * attempt. If it does so already with the first response of a connection, the server does not keep connections
+ * alive at all, and requests to its route are no longer pipelined.
+ */
+final class IoLoop implements Runnable {
+
+    private static final long SOCKET_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long KEEP_ALIVE_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long CHECK_INTERVAL_MILLIS = 250;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final Selector selector;
+    private final ConcurrentLinkedQueue<Exchange> submitted = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean(false);
+    private final Map<Route, Pool> pools = new HashMap<>();
+    private final ByteBuffer[] writeScratch = new ByteBuffer[64];
+    private final int pipelineDepth;
+    private final int maxConnectionsPerRoute;
+    private volatile boolean running = true;
+    private long lastCheckNanos = System.nanoTime();
+
+    /**
+     * The connections of one route and the requests waiting for one of them.
+     */
+    private static final class Pool {
+        final List<RawConnection> connections = new ArrayList<>();
+        final ArrayDeque<Exchange> pending = new ArrayDeque<>();
+        int cursor = 0;
+        int pipelineDepth;
+
+        Pool(int pipelineDepth) {
+            this.pipelineDepth = pipelineDepth;
+        }
+    }
+
+    IoLoop(int pipelineDepth, int maxConnectionsPerRoute) throws IOException {
+        this.selector = Selector.open();
+        this.pipelineDepth = pipelineDepth;
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    /**
+     * Hands a request over to this loop. Can be called from any thread.
+     */
+    void submit(Exchange exchange) {
+        submitted.add(exchange);
+        if (!wakeupPending.getAndSet(true)) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Stops the loop. Requests in flight fail.
+     */
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select(CHECK_INTERVAL_MILLIS);
+                wakeupPending.set(false);
+                Exchange exchange;
+                while ((exchange = submitted.poll()) != null) {
+                    dispatch(exchange);
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+                long now = System.nanoTime();
+                if (now - lastCheckNanos > TimeUnit.MILLISECONDS.toNanos(CHECK_INTERVAL_MILLIS)) {
+                    lastCheckNanos = now;
+                    checkTimeouts(now);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Raw HTTP transport stopped: " + e.getMessage());
+        } finally {
+            running = false;
+            IOException closed = new IOException("Raw HTTP transport stopped");
+            for (Pool pool : pools.values()) {
+                for (RawConnection connection : new ArrayList<>(pool.connections)) {
+                    close(connection, closed, false);
+                }
+                pool.pending.forEach(pending -> pending.callback.failed(closed));
+            }
+            submitted.forEach(pending -> pending.callback.failed(closed));
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        RawConnection connection = (RawConnection) key.attachment();
+        if (!key.isValid()) {
+            return;
+        }
+        try {
+            if (key.isConnectable()) {
+                connection.channel.finishConnect();
+                connection.connected = true;
+                connection.lastActivityNanos = System.nanoTime();
+                key.interestOps(SelectionKey.OP_READ);
+                flush(connection);
+                return;
+            }
+            if (key.isReadable()) {
+                read(connection);
+            }
+            if (key.isValid() && key.isWritable()) {
+                flush(connection);
+            }
+        } catch (IOException e) {
+            if (!connection.connected) {
+                connection.route.address = null; // resolve again on the next attempt
+            }
+            close(connection, e, connection.connected); // requests on an established connection are requeued
+        }
+    }
+
+    /**
+     * Queues a request on a connection of its route, opening one if all are full and the limit allows it.
+     */
+    private void dispatch(Exchange exchange) {
+        Pool pool = pools.computeIfAbsent(exchange.route, route -> new Pool(pipelineDepth));
+        if (!pool.pending.isEmpty()) {
+            pool.pending.add(exchange); // keep the order of waiting requests
+            dispatchPending(pool);
+            return;
+        }
+        RawConnection connection = findConnection(pool, exchange);
+        if (connection == null && pool.connections.size() < maxConnectionsPerRoute) {
+            connection = open(exchange, pool);
+            if (connection == null) {
+                return;
+            }
+        }
+        if (connection == null) {
+            pool.pending.add(exchange);
+            return;
+        }
+        enqueue(connection, exchange);
+    }
+
+    private void dispatchPending(Pool pool) {
+        while (!pool.pending.isEmpty()) {
+            Exchange exchange = pool.pending.peek();
+            RawConnection connection = findConnection(pool, exchange);
+            if (connection == null) {
+                if (pool.connections.size() >= maxConnectionsPerRoute) {
+                    return;
+                }
+                pool.pending.poll();
+                connection = open(exchange, pool);
+                if (connection != null) {
+                    enqueue(connection, exchange);
+                }
+                continue;
+            }
+            pool.pending.poll();
+            enqueue(connection, exchange);
+        }
+    }
+
+    /**
+     * Finds a connection with room for the request, starting after the connection that was used last, so that
+     * requests are spread over all connections of the route.
+     */
+    private RawConnection findConnection(Pool pool, Exchange exchange) {
+        int size = pool.connections.size();
+        for (int i = 0; i < size; i++) {
+            int index = (pool.cursor + i) % size;
+            RawConnection connection = pool.connections.get(index);
+            if (connection.accepts(exchange, pool.pipelineDepth)) {
+                pool.cursor = index + 1;
+                return connection;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Opens a connection for a request. If the connection cannot be opened, the request fails.
+     */
+    private RawConnection open(Exchange exchange, Pool pool) {
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            RawConnection connection = new RawConnection(exchange.route, channel);
+            connection.connected = channel.connect(exchange.route.resolve());
+            connection.key = channel.register(selector, connection.connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, connection);
+            connection.lastActivityNanos = System.nanoTime();
+            pool.connections.add(connection);
+            return connection;
+        } catch (IOException | RuntimeException e) {
+            exchange.route.address = null;
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+            exchange.callback.failed(e);
+            return null;
+        }
+    }
+
+    private void enqueue(RawConnection connection, Exchange exchange) {
+        connection.inFlight.add(exchange);
+        connection.nonIdempotentInFlight |= !exchange.idempotent;
+        Collections.addAll(connection.outbound, exchange.requestBuffers());
+        if (connection.connected) {
+            flush(connection);
+        }
+    }
+
+    /**
+     * Writes as many queued requests as the socket accepts, several at once with a gathering write.
+     *
+     * <p>If writing fails, usually because the server has closed a keep-alive connection, the connection takes no
+     * more requests but is still read, so that responses which already arrived are completed and the remaining
+     * requests are requeued once the end of the connection is read.
+     */
+    private void flush(RawConnection connection) {
+        try {
+            while (!connection.outbound.isEmpty()) {
+                int count = 0;
+                for (ByteBuffer buffer : connection.outbound) {
+                    writeScratch[count++] = buffer;
+                    if (count == writeScratch.length) {
+                        break;
+                    }
+                }
+                long written = connection.channel.write(writeScratch, 0, count);
+                while (!connection.outbound.isEmpty() && !connection.outbound.peek().hasRemaining()) {
+                    connection.outbound.poll();
+                }
+                if (written == 0) {
+                    break;
+                }
+                connection.lastActivityNanos = System.nanoTime();
+            }
+        } catch (IOException e) {
+            connection.writeFailed = true;
+            connection.outbound.clear();
+        } finally {
+            Arrays.fill(writeScratch, null);
+        }
+        int interestOps = connection.outbound.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+        if (connection.key.interestOps() != interestOps) {
+            connection.key.interestOps(interestOps);
+        }
+    }
+
+    /**
+     * Reads from a connection and completes every request whose response has arrived.
+     */
+    private void read(RawConnection connection) throws IOException {
+        ByteBuffer buffer = connection.readBuffer;
+        int read = connection.channel.read(buffer);
+        if (read < 0) {
+            closedByServer(connection);
+            return;
+        }
+        connection.lastActivityNanos = System.nanoTime();
+        buffer.flip();
+        try {
+            while (true) {
+                Exchange exchange = connection.inFlight.peek();
+                if (exchange == null) {
+                    if (buffer.hasRemaining()) {
+                        throw new ProtocolException("Received data without a request in flight");
+                    }
+                    break;
+                }
+                TransportResponse response = connection.parser.parse(buffer, exchange.head);
+                if (response == null) {
+                    break;
+                }
+                completed(connection, response);
+                if (!connection.parser.isKeepAlive()) {
+                    closedAfterResponse(connection);
+                    return;
+                }
+            }
+        } catch (ProtocolException e) {
+            Exchange failed = connection.inFlight.poll();
+            if (failed != null) {
+                failed.callback.failed(e);
+            }
+            close(connection, e, true);
+            return;
+        }
+        buffer.compact();
+
+        Pool pool = pools.get(connection.route);
+        if (!pool.pending.isEmpty()) {
+            dispatchPending(pool);
+        }
+    }
+
+    private void completed(RawConnection connection, TransportResponse response) {
+        Exchange exchange = connection.inFlight.poll();
+        if (!exchange.idempotent) {
+            connection.nonIdempotentInFlight = false;
+        }
+        connection.responses++;
+        exchange.callback.completed(response);
+    }
+
+    /**
+     * Handles the end of a connection: a response whose body is delimited by the end of the connection is
+     * completed, and all other requests in flight are requeued.
+     */
+    private void closedByServer(RawConnection connection) {
+        try {
+            TransportResponse response = connection.parser.closed();
+            if (response != null && !connection.inFlight.isEmpty()) {
+                completed(connection, response);
+                closedAfterResponse(connection);
+                return;
+            }
+        } catch (ProtocolException e) {
+            Exchange failed = connection.inFlight.poll();
+            if (failed != null) {
+                failed.callback.failed(e);
+            }
+        }
+        close(connection, new ConnectionClosedException("Connection closed by the server"), true);
+    }
+
+    /**
+     * Closes a connection whose last response announced the end of the connection. The requests behind that
+     * response have not been read by the server, so they are requeued without counting as an attempt. If it was the
+     * first response on the connection, the route is no longer pipelined.
+     */
+    private void closedAfterResponse(RawConnection connection) {
+        if (connection.responses == 1) {
+            pools.get(connection.route).pipelineDepth = 1;
+        }
+        close(connection, new ConnectionClosedException("Connection closed by the server"), true, false);
+    }
+
+    /**
+     * Closes a connection and removes it from its pool. Its requests in flight are either requeued or fail.
+     *
+     * @param requeue Whether idempotent requests are sent again on another connection.
+     */
+    private void close(RawConnection connection, Exception cause, boolean requeue) {
+        close(connection, cause, requeue, true);
+    }
+
+    /**
+     * Closes a connection and removes it from its pool. Its requests in flight are either requeued or fail.
+     *
+     * @param requeue      Whether idempotent requests are sent again on another connection.
+     * @param countAttempt Whether the requeue counts towards the maximum number of attempts.
+     */
+    private void close(RawConnection connection, Exception cause, boolean requeue, boolean countAttempt) {
+        if (connection.key != null) {
+            connection.key.cancel();
+        }
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+        }
+        Pool pool = pools.get(connection.route);
+        pool.connections.remove(connection);
+
+        List<Exchange> retries = new ArrayList<>();
+        for (Exchange exchange : connection.inFlight) {
+            if (requeue && exchange.idempotent && (!countAttempt || ++exchange.attempts < MAX_ATTEMPTS)) {
+                retries.add(exchange);
+            } else {
+                exchange.callback.failed(cause);
+            }
+        }
+        connection.inFlight.clear();
+        connection.outbound.clear();
+        if (!running) {
+            return;
+        }
+        for (Exchange exchange : retries) {
+            dispatch(exchange);
+        }
+        dispatchPending(pool);
+    }
+
+    /**
+     * Fails connections that have not made progress within the socket timeout, and closes idle keep-alive
+     * connections.
+     */
+    private void checkTimeouts(long now) {
+        for (Pool pool : new ArrayList<>(pools.values())) {
+            for (RawConnection connection : new ArrayList<>(pool.connections)) {
+                boolean idle = connection.connected && connection.inFlight.isEmpty();
+                long inactive = now - connection.lastActivityNanos;
+                if (!idle && inactive > SOCKET_TIMEOUT_NANOS) {
+                    close(connection, new SocketTimeoutException("No response from " + connection.route + " within 5 seconds"), false);
+                } else if (idle && inactive > KEEP_ALIVE_NANOS) {
+                    close(connection, null, false);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package vfuzz.network.raw;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * One keep-alive connection of the raw transport, owned by a single {@link IoLoop}.
+ *
+ * <p>Requests are written in the order they are queued, and responses are matched to them in the same order, so
+ * that several requests can be in flight on the connection at once (pipelining). Requests that are not idempotent
+ * are only sent on a connection without other requests in flight, and no request is queued behind them.
+ */
+final class RawConnection {
+
+    private static final int READ_BUFFER_SIZE = 32 * 1024;
+
+    final Route route;
+    final SocketChannel channel;
+    final ArrayDeque<Exchange> inFlight = new ArrayDeque<>();
+    final ArrayDeque<ByteBuffer> outbound = new ArrayDeque<>();
+    final ResponseParser parser = new ResponseParser();
+    final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    SelectionKey key;
+    boolean connected;
+    boolean writeFailed;
+    boolean nonIdempotentInFlight;
+    int responses;
+    long lastActivityNanos;
+
+    RawConnection(Route route, SocketChannel channel) {
+        this.route = route;
+        this.channel = channel;
+    }
+
+    /**
+     * Checks whether another request can be queued on this connection.
+     *
+     * @param exchange      The request to queue.
+     * @param pipelineDepth The maximum number of requests in flight per connection.
+     * @return {@code true} if the request can be queued.
+     */
+    boolean accepts(Exchange exchange, int pipelineDepth) {
+        if (writeFailed || nonIdempotentInFlight || inFlight.size() >= pipelineDepth) {
+            return false;
+        }
+        return exchange.idempotent || inFlight.isEmpty();
+    }
+}
@@ -0,0 +1,106 @@
+package vfuzz.network.raw;
+
+import org.apache.http.client.methods.HttpRequestBase;
+import vfuzz.network.transport.Transport;
+import vfuzz.network.transport.TransportCallback;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@code RawHttpClient} class is a minimal HTTP/1.1 client on plain NIO selectors, used by the
+ * {@link vfuzz.network.WebRequester} when the raw transport is selected with {@code --transport raw}.
+ *
+ * <p>It does only what a directory brute force needs: requests are rendered to bytes on the sending thread,
+ * written to keep-alive connections with up to {@code pipelineDepth} requests in flight per connection, and only the
+ * status line and the framing of each response are parsed. The body is skipped and only its length is kept for the
+ * {@link TransportResponse}.
+ *
+ * <p>Plain {@code http} URIs are supported. Redirects are not followed, and there is no TLS; other requests have to
+ * be sent with the Apache client, see {@link #supports(HttpRequestBase)}.
+ */
+public class RawHttpClient implements Transport {
+
+    private final IoLoop[] loops;
+    private final AtomicInteger nextLoop = new AtomicInteger(0);
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private volatile Route lastRoute;
+
+    /**
+     * Constructs a client and starts its selector threads.
+     *
+     * @param ioThreads              The number of selector threads.
+     * @param pipelineDepth          The maximum number of requests in flight per connection.
+     * @param maxConnectionsPerRoute The maximum number of connections per host and port, across all threads.
+     * @throws IOException If a selector cannot be opened.
+     */
+    public RawHttpClient(int ioThreads, int pipelineDepth, int maxConnectionsPerRoute) throws IOException {
+        loops = new IoLoop[ioThreads];
+        for (int i = 0; i < ioThreads; i++) {
+            loops[i] = new IoLoop(pipelineDepth, Math.max(1, maxConnectionsPerRoute / ioThreads));
+            Thread thread = new Thread(loops[i], "raw-http-io-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Checks whether a request can be sent with this client.
+     *
+     * @param request The request.
+     * @return {@code true} for requests to absolute {@code http} URIs.
+     */
+    @Override
+    public boolean supports(HttpRequestBase request) {
+        URI uri = request.getURI();
+        return uri != null && "http".equalsIgnoreCase(uri.getScheme()) && uri.getHost() != null;
+    }
+
+    /**
+     * Sends a request. The requests are spread over the selector threads in turn, and the callback is called on the
+     * selector thread that handles the request.
+     *
+     * @param request  The request, which must be {@linkplain #supports(HttpRequestBase) supported}.
+     * @param callback The callback that receives the response or the failure.
+     */
+    @Override
+    public void send(HttpRequestBase request, TransportCallback callback) {
+        ByteBuffer[] rendered;
+        try {
+            rendered = RequestRenderer.render(request);
+        } catch (IOException e) {
+            callback.failed(e);
+            return;
+        }
+        Exchange exchange = new Exchange(routeOf(request.getURI()), rendered, request.getMethod(), callback);
+        loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)].submit(exchange);
+    }
+
+    /**
+     * Returns the route of a URI. Scans usually target a single host, so the last route is checked first.
+     */
+    private Route routeOf(URI uri) {
+        String host = uri.getHost();
+        int port = uri.getPort() == -1 ? 80 : uri.getPort();
+        Route route = lastRoute;
+        if (route == null || route.port != port || !route.host.equals(host)) {
+            route = routes.computeIfAbsent(host + ":" + port, key -> new Route(host, port));
+            lastRoute = route;
+        }
+        return route;
+    }
+
+    /**
+     * Stops the selector threads. Requests in flight fail.
+     */
+    @Override
+    public void close() {
+        for (IoLoop loop : loops) {
+            loop.shutdown();
+        }
+    }
+}
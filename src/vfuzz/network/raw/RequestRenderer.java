@@ -0,0 +1,192 @@
+package vfuzz.network.raw;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.util.VersionInfo;
+import vfuzz.network.request.BodyTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The {@code RequestRenderer} class renders a request into the bytes that are written to the connection.
+ *
+ * <p>Requests are rendered on the thread that sends them. The request line and the headers are written straight
+ * into a per-thread buffer, and then copied once into an array of the exact size. Header names and values are
+ * written character by character, so no intermediate strings are built. The headers that control the framing
+ * ({@code Content-Length}, {@code Transfer-Encoding} and {@code Connection}) are always written by the renderer
+ * itself.
+ *
+ * <p>The body is kept apart from the head. The segments of a {@link BodyTemplate} body are written to the connection
+ * as they are, so a memory-mapped body is never copied onto the heap; other bodies are written once into an array
+ * of their own.
+ */
+final class RequestRenderer {
+
+    /**
+     * The same default as the Apache client, so that the transport does not change how requests look to the server.
+     */
+    private static final String DEFAULT_USER_AGENT = VersionInfo.getUserAgent("Apache-HttpAsyncClient", "org.apache.http.nio.client", RequestRenderer.class);
+
+    private static final ThreadLocal<ByteSink> sinks = ThreadLocal.withInitial(ByteSink::new);
+
+    private RequestRenderer() {}
+
+    /**
+     * Renders a request.
+     *
+     * @param request The request to render. Its URI must be absolute.
+     * @return The request line and the headers, followed by the segments of the body.
+     * @throws IOException If the body cannot be written.
+     */
+    static ByteBuffer[] render(HttpRequestBase request) throws IOException {
+        ByteSink sink = sinks.get();
+        sink.reset();
+        URI uri = request.getURI();
+
+        sink.ascii(request.getMethod()).write(' ');
+        String path = uri.getRawPath();
+        sink.ascii(path == null || path.isEmpty() ? "/" : path);
+        if (uri.getRawQuery() != null) {
+            sink.write('?');
+            sink.ascii(uri.getRawQuery());
+        }
+        sink.ascii(" HTTP/1.1\r\n");
+
+        boolean hostWritten = false;
+        boolean userAgentWritten = false;
+        boolean contentTypeWritten = false;
+        for (Header header : request.getAllHeaders()) {
+            String name = header.getName();
+            if (name.equalsIgnoreCase("Content-Length") || name.equalsIgnoreCase("Transfer-Encoding") || name.equalsIgnoreCase("Connection")) {
+                continue;
+            }
+            if (name.equalsIgnoreCase("Host")) {
+                if (hostWritten) {
+                    continue;
+                }
+                hostWritten = true;
+            }
+            userAgentWritten |= name.equalsIgnoreCase("User-Agent");
+            contentTypeWritten |= name.equalsIgnoreCase("Content-Type");
+            sink.header(name, header.getValue());
+        }
+        if (!hostWritten) {
+            sink.ascii("Host: ").ascii(uri.getHost());
+            if (uri.getPort() != -1 && uri.getPort() != 80) {
+                sink.write(':');
+                sink.decimal(uri.getPort());
+            }
+            sink.ascii("\r\n");
+        }
+        if (!userAgentWritten) {
+            sink.header("User-Agent", DEFAULT_USER_AGENT);
+        }
+
+        HttpEntity entity = request instanceof HttpEntityEnclosingRequest ? ((HttpEntityEnclosingRequest) request).getEntity() : null;
+        if (entity == null) {
+            sink.ascii("\r\n");
+            return new ByteBuffer[]{sink.toBuffer()};
+        }
+        if (!contentTypeWritten && entity.getContentType() != null) {
+            sink.header(entity.getContentType().getName(), entity.getContentType().getValue());
+        }
+        ByteBuffer[] body = BodyTemplate.segmentsOf(entity);
+        if (body == null) {
+            body = new ByteBuffer[]{renderBody(entity)};
+        }
+        long length = 0;
+        for (ByteBuffer segment : body) {
+            length += segment.remaining();
+        }
+        sink.ascii("Content-Length: ").decimal(length).ascii("\r\n\r\n");
+
+        ByteBuffer[] rendered = new ByteBuffer[body.length + 1];
+        rendered[0] = sink.toBuffer();
+        System.arraycopy(body, 0, rendered, 1, body.length);
+        return rendered;
+    }
+
+    /**
+     * Writes a body into an array of its own. The array has the exact size if the length of the body is known.
+     */
+    private static ByteBuffer renderBody(HttpEntity entity) throws IOException {
+        long length = entity.getContentLength();
+        ByteSink body = new ByteSink(length >= 0 && length <= Integer.MAX_VALUE ? (int) length : 4096);
+        entity.writeTo(body);
+        return ByteBuffer.wrap(body.buffer, 0, body.count);
+    }
+
+    /**
+     * A growable byte buffer that is reused by one thread.
+     */
+    private static final class ByteSink extends OutputStream {
+
+        private byte[] buffer;
+        private int count;
+
+        ByteSink() {
+            this(4096);
+        }
+
+        ByteSink(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void reset() {
+            count = 0;
+            if (buffer.length > 1 << 20) {
+                buffer = new byte[4096]; // do not keep the buffer of a very large head around
+            }
+        }
+
+        private void ensureCapacity(int additional) {
+            if (count + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + additional));
+            }
+        }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(1);
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(len);
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        }
+
+        /**
+         * Writes the characters of a string as ISO-8859-1 bytes, like the Apache client does for headers.
+         */
+        ByteSink ascii(String value) {
+            int length = value.length();
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                buffer[count++] = (byte) (c <= 0xFF ? c : '?');
+            }
+            return this;
+        }
+
+        ByteSink decimal(long value) {
+            return ascii(Long.toString(value));
+        }
+
+        void header(String name, String value) {
+            ascii(name).ascii(": ").ascii(value == null ? "" : value).ascii("\r\n");
+        }
+
+        ByteBuffer toBuffer() {
+            return ByteBuffer.wrap(Arrays.copyOf(buffer, count));
+        }
+    }
+}
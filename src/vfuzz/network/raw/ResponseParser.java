@@ -0,0 +1,338 @@
+package vfuzz.network.raw;
+
+import org.apache.http.ProtocolException;
+import vfuzz.network.transport.TransportResponse;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The {@code ResponseParser} class reads HTTP/1.1 responses from the bytes received on one connection.
+ *
+ * <p>Only what is needed to find the end of a response and to filter it is parsed: the status line and the
+ * {@code Content-Length}, {@code Transfer-Encoding} and {@code Connection} headers. The body is skipped in place,
+ * without being copied, and only its length is recorded. Responses can end anywhere in a buffer and span several
+ * reads, so the parser keeps its state between calls.
+ */
+final class ResponseParser {
+
+    private static final byte[] CONTENT_LENGTH = "content-length".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRANSFER_ENCODING = "transfer-encoding".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CONNECTION = "connection".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CHUNKED = "chunked".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLOSE = "close".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] KEEP_ALIVE = "keep-alive".getBytes(StandardCharsets.US_ASCII);
+
+    private enum State { HEAD, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILERS, BODY_UNTIL_CLOSE }
+
+    private State state = State.HEAD;
+    private int statusCode;
+    private long remaining;
+    private long bodyLength;
+    private boolean keepAlive;
+
+    /**
+     * Parses as much of the current response as the buffer holds.
+     *
+     * @param buffer      The received bytes, ready to be read. The position is advanced past all consumed bytes.
+     * @param headRequest Whether the response answers a {@code HEAD} request, which has no body.
+     * @return The response once it has been read completely, or {@code null} if more bytes are needed.
+     * @throws ProtocolException If the response is malformed or its header is larger than the buffer.
+     */
+    TransportResponse parse(ByteBuffer buffer, boolean headRequest) throws ProtocolException {
+        while (true) {
+            switch (state) {
+                case HEAD -> {
+                    int end = indexOfHeaderEnd(buffer);
+                    if (end < 0) {
+                        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+                            throw new ProtocolException("Response header is too large");
+                        }
+                        return null;
+                    }
+                    long contentLength = parseHead(buffer, end);
+                    buffer.position(end + 4);
+                    bodyLength = 0;
+                    if (statusCode < 200 && statusCode != 101) {
+                        continue; // interim response, the final one follows
+                    }
+                    if (headRequest || statusCode < 200 || statusCode == 204 || statusCode == 304) {
+                        return complete();
+                    }
+                    if (state == State.CHUNK_SIZE) {
+                        continue;
+                    }
+                    if (contentLength >= 0) {
+                        remaining = contentLength;
+                        state = State.BODY;
+                    } else {
+                        keepAlive = false; // the body ends when the connection is closed
+                        state = State.BODY_UNTIL_CLOSE;
+                    }
+                }
+                case BODY -> {
+                    skip(buffer);
+                    if (remaining > 0) {
+                        return null;
+                    }
+                    return complete();
+                }
+                case CHUNK_SIZE -> {
+                    int lineEnd = indexOfLineEnd(buffer);
+                    if (lineEnd < 0) {
+                        return null;
+                    }
+                    remaining = parseChunkSize(buffer, lineEnd);
+                    buffer.position(lineEnd + 2);
+                    state = remaining == 0 ? State.TRAILERS : State.CHUNK_DATA;
+                }
+                case CHUNK_DATA -> {
+                    skip(buffer);
+                    if (remaining > 0) {
+                        return null;
+                    }
+                    state = State.CHUNK_END;
+                }
+                case CHUNK_END -> {
+                    if (buffer.remaining() < 2) {
+                        return null;
+                    }
+                    if (buffer.get() != '\r' || buffer.get() != '\n') {
+                        throw new ProtocolException("Malformed chunk");
+                    }
+                    state = State.CHUNK_SIZE;
+                }
+                case TRAILERS -> {
+                    int lineEnd = indexOfLineEnd(buffer);
+                    if (lineEnd < 0) {
+                        return null;
+                    }
+                    boolean last = lineEnd == buffer.position();
+                    buffer.position(lineEnd + 2);
+                    if (last) {
+                        return complete();
+                    }
+                }
+                case BODY_UNTIL_CLOSE -> {
+                    bodyLength += buffer.remaining();
+                    buffer.position(buffer.limit());
+                    return null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Completes the current response when the connection has been closed by the server.
+     *
+     * @return The response if its body was delimited by the end of the connection, or {@code null} if no response
+     *         was being read.
+     * @throws ProtocolException If the connection was closed in the middle of a response.
+     */
+    TransportResponse closed() throws ProtocolException {
+        if (state == State.BODY_UNTIL_CLOSE) {
+            return complete();
+        }
+        if (state != State.HEAD) {
+            throw new ProtocolException("Connection closed before the response was complete");
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the connection can be reused after the last complete response.
+     *
+     * @return {@code false} if the server asked to close the connection.
+     */
+    boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Checks whether the parser is between two responses.
+     *
+     * @return {@code true} if no response is partially read.
+     */
+    boolean isIdle() {
+        return state == State.HEAD;
+    }
+
+    private TransportResponse complete() {
+        state = State.HEAD;
+        return new TransportResponse(statusCode, bodyLength); // the body itself has been skipped
+    }
+
+    /**
+     * Counts and skips the body bytes of the current response or chunk that are in the buffer.
+     */
+    private void skip(ByteBuffer buffer) {
+        int count = (int) Math.min(remaining, buffer.remaining());
+        buffer.position(buffer.position() + count);
+        remaining -= count;
+        bodyLength += count;
+    }
+
+    /**
+     * Parses the status line and the framing headers.
+     *
+     * @return The value of the {@code Content-Length} header, or {@code -1} if there is none.
+     */
+    private long parseHead(ByteBuffer buffer, int end) throws ProtocolException {
+        int start = buffer.position();
+        int lineEnd = indexOf(buffer, start, end, (byte) '\r');
+        if (lineEnd < 0) {
+            lineEnd = end;
+        }
+        // HTTP/1.1 200 OK
+        if (lineEnd - start < 12 || buffer.get(start) != 'H' || buffer.get(start + 4) != '/' || buffer.get(start + 8) != ' ') {
+            throw new ProtocolException("Malformed status line");
+        }
+        int minor = buffer.get(start + 7) - '0';
+        statusCode = 0;
+        for (int i = start + 9; i < start + 12; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new ProtocolException("Malformed status code");
+            }
+            statusCode = statusCode * 10 + digit;
+        }
+        keepAlive = minor != 0;
+
+        long contentLength = -1;
+        boolean chunked = false;
+        int lineStart = lineEnd + 2;
+        while (lineStart < end) {
+            lineEnd = indexOf(buffer, lineStart, end, (byte) '\r');
+            if (lineEnd < 0) {
+                lineEnd = end;
+            }
+            int colon = indexOf(buffer, lineStart, lineEnd, (byte) ':');
+            if (colon > 0) {
+                int valueStart = colon + 1;
+                while (valueStart < lineEnd && buffer.get(valueStart) == ' ') {
+                    valueStart++;
+                }
+                if (nameEquals(buffer, lineStart, colon, CONTENT_LENGTH)) {
+                    contentLength = parseDecimal(buffer, valueStart, lineEnd);
+                } else if (nameEquals(buffer, lineStart, colon, TRANSFER_ENCODING)) {
+                    chunked = contains(buffer, valueStart, lineEnd, CHUNKED);
+                } else if (nameEquals(buffer, lineStart, colon, CONNECTION)) {
+                    if (contains(buffer, valueStart, lineEnd, CLOSE)) {
+                        keepAlive = false;
+                    } else if (contains(buffer, valueStart, lineEnd, KEEP_ALIVE)) {
+                        keepAlive = true;
+                    }
+                }
+            }
+            lineStart = lineEnd + 2;
+        }
+        if (chunked) {
+            state = State.CHUNK_SIZE;
+            return -1;
+        }
+        return contentLength;
+    }
+
+    private static long parseChunkSize(ByteBuffer buffer, int lineEnd) throws ProtocolException {
+        long size = 0;
+        int digits = 0;
+        for (int i = buffer.position(); i < lineEnd; i++) {
+            int b = buffer.get(i);
+            int digit = Character.digit(b, 16);
+            if (digit < 0) {
+                if (b == ';' || b == ' ' || b == '\t') {
+                    break; // chunk extension
+                }
+                throw new ProtocolException("Malformed chunk size");
+            }
+            if (++digits > 15) {
+                throw new ProtocolException("Chunk size is too large");
+            }
+            size = size * 16 + digit;
+        }
+        if (digits == 0) {
+            throw new ProtocolException("Malformed chunk size");
+        }
+        return size;
+    }
+
+    private static long parseDecimal(ByteBuffer buffer, int start, int end) throws ProtocolException {
+        long value = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                if (buffer.get(i) == ' ' || buffer.get(i) == '\t') {
+                    break;
+                }
+                throw new ProtocolException("Malformed Content-Length");
+            }
+            if (++digits > 18) {
+                throw new ProtocolException("Content-Length is too large");
+            }
+            value = value * 10 + digit;
+        }
+        if (digits == 0) {
+            throw new ProtocolException("Malformed Content-Length");
+        }
+        return value;
+    }
+
+    private static int indexOfHeaderEnd(ByteBuffer buffer) {
+        for (int i = buffer.position(); i + 3 < buffer.limit(); i++) {
+            if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n' && buffer.get(i + 2) == '\r' && buffer.get(i + 3) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfLineEnd(ByteBuffer buffer) {
+        for (int i = buffer.position(); i + 1 < buffer.limit(); i++) {
+            if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(ByteBuffer buffer, int start, int end, byte value) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares a header name case-insensitively with a lower-case name.
+     */
+    private static boolean nameEquals(ByteBuffer buffer, int start, int end, byte[] name) {
+        if (end - start != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if ((buffer.get(start + i) | 0x20) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks case-insensitively whether a header value contains a lower-case token.
+     */
+    private static boolean contains(ByteBuffer buffer, int start, int end, byte[] token) {
+        for (int i = start; i + token.length <= end; i++) {
+            int j = 0;
+            while (j < token.length && (buffer.get(i + j) | 0x20) == token[j]) {
+                j++;
+            }
+            if (j == token.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package vfuzz.network.raw;
+
+import java.net.InetSocketAddress;
+
+/**
+ * The host and port that a connection is opened to.
+ *
+ * <p>The address is resolved when the first connection of the route is opened and reused afterwards; a failed
+ * connection attempt clears it, so that it is resolved again.
+ */
+final class Route {
+
+    final String host;
+    final int port;
+    volatile InetSocketAddress address;
+
+    Route(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    InetSocketAddress resolve() {
+        InetSocketAddress resolved = address;
+        if (resolved == null || resolved.isUnresolved()) {
+            resolved = new InetSocketAddress(host, port);
+            address = resolved;
+        }
+        return resolved;
+    }
+
+    @Override
+    public String toString() {
+        return host + ":" + port;
+    }
+}
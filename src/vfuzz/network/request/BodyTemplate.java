@@ -0,0 +1,325 @@
+package vfuzz.network.request;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import vfuzz.core.wordlist.WordlistEntry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code BodyTemplate} class holds a request body split once into byte segments around its fuzz markers.
+ *
+ * <p>The literal parts of the body are kept as slices of one byte buffer holding the whole body. Per request, {@link #expand(WordlistEntry)}
+ * returns a lightweight entity that only references these segments and the encoded payloads, and writes them one
+ * after the other straight into the output stream of the connection. The {@code Content-Length} is the sum of the
+ * segment lengths, so neither the body as a whole nor any intermediate string is built. A body without markers is
+ * expanded to one shared entity.
+ *
+ * <p>Bodies given as a string are encoded once when the template is compiled. Bodies read from a file with
+ * {@link #fromFile(Path, List, boolean, ContentType)} are memory-mapped instead, and their segments are slices of
+ * the mapping, so even bodies of several hundred kilobytes are never copied onto the heap as a whole.
+ *
+ * <p>The charset is taken from the content type, and defaults to ISO-8859-1 like for
+ * {@link org.apache.http.entity.StringEntity}. Instances are safe to use from multiple threads.
+ */
+public class BodyTemplate {
+
+    private static final Map<Path, ByteBuffer> mappedFiles = new ConcurrentHashMap<>();
+    private static final int CHUNK_SIZE = 8192;
+    private static final ThreadLocal<byte[]> chunks = ThreadLocal.withInitial(() -> new byte[CHUNK_SIZE]);
+
+    private final String[] markers;
+    private final ByteBuffer[] literals; // one more literal than markers
+    private final int[] slots;           // index of the marker between two literals
+    private final long literalLength;
+    private final Charset charset;
+    private final String contentType;
+    private final HttpEntity fixedEntity;
+
+    /**
+     * Compiles a body.
+     *
+     * @param body        The body containing the markers.
+     * @param markers     The markers to replace.
+     * @param firstOnly   Whether only the first occurrence of a marker is replaced.
+     * @param contentType The content type of the body, or {@code null} for {@code text/plain}.
+     */
+    public BodyTemplate(String body, List<String> markers, boolean firstOnly, ContentType contentType) {
+        this(null, markers, firstOnly, contentType, body);
+    }
+
+    /**
+     * Compiles a body read from a file. The file is memory-mapped the first time it is used, and the mapping is
+     * shared by all templates of the file.
+     *
+     * @param file        The file containing the body.
+     * @param markers     The markers to replace.
+     * @param firstOnly   Whether only the first occurrence of a marker is replaced.
+     * @param contentType The content type of the body, or {@code null} for {@code text/plain}.
+     * @return The compiled body.
+     * @throws IOException If the file cannot be mapped or is larger than 2 GiB.
+     */
+    public static BodyTemplate fromFile(Path file, List<String> markers, boolean firstOnly, ContentType contentType) throws IOException {
+        ByteBuffer content = mappedFiles.get(file);
+        if (content == null) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("POST data file is too large: " + file);
+                }
+                content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // stays valid after closing
+            }
+            ByteBuffer existing = mappedFiles.putIfAbsent(file, content);
+            content = existing != null ? existing : content;
+        }
+        return new BodyTemplate(content, markers, firstOnly, contentType, null);
+    }
+
+    private BodyTemplate(ByteBuffer content, List<String> markers, boolean firstOnly, ContentType contentType, String body) {
+        this.markers = markers.toArray(new String[0]);
+        if (contentType == null) {
+            contentType = ContentType.DEFAULT_TEXT;
+        }
+        this.charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.ISO_8859_1;
+        this.contentType = contentType.toString();
+        if (content == null) {
+            content = ByteBuffer.wrap(body.getBytes(charset));
+        }
+
+        List<ByteBuffer> literalList = new ArrayList<>();
+        List<Integer> slotList = new ArrayList<>();
+        split(content, firstOnly, literalList, slotList);
+        this.literals = literalList.toArray(new ByteBuffer[0]);
+        this.slots = slotList.stream().mapToInt(Integer::intValue).toArray();
+        long length = 0;
+        for (ByteBuffer literal : literals) {
+            length += literal.remaining();
+        }
+        this.literalLength = length;
+        this.fixedEntity = slots.length == 0 ? newEntity(new byte[0][], literalLength) : null;
+    }
+
+    /**
+     * Splits the content at the occurrences of the encoded markers, found with {@link TemplateText#scan}.
+     */
+    private void split(ByteBuffer content, boolean firstOnly, List<ByteBuffer> literalList, List<Integer> slotList) {
+        byte[][] markerBytes = new byte[markers.length][];
+        int[] markerLengths = new int[markers.length];
+        for (int i = 0; i < markers.length; i++) {
+            markerBytes[i] = markers[i].getBytes(charset);
+            markerLengths[i] = markerBytes[i].length;
+        }
+        int[] occurrences = TemplateText.scan(content.limit(), markerLengths, firstOnly,
+                (position, marker) -> startsWith(content, position, markerBytes[marker]));
+
+        int literalStart = 0;
+        for (int i = 0; i < occurrences.length; i += 2) {
+            int position = occurrences[i];
+            int marker = occurrences[i + 1];
+            literalList.add(content.slice(literalStart, position - literalStart));
+            slotList.add(marker);
+            literalStart = position + markerLengths[marker];
+        }
+        literalList.add(content.slice(literalStart, content.limit() - literalStart));
+    }
+
+    private static boolean startsWith(ByteBuffer content, int position, byte[] marker) {
+        for (int i = 0; i < marker.length; i++) {
+            if (content.get(position + i) != marker[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the entity shared by all requests if the body contains no markers.
+     *
+     * @return The shared entity, or {@code null} if the body contains markers.
+     */
+    public HttpEntity getFixedEntity() {
+        return fixedEntity;
+    }
+
+    /**
+     * Builds the body for the given wordlist entry.
+     *
+     * @param entry The wordlist entry whose encoded payloads replace the markers.
+     * @return The entity of the request.
+     */
+    public HttpEntity expand(WordlistEntry entry) {
+        return fixedEntity != null ? fixedEntity : expand(TemplateText.payloadsOf(entry, markers));
+    }
+
+    /**
+     * Builds the body for the given payloads.
+     *
+     * @param payloads The payload of each marker, by marker index.
+     * @return The entity of the request.
+     */
+    HttpEntity expand(String[] payloads) {
+        if (fixedEntity != null) {
+            return fixedEntity;
+        }
+        byte[][] payloadBytes = new byte[markers.length][];
+        long length = literalLength;
+        for (int slot : slots) {
+            if (payloadBytes[slot] == null) {
+                payloadBytes[slot] = payloads[slot].getBytes(charset);
+            }
+            length += payloadBytes[slot].length;
+        }
+        return newEntity(payloadBytes, length);
+    }
+
+    private HttpEntity newEntity(byte[][] payloadBytes, long length) {
+        SegmentEntity entity = new SegmentEntity(payloadBytes, length);
+        entity.setContentType(contentType);
+        return entity;
+    }
+
+    /**
+     * Returns the segments of an entity built by a template, so that a transport can write them to the connection
+     * one after the other without copying them. Mapped segments stay views of the mapping.
+     *
+     * @param entity The entity of a request.
+     * @return Read-only views of the segments, in order, or {@code null} if the entity was not built by a template.
+     */
+    public static ByteBuffer[] segmentsOf(HttpEntity entity) {
+        return entity instanceof BodyTemplate.SegmentEntity segmentEntity ? segmentEntity.segments() : null;
+    }
+
+    /**
+     * Writes a literal segment. Heap segments are written directly; mapped segments are copied through a small
+     * per-thread chunk.
+     */
+    private static void write(ByteBuffer literal, OutputStream outStream) throws IOException {
+        if (literal.hasArray()) {
+            outStream.write(literal.array(), literal.arrayOffset() + literal.position(), literal.remaining());
+            return;
+        }
+        byte[] chunk = chunks.get();
+        for (int offset = 0; offset < literal.remaining(); offset += chunk.length) {
+            int length = Math.min(chunk.length, literal.remaining() - offset);
+            literal.get(literal.position() + offset, chunk, 0, length);
+            outStream.write(chunk, 0, length);
+        }
+    }
+
+    /**
+     * An entity that writes the literal segments of the template and the payloads between them.
+     */
+    private final class SegmentEntity extends AbstractHttpEntity {
+
+        private final byte[][] payloadBytes;
+        private final long length;
+
+        SegmentEntity(byte[][] payloadBytes, long length) {
+            this.payloadBytes = payloadBytes;
+            this.length = length;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public long getContentLength() {
+            return length;
+        }
+
+        @Override
+        public InputStream getContent() {
+            return new SegmentInputStream(payloadBytes);
+        }
+
+        ByteBuffer[] segments() {
+            ByteBuffer[] segments = new ByteBuffer[2 * slots.length + 1];
+            for (int i = 0; i < slots.length; i++) {
+                segments[2 * i] = literals[i].asReadOnlyBuffer();
+                segments[2 * i + 1] = ByteBuffer.wrap(payloadBytes[slots[i]]).asReadOnlyBuffer();
+            }
+            segments[2 * slots.length] = literals[slots.length].asReadOnlyBuffer();
+            return segments;
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream) throws IOException {
+            for (int i = 0; i < slots.length; i++) {
+                write(literals[i], outStream);
+                outStream.write(payloadBytes[slots[i]]);
+            }
+            write(literals[slots.length], outStream);
+            outStream.flush();
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the segments of an entity one after the other, without joining them.
+     */
+    private final class SegmentInputStream extends InputStream {
+
+        private final byte[][] payloadBytes;
+        private int segment = 0; // even: literal segment / 2, odd: payload after that literal
+        private ByteBuffer current;
+
+        SegmentInputStream(byte[][] payloadBytes) {
+            this.payloadBytes = payloadBytes;
+            this.current = literals[0].duplicate();
+        }
+
+        /**
+         * Moves on to the next non-empty segment.
+         *
+         * @return {@code false} if all segments have been read.
+         */
+        private boolean advance() {
+            while (!current.hasRemaining()) {
+                if (segment == 2 * slots.length) {
+                    return false;
+                }
+                segment++;
+                current = segment % 2 == 1
+                        ? ByteBuffer.wrap(payloadBytes[slots[segment / 2]])
+                        : literals[segment / 2].duplicate();
+            }
+            return true;
+        }
+
+        @Override
+        public int read() {
+            return advance() ? current.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!advance()) {
+                return -1;
+            }
+            int count = Math.min(len, current.remaining());
+            current.get(b, off, count);
+            return count;
+        }
+    }
+}
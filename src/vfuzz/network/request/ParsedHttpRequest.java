@@ -1,37 +1,26 @@
 package vfuzz.network.request;
 
-import vfuzz.config.ConfigAccessor;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.AbstractMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
-import java.util.stream.Collectors;
 
 
 /**
  * The {@code ParsedHttpRequest} class represents an HTTP request that has been parsed from a text file.
  *
- * <p>This class allows you to create a request by reading from a file, and it can also replace
- * specific fuzzing markers within the request with fuzzing payloads. The class stores the HTTP method,
- * URL, headers, and body, and provides utility methods for working with the parsed request.
- * </p>
- *
- * <p>It provides methods for:
- * <ul>
- *     <li>Reading a request from a file.</li>
- *     <li>Replacing fuzzing markers with provided payloads in the method, URL, headers, or body.</li>
- *     <li>Generating a deep copy of the request.</li>
- * </ul>
+ * <p>This class allows you to create a request by reading from a file. The class stores the HTTP method,
+ * URL, headers, and body as they appear in the file, including the fuzzing markers. To inject payloads,
+ * the parsed request is compiled into a {@link RequestTemplate}.
  * </p>
  */
 public class ParsedHttpRequest {
     private String method;
     private String url;
-    private Map<String, String> headers = new HashMap<>();
+    private Map<String, String> headers = new LinkedHashMap<>(); // keeps the order of the file
     private String body;
 
     /**
@@ -41,19 +30,6 @@ public class ParsedHttpRequest {
     }
 
 
-    /**
-     * Copy constructor that creates a deep copy of an existing {@code ParsedHttpRequest} object.
-     *
-     * @param that The {@code ParsedHttpRequest} object to copy.
-     */
-    public ParsedHttpRequest(ParsedHttpRequest that) {
-        this.method = that.method;
-        this.url = that.url;
-        this.headers = new HashMap<>(that.headers); // TODO: Ensure that this actually makes a deep copy of the original headers Map
-        this.body = that.body;
-    }
-
-
     /**
      * Parses an HTTP request from a text file and returns a new {@code ParsedHttpRequest} object.
      *
@@ -97,45 +73,6 @@ public class ParsedHttpRequest {
         return request;
     }
 
-    /**
-     * Replaces the fuzzing marker (e.g., "FUZZ") with the provided payload throughout the request.
-     *
-     * <p>This method checks for the fuzz marker in the URL, method, headers, and body, and replaces it with
-     * the given payload. It allows the request to be customized dynamically during fuzzing operations.</p>
-     *
-     * @param payload The fuzzing payload that will replace the fuzz marker.
-     */
-    public void replaceFuzzMarker(String payload) {
-        String fuzzMarker = ConfigAccessor.getConfigValue("fuzzMarker", String.class);
-        // check and replace in URL
-        if(this.url.contains(fuzzMarker)) {
-            this.url = this.url.replace(fuzzMarker, payload);
-            // System.out.println("Replacing " + fuzzMarker + " with " + payload);
-            return;
-        }
-
-        // check and replace in method - included for completeness
-        if (this.method.contains(fuzzMarker)) {
-            this.method = this.method.replace(fuzzMarker, payload);
-            return;
-        }
-
-        // check and replace in Body
-        if (this.body.contains(fuzzMarker)) {
-            this.body = this.body.replace(fuzzMarker, payload);
-            return;
-        }
-
-        // check and replace in headers (key and value)
-        this.headers = this.headers.entrySet().stream()
-                .map(entry -> {
-                    String key = entry.getKey().contains(fuzzMarker) ? entry.getKey().replace(fuzzMarker, payload) : entry.getKey();
-                    String value = entry.getValue().contains(fuzzMarker) ? entry.getValue().replace(fuzzMarker, payload) : entry.getValue();
-                    return new AbstractMap.SimpleEntry<>(key, value);
-                })
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-    }
-
     public String getMethod() {
         return method;
     }
@@ -0,0 +1,100 @@
+package vfuzz.network.request;
+
+import org.apache.http.Header;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.message.BasicHeader;
+import vfuzz.core.wordlist.WordlistEntry;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code RequestTemplate} class is the compiled, immutable form of a {@link ParsedHttpRequest}.
+ *
+ * <p>When the template is compiled, the method, URL, every header name and value and the body are split into literal
+ * segments and the positions of the fuzz markers between them. Parts without a marker are resolved once: the request
+ * URI is parsed, headers become shared {@link Header} instances and the body is compiled into a {@link BodyTemplate}.
+ * Building a request for a payload then only joins the segments of the parts that contain a marker, so a request
+ * file costs about as much per payload as a plain target URL. Every occurrence of every marker is replaced.
+ *
+ * <p>Instances are safe to use from multiple threads.
+ */
+public class RequestTemplate {
+
+    private final String[] markers;
+    private final TemplateText method;
+    private final TemplateText url;
+    private final BodyTemplate body;
+    private final TemplateText[] headerNames;
+    private final TemplateText[] headerValues;
+    private final Header[] fixedHeaders; // null where the header contains a marker
+    private final URI fixedUri;
+
+    /**
+     * Compiles a parsed request.
+     *
+     * @param request The parsed request.
+     * @param markers The markers to replace. For a single fuzz marker, this is the fuzz marker; for named markers,
+     *                all marker names.
+     */
+    public RequestTemplate(ParsedHttpRequest request, List<String> markers) {
+        this.markers = markers.toArray(new String[0]);
+        this.method = TemplateText.compile(request.getMethod(), this.markers, false);
+        this.url = TemplateText.compile(request.getUrl(), this.markers, false);
+        this.body = new BodyTemplate(request.getBody() == null ? "" : request.getBody(), markers, false, null);
+
+        Map<String, String> headers = request.getHeaders();
+        this.headerNames = new TemplateText[headers.size()];
+        this.headerValues = new TemplateText[headers.size()];
+        this.fixedHeaders = new Header[headers.size()];
+        int i = 0;
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            headerNames[i] = TemplateText.compile(header.getKey(), this.markers, false);
+            headerValues[i] = TemplateText.compile(header.getValue(), this.markers, false);
+            if (headerNames[i].isFixed() && headerValues[i].isFixed()) {
+                fixedHeaders[i] = new BasicHeader(header.getKey(), header.getValue());
+            }
+            i++;
+        }
+
+        this.fixedUri = url.isFixed() ? URI.create(url.expand(null)) : null;
+    }
+
+    /**
+     * Builds a request for the given wordlist entry.
+     *
+     * @param entry The wordlist entry whose encoded payloads replace the markers.
+     * @return The request.
+     * @throws IllegalArgumentException If the request method is not GET, HEAD or POST.
+     */
+    public HttpRequestBase expand(WordlistEntry entry) {
+        String[] payloads = TemplateText.payloadsOf(entry, markers);
+
+        HttpRequestBase request;
+        String methodName = method.expand(payloads);
+        switch (methodName.toUpperCase()) {
+            case "GET" -> request = new HttpGet();
+            case "HEAD" -> request = new HttpHead();
+            case "POST" -> {
+                HttpPost postRequest = new HttpPost();
+                postRequest.setEntity(body.expand(payloads));
+                request = postRequest;
+            }
+            default -> throw new IllegalArgumentException("Unsupported request method: " + methodName);
+        }
+        request.setURI(fixedUri != null ? fixedUri : URI.create(url.expand(payloads)));
+
+        Header[] headers = new Header[fixedHeaders.length];
+        for (int i = 0; i < headers.length; i++) {
+            headers[i] = fixedHeaders[i] != null
+                    ? fixedHeaders[i]
+                    : new BasicHeader(headerNames[i].expand(payloads), headerValues[i].expand(payloads));
+        }
+        request.setHeaders(headers);
+        return request;
+    }
+}
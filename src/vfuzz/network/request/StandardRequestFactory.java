@@ -3,13 +3,15 @@ package vfuzz.network.request;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.entity.ContentType;
 import vfuzz.config.ConfigAccessor;
+import vfuzz.config.RunConfig;
 import vfuzz.core.ArgParse;
 import vfuzz.network.strategy.requestmethod.*;
 import vfuzz.network.strategy.requestmode.*;
 import vfuzz.operations.RandomAgent;
+import vfuzz.core.wordlist.WordlistEntry;
 import java.net.URISyntaxException;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The {@code StandardRequestFactory} class is responsible for constructing
@@ -25,20 +27,22 @@ public class StandardRequestFactory implements WebRequestFactory {
 
     private static RequestModeStrategy requestModeStrategy;
     private static RequestMethodStrategy requestMethodStrategy;
+    private static final Map<String, UrlTemplate> templatesByUrl = new ConcurrentHashMap<>();
 
     private final boolean isUserAgentRandomizationEnabled;
-    private final String targetUrl;
+    private final UrlTemplate urlTemplate;
 
     private HttpRequestBase prototypeRequest;
 
     static {
-        switch (ConfigAccessor.getConfigValue("requestMode", RequestMode.class)) {
+        RunConfig runConfig = ConfigAccessor.getRunConfig();
+        switch (runConfig.getRequestMode()) {
             case STANDARD -> requestModeStrategy = new RequestModeStrategyStandard();
             case FUZZ -> requestModeStrategy = new RequestModeStrategyFuzz();
             case VHOST -> requestModeStrategy = new RequestModeStrategyVhost();
             case SUBDOMAIN -> requestModeStrategy = new RequestModeStrategySubdomain();
         }
-        switch (ConfigAccessor.getConfigValue("requestMethod", RequestMethod.class)) {
+        switch (runConfig.getRequestMethod()) {
             case GET -> requestMethodStrategy = new RequestMethodStrategyGET();
             case HEAD -> requestMethodStrategy = new RequestMethodStrategyHEAD();
             case POST -> requestMethodStrategy = new RequestMethodStrategyPOST();
@@ -50,12 +54,13 @@ public class StandardRequestFactory implements WebRequestFactory {
      *
      * <p>This constructor builds a prototype request that can be cloned and customized
      * for individual fuzzing payloads. It also checks the configuration for user-agent
-     * randomization settings.
+     * randomization settings. The target URL is compiled into a {@link UrlTemplate} once per target
+     * and shared by all factories of that target.
      *
      * @param targetUrl The base URL of the target that will be fuzzed.
      */
     public StandardRequestFactory(String targetUrl) {
-        this.targetUrl = targetUrl;
+        this.urlTemplate = templatesByUrl.computeIfAbsent(targetUrl, requestModeStrategy::compile);
         buildPrototypeRequest();
         isUserAgentRandomizationEnabled = ConfigAccessor.getConfigValue("randomAgent", Boolean.class);
 
@@ -115,25 +120,32 @@ public class StandardRequestFactory implements WebRequestFactory {
     /**
      * Builds a customized HTTP request by injecting a fuzzing payload into the URL.
      *
-     * <p>This method encodes the payload, clones the prototype request, and modifies the
-     * request according to the selected request mode (e.g., VHOST, SUBDOMAIN). Additionally,
+     * <p>This method clones the prototype request and modifies the request with the already
+     * encoded payload according to the selected request mode (e.g., VHOST, SUBDOMAIN). Additionally,
      * it randomizes the User-Agent header if that feature is enabled in the configuration.
      *
-     * @param payload The fuzzing payload to be injected into the URL.
+     * @param entry The wordlist entry whose encoded payload is injected into the URL.
      * @return A {@link HttpRequestBase} object representing the fully configured HTTP request.
      */
     @Override
-    public HttpRequestBase buildRequest(String payload) {
-        try {
-            String encodedPayload = URLEncoder.encode(payload, StandardCharsets.UTF_8);
-
-            if (!payload.equals(encodedPayload)) {
-                payload = encodedPayload;
-            }
+    public HttpRequestBase buildRequest(WordlistEntry entry) {
+        return buildRequest(entry, "");
+    }
 
+    /**
+     * Builds a customized HTTP request for a payload and a file extension. The URL is assembled from the
+     * compiled template of the target in a single pass.
+     *
+     * @param entry     The wordlist entry whose encoded payload is injected into the URL.
+     * @param extension The file extension to append to the URL, or an empty string.
+     * @return A {@link HttpRequestBase} object representing the fully configured HTTP request.
+     */
+    @Override
+    public HttpRequestBase buildRequest(WordlistEntry entry, String extension) {
+        try {
             HttpRequestBase clonedRequest = requestMethodStrategy.cloneRequest(prototypeRequest);
 
-            requestModeStrategy.modifyRequest(clonedRequest, targetUrl, payload);
+            requestModeStrategy.modifyRequest(clonedRequest, urlTemplate, entry, extension);
 
             if (isUserAgentRandomizationEnabled) {
                 clonedRequest.setHeader("User-Agent", RandomAgent.get());
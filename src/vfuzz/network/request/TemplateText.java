@@ -0,0 +1,160 @@
+package vfuzz.network.request;
+
+import vfuzz.core.wordlist.WordlistEntry;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A part of a request template, split into literal segments and the markers between them.
+ *
+ * <p>Used by {@link RequestTemplate}, which compiles its text with it once and then only joins the literals with the
+ * payloads of the markers per request, and by {@link WordlistEntry#replaceMarkers(String)}. The markers are found
+ * with {@link #scan}, which {@link BodyTemplate} also uses to split bodies given as bytes.
+ */
+public final class TemplateText {
+
+    /**
+     * Checks whether a marker occurs at a position of the scanned text.
+     */
+    @FunctionalInterface
+    interface MarkerMatcher {
+        boolean matches(int position, int marker);
+    }
+
+    private final String[] literals; // one more literal than markers
+    private final int[] slots;       // index of the marker between two literals
+    private final int literalLength;
+
+    private TemplateText(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Splits the text at the occurrences of the markers.
+     *
+     * @param text      The text containing the markers.
+     * @param markers   The markers to split at.
+     * @param firstOnly Whether only the first occurrence of a marker is split at.
+     * @return The compiled text.
+     */
+    public static TemplateText compile(String text, String[] markers, boolean firstOnly) {
+        int[] markerLengths = new int[markers.length];
+        for (int i = 0; i < markers.length; i++) {
+            markerLengths[i] = markers[i].length();
+        }
+        int[] occurrences = scan(text.length(), markerLengths, firstOnly,
+                (position, marker) -> text.startsWith(markers[marker], position));
+
+        String[] literals = new String[occurrences.length / 2 + 1];
+        int[] slots = new int[occurrences.length / 2];
+        int literalStart = 0;
+        for (int i = 0; i < slots.length; i++) {
+            int position = occurrences[2 * i];
+            slots[i] = occurrences[2 * i + 1];
+            literals[i] = text.substring(literalStart, position);
+            literalStart = position + markers[slots[i]].length();
+        }
+        literals[slots.length] = text.substring(literalStart);
+        return new TemplateText(literals, slots);
+    }
+
+    /**
+     * Finds the occurrences of the markers in a text, scanning it once from left to right. Longer markers are matched
+     * first, so that {@code FUZZ10} is not mistaken for {@code FUZZ1} followed by {@code 0}. Empty markers never
+     * match.
+     *
+     * @param length        The length of the text.
+     * @param markerLengths The length of each marker in the text.
+     * @param firstOnly     Whether the scan stops after the first occurrence.
+     * @param matcher       Checks whether a marker occurs at a position; called for markers that fit into the text.
+     * @return The position and the marker index of each occurrence, one pair after the other.
+     */
+    static int[] scan(int length, int[] markerLengths, boolean firstOnly, MarkerMatcher matcher) {
+        Integer[] matchOrder = new Integer[markerLengths.length];
+        for (int i = 0; i < matchOrder.length; i++) {
+            matchOrder[i] = i;
+        }
+        Arrays.sort(matchOrder, Comparator.comparingInt((Integer i) -> markerLengths[i]).reversed());
+
+        int[] occurrences = new int[8];
+        int count = 0;
+        int position = 0;
+        while (position < length && !(firstOnly && count > 0)) {
+            int matched = -1;
+            for (int i : matchOrder) {
+                if (markerLengths[i] > 0 && position + markerLengths[i] <= length && matcher.matches(position, i)) {
+                    matched = i;
+                    break;
+                }
+            }
+            if (matched < 0) {
+                position++;
+                continue;
+            }
+            if (count == occurrences.length) {
+                occurrences = Arrays.copyOf(occurrences, 2 * count);
+            }
+            occurrences[count++] = position;
+            occurrences[count++] = matched;
+            position += markerLengths[matched];
+        }
+        return Arrays.copyOf(occurrences, count);
+    }
+
+    /**
+     * Looks up the encoded payload of each marker in a wordlist entry. Single-marker entries provide the same payload
+     * for every marker; markers an entry has no payload for are left as they are.
+     *
+     * @param entry   The wordlist entry.
+     * @param markers The markers of the template.
+     * @return The payload of each marker, by marker index.
+     */
+    static String[] payloadsOf(WordlistEntry entry, String[] markers) {
+        String[] payloads = new String[markers.length];
+        for (int i = 0; i < markers.length; i++) {
+            String payload = entry.hasMarkers() ? entry.encodedPayloadsByMarker().get(markers[i]) : entry.encodedPayload();
+            payloads[i] = payload != null ? payload : markers[i];
+        }
+        return payloads;
+    }
+
+    boolean isFixed() {
+        return slots.length == 0;
+    }
+
+    String[] getLiterals() {
+        return literals;
+    }
+
+    int[] getSlots() {
+        return slots;
+    }
+
+    /**
+     * Joins the literals and the payloads of the markers between them.
+     *
+     * @param payloads The payload of each marker. Not read if the text has no markers.
+     * @return The expanded text.
+     */
+    public String expand(String[] payloads) {
+        if (slots.length == 0) {
+            return literals[0];
+        }
+        int length = literalLength;
+        for (int slot : slots) {
+            length += payloads[slot].length();
+        }
+        StringBuilder builder = new StringBuilder(length).append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(payloads[slots[i]]).append(literals[i + 1]);
+        }
+        return builder.toString();
+    }
+}
@@ -1,6 +1,9 @@
 package vfuzz.network.request;
 
 import org.apache.http.client.methods.HttpRequestBase;
+import vfuzz.core.wordlist.WordlistEntry;
+
+import java.net.URI;
 
 /**
  * The {@code WebRequestFactory} interface defines a contract for creating HTTP requests.
@@ -30,6 +33,35 @@ public interface WebRequestFactory {
      * @param payload The fuzzing payload to be included in the request.
      * @return A {@link HttpRequestBase} object representing the HTTP request.
      */
-    HttpRequestBase buildRequest(String payload);
+    default HttpRequestBase buildRequest(String payload) {
+        return buildRequest(WordlistEntry.of(payload));
+    }
+
+    /**
+     * Builds an HTTP request using a wordlist entry whose payload has already been URL-encoded.
+     *
+     * <p>Implementations insert the encoded payload where the payload ends up in a URL, so that no
+     * encoding work is done per request.
+     *
+     * @param entry The wordlist entry holding the payload and its encoded form.
+     * @return A {@link HttpRequestBase} object representing the HTTP request.
+     */
+    HttpRequestBase buildRequest(WordlistEntry entry);
+
+    /**
+     * Builds an HTTP request for a wordlist entry and appends a file extension to its URL.
+     *
+     * <p>By default, the request is built with {@link #buildRequest(WordlistEntry)} and its URI is rebuilt with the
+     * extension. Implementations that assemble the URL themselves override this to do it in one pass.
+     *
+     * @param entry     The wordlist entry holding the payload and its encoded form.
+     * @param extension The file extension to append to the URL.
+     * @return A {@link HttpRequestBase} object representing the HTTP request.
+     */
+    default HttpRequestBase buildRequest(WordlistEntry entry, String extension) {
+        HttpRequestBase request = buildRequest(entry);
+        request.setURI(URI.create(request.getURI() + extension));
+        return request;
+    }
 
 }
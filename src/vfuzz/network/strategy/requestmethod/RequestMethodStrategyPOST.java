@@ -1,13 +1,17 @@
 package vfuzz.network.strategy.requestmethod;
 
+import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import vfuzz.config.ConfigAccessor;
 import vfuzz.core.ArgParse;
+import vfuzz.network.request.BodyTemplate;
 
-import java.io.UnsupportedEncodingException;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
 
 /**
  * The {@code RequestMethodStrategyPOST} class is a concrete implementation of
@@ -16,28 +20,32 @@ import java.io.UnsupportedEncodingException;
  * <p>This class defines how POST requests are cloned and how a prototype request
  * for the POST method is created. It uses the {@link HttpPost} class to represent
  * the POST request in Apache's HTTP client. Additionally, it handles the
- * cloning and creation of POST data via {@link StringEntity}.
+ * cloning and creation of POST data via {@link StringEntity}, or via a memory-mapped
+ * {@link BodyTemplate} if the POST data is read from a file.
  */
 public class RequestMethodStrategyPOST extends RequestMethodStrategy {
 
-    private final StringEntity postData;
+    private final HttpEntity postData;
 
     /**
      * Constructs a new {@code RequestMethodStrategyPOST} by retrieving the POST
-     * data from the configuration and creating a {@link StringEntity} to be
-     * included in the request body.
+     * data from the configuration and creating the entity to be included in the
+     * request body. The entity is shared by all requests.
      */
     public RequestMethodStrategyPOST() {
+        ContentType contentType = ArgParse.getContentType();
+        String postDataFile = ConfigAccessor.getConfigValue("postDataFile", String.class);
         try {
-            ContentType contentType = ArgParse.getContentType();
-            if (contentType != null) {
+            if (postDataFile != null) {
+                postData = BodyTemplate.fromFile(Paths.get(postDataFile), List.of(), false, contentType).getFixedEntity();
+            } else if (contentType != null) {
                 postData = new StringEntity(ConfigAccessor.getConfigValue("postRequestData", String.class), contentType);
             } else {
                 postData = new StringEntity(ConfigAccessor.getConfigValue("postRequestData", String.class));
             }
 
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException("Error cloning HTTP POST request entity", e);
+        } catch (IOException e) {
+            throw new RuntimeException("Error creating HTTP POST request entity", e);
         }
     }
 
@@ -1,6 +1,8 @@
 package vfuzz.network.strategy.requestmode;
 
 import org.apache.http.client.methods.HttpRequestBase;
+import vfuzz.core.wordlist.WordlistEntry;
+
 import java.net.URISyntaxException;
 
 /**
@@ -28,6 +30,53 @@ public abstract class RequestModeStrategy {
      */
     public abstract void modifyRequest(HttpRequestBase request, String url, String payload) throws URISyntaxException;
 
+    /**
+     * Modifies the given HTTP request with the payload of a wordlist entry.
+     *
+     * <p>By default, the encoded payload of the entry is injected with
+     * {@link #modifyRequest(HttpRequestBase, String, String)}. Strategies that support entries with payloads
+     * for several named markers override this method.
+     *
+     * @param request The {@link HttpRequestBase} object representing the HTTP request to be modified.
+     * @param url     The base URL of the target.
+     * @param entry   The wordlist entry to be injected.
+     * @throws URISyntaxException if the URL is malformed or invalid.
+     */
+    public void modifyRequest(HttpRequestBase request, String url, WordlistEntry entry) throws URISyntaxException {
+        modifyRequest(request, url, entry.encodedPayload());
+    }
+
+    /**
+     * Compiles the target URL into a {@link UrlTemplate} for this request mode, so that requests can be built
+     * with {@link #modifyRequest(HttpRequestBase, UrlTemplate, WordlistEntry, String)} without any per-request
+     * string processing of the URL.
+     *
+     * @param url The base URL of the target.
+     * @return The compiled template.
+     */
+    public abstract UrlTemplate compile(String url);
+
+    /**
+     * Modifies the given HTTP request with the payload of a wordlist entry, using a template compiled by
+     * {@link #compile(String)}.
+     *
+     * <p>By default, the request URI is set to the expanded template and the {@code Host} header is set if the
+     * template changes it.
+     *
+     * @param request   The {@link HttpRequestBase} object representing the HTTP request to be modified.
+     * @param template  The compiled URL of the target.
+     * @param entry     The wordlist entry to be injected.
+     * @param extension The file extension to append to the URL, or an empty string.
+     * @throws URISyntaxException if the URL is malformed or invalid.
+     */
+    public void modifyRequest(HttpRequestBase request, UrlTemplate template, WordlistEntry entry, String extension) throws URISyntaxException {
+        request.setURI(template.expand(entry.encodedPayload(), extension));
+        String host = template.expandHost(entry.encodedPayload());
+        if (host != null) {
+            request.setHeader("Host", host);
+        }
+    }
+
     /**
      * Rebuilds the URL for VHOST and SUBDOMAIN modes by injecting the payload
      * into the URL. The payload is inserted before the domain.
@@ -40,10 +89,7 @@ public abstract class RequestModeStrategy {
      * @return The rebuilt URL with the payload injected.
      */
     static String urlRebuilder(String url, String payload) { // rebuilds URL for VHOST and SUBDOMAIN mode
-        String httpPrefix = url.startsWith("https://") ? "https://" : "http://"; // selects which scheme the url starts with.
-        String urlWithoutScheme = url.substring(httpPrefix.length()); // gets everything except the scheme
-        String urlWithoutWww = urlWithoutScheme.startsWith("www") ? urlWithoutScheme.substring(4) : urlWithoutScheme; // cuts "www." if present in the url
-        return httpPrefix + payload + "." + urlWithoutWww; // test this
+        return schemeOf(url) + payload + "." + withoutSchemeAndWww(url); // test this
     }
 
     /**
@@ -57,10 +103,38 @@ public abstract class RequestModeStrategy {
      * @return The rebuilt URL with the payload injected.
      */
     static String vhostRebuilder(String url, String payload) {
-        String httpPrefix = url.startsWith("https://") ? "https://" : "http://"; // selects which scheme the url starts with.
-        String urlWithoutScheme = url.substring(httpPrefix.length()); // gets everything except the scheme
-        String urlWithoutWww = urlWithoutScheme.startsWith("www") ? urlWithoutScheme.substring(4) : urlWithoutScheme; // cuts "www." if present in the url
-        return payload + "." + removeTrailingSlash(urlWithoutWww); // test this
+        return payload + "." + removeTrailingSlash(withoutSchemeAndWww(url)); // test this
+    }
+
+    /**
+     * Returns the scheme of the given URL including "://", defaulting to "http://".
+     *
+     * @param url The URL.
+     * @return "https://" if the URL starts with it, "http://" otherwise.
+     */
+    static String schemeOf(String url) {
+        return url.startsWith("https://") ? "https://" : "http://"; // selects which scheme the url starts with.
+    }
+
+    /**
+     * Returns the given URL without its scheme and without a leading "www.".
+     *
+     * @param url The URL.
+     * @return The host and path of the URL.
+     */
+    static String withoutSchemeAndWww(String url) {
+        String urlWithoutScheme = url.substring(schemeOf(url).length()); // gets everything except the scheme
+        return urlWithoutScheme.startsWith("www") ? urlWithoutScheme.substring(4) : urlWithoutScheme; // cuts "www." if present in the url
+    }
+
+    /**
+     * Appends a trailing slash to the given URL, if it does not end with one.
+     *
+     * @param url The URL.
+     * @return The URL with a trailing slash.
+     */
+    static String withTrailingSlash(String url) {
+        return url.endsWith("/") ? url : url + "/";
     }
 
     /**
@@ -72,7 +146,7 @@ public abstract class RequestModeStrategy {
      * @param url The URL from which to remove the trailing slash.
      * @return The URL without the trailing slash.
      */
-    private static String removeTrailingSlash(String url) {
+    static String removeTrailingSlash(String url) {
         if (url != null && url.endsWith("/")) {
             return url.substring(0, url.length() - 1);
         }
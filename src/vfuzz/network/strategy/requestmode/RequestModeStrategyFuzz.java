@@ -1,16 +1,18 @@
 package vfuzz.network.strategy.requestmode;
 
-import org.apache.http.Header;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
 import vfuzz.config.ConfigAccessor;
 import vfuzz.core.ArgParse;
+import vfuzz.core.wordlist.WordlistEntry;
+import vfuzz.network.request.BodyTemplate;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The {@code RequestModeStrategyFuzz} class is a concrete implementation of
@@ -19,21 +21,48 @@ import java.nio.charset.StandardCharsets;
  * <p>In fuzzing mode, this strategy modifies the request URL by replacing
  * a predefined marker (the "fuzz marker") with a fuzzing payload. This allows
  * the fuzzer to test different payloads dynamically at runtime by injecting
- * them into the URL where the marker is found.
+ * them into the URL where the marker is found. For POST requests, the marker
+ * is replaced in the POST data instead.
  */
 public class RequestModeStrategyFuzz extends RequestModeStrategy {
 
     private final String fuzzMarker;
-    private final ContentType contentType;
+    private final boolean isPost;
+    private final BodyTemplate bodyTemplate;
 
     /**
      * Constructs a new {@code RequestModeStrategyFuzz} by retrieving the
      * fuzz marker from the configuration. The fuzz marker is the placeholder
      * in the URL that will be replaced with fuzzing payloads.
+     *
+     * <p>For POST requests, the configured POST data is compiled into a {@link BodyTemplate} once,
+     * so that every request gets a body that is assembled from byte segments. POST data files are
+     * memory-mapped and streamed from the mapping.
      */
     public RequestModeStrategyFuzz() {
         fuzzMarker = ConfigAccessor.getConfigValue("fuzzMarker", String.class);
-        contentType = ArgParse.getContentType();
+        isPost = ConfigAccessor.getRunConfig().isPost();
+        if (isPost) {
+            List<String> markers = new ArrayList<>(ArgParse.getMarkerWordlists().keySet());
+            boolean namedMarkers = !markers.isEmpty();
+            if (!namedMarkers) {
+                markers.add(fuzzMarker);
+            }
+            String postData = ConfigAccessor.getConfigValue("postRequestData", String.class);
+            String postDataFile = ConfigAccessor.getConfigValue("postDataFile", String.class);
+            // like in the URL, the fuzz marker is replaced once, while named markers are replaced everywhere
+            if (postDataFile != null) {
+                try {
+                    bodyTemplate = BodyTemplate.fromFile(Paths.get(postDataFile), markers, !namedMarkers, ArgParse.getContentType());
+                } catch (IOException e) {
+                    throw new RuntimeException("There was an error reading the POST data from the file:\n" + e.getMessage());
+                }
+            } else {
+                bodyTemplate = new BodyTemplate(postData == null ? "" : postData, markers, !namedMarkers, ArgParse.getContentType());
+            }
+        } else {
+            bodyTemplate = null;
+        }
     }
 
     /**
@@ -51,23 +80,89 @@ public class RequestModeStrategyFuzz extends RequestModeStrategy {
      */
     @Override
     public void modifyRequest(HttpRequestBase request, String requestUrl, String payload) throws URISyntaxException {
-        if ("POST".equals(ConfigAccessor.getConfigValue("requestMethod", String.class))) {
-            try {
-                byte[] contentBytes = ((HttpPost) request).getEntity().getContent().readAllBytes();
-                String content = new String(contentBytes, StandardCharsets.UTF_8).replaceFirst(fuzzMarker, payload);
+        if (isPost) {
+            ((HttpPost) request).setEntity(bodyTemplate.expand(new WordlistEntry(payload, payload)));
+            request.setURI(new URI(requestUrl));
+            return;
+        }
+        request.setURI(new URI(replaceFirstMarker(requestUrl, payload)));
+    }
 
-                if (contentType != null) {
-                    ((HttpPost) request).setEntity(new StringEntity(content, contentType));
-                } else {
-                    ((HttpPost) request).setEntity(new StringEntity(content));
-                }
+    /**
+     * Replaces the first occurrence of the fuzz marker in the given text. The marker and the payload are taken
+     * literally, unlike with {@link String#replaceFirst(String, String)}, which compiles the marker as a regular
+     * expression on every call.
+     */
+    private String replaceFirstMarker(String text, String payload) {
+        int markerIndex = text.indexOf(fuzzMarker);
+        if (markerIndex == -1) {
+            return text;
+        }
+        return text.substring(0, markerIndex) + payload + text.substring(markerIndex + fuzzMarker.length());
+    }
 
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+    /**
+     * Modifies the given HTTP request with the payloads of a wordlist entry. For entries with payloads for
+     * several named markers, every marker is replaced with its own payload; otherwise the fuzz marker is replaced
+     * as in {@link #modifyRequest(HttpRequestBase, String, String)}.
+     *
+     * @param request    The {@link HttpRequestBase} object representing the HTTP request to be modified.
+     * @param requestUrl The original URL containing the markers.
+     * @param entry      The wordlist entry to be injected.
+     * @throws URISyntaxException If the modified URL is invalid or malformed.
+     */
+    @Override
+    public void modifyRequest(HttpRequestBase request, String requestUrl, WordlistEntry entry) throws URISyntaxException {
+        if (isPost) {
+            ((HttpPost) request).setEntity(bodyTemplate.expand(entry));
             request.setURI(new URI(requestUrl));
             return;
         }
-        request.setURI(new URI(requestUrl.replaceFirst(fuzzMarker, payload)));
+        if (!entry.hasMarkers()) {
+            modifyRequest(request, requestUrl, entry.encodedPayload());
+            return;
+        }
+        request.setURI(new URI(entry.replaceMarkers(requestUrl)));
+    }
+
+    /**
+     * Compiles the target URL into a template that replaces the first occurrence of the fuzz marker. For POST
+     * requests, the payload goes into the body and the URL is kept as it is.
+     *
+     * @param url The URL containing the fuzz marker.
+     * @return The compiled template.
+     */
+    @Override
+    public UrlTemplate compile(String url) {
+        int markerIndex = url.indexOf(fuzzMarker);
+        if (isPost || markerIndex == -1) {
+            return new UrlTemplate(url, url, null, null);
+        }
+        return new UrlTemplate(url, url.substring(0, markerIndex), url.substring(markerIndex + fuzzMarker.length()), null);
+    }
+
+    /**
+     * Modifies the given HTTP request with the payloads of a wordlist entry, using a compiled template. Entries with
+     * payloads for several named markers and POST bodies are handled as in
+     * {@link #modifyRequest(HttpRequestBase, String, WordlistEntry)}.
+     *
+     * @param request   The {@link HttpRequestBase} object representing the HTTP request to be modified.
+     * @param template  The compiled URL of the target.
+     * @param entry     The wordlist entry to be injected.
+     * @param extension The file extension to append to the URL, or an empty string.
+     * @throws URISyntaxException If the modified URL is invalid or malformed.
+     */
+    @Override
+    public void modifyRequest(HttpRequestBase request, UrlTemplate template, WordlistEntry entry, String extension) throws URISyntaxException {
+        if (isPost) {
+            ((HttpPost) request).setEntity(bodyTemplate.expand(entry));
+            request.setURI(template.expand(entry.encodedPayload(), extension));
+            return;
+        }
+        if (entry.hasMarkers()) {
+            request.setURI(new URI(entry.replaceMarkers(template.getUrl()) + extension));
+            return;
+        }
+        super.modifyRequest(request, template, entry, extension);
     }
 }
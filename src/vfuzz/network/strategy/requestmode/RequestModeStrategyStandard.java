@@ -32,4 +32,15 @@ public class RequestModeStrategyStandard extends RequestModeStrategy {
         requestUrl = requestUrl.endsWith("/") ? requestUrl : requestUrl + "/";
         request.setURI(new URI(requestUrl + payload));
     }
+
+    /**
+     * Compiles the target URL into a template that appends the payload after a trailing slash.
+     *
+     * @param url The base URL of the target.
+     * @return The compiled template.
+     */
+    @Override
+    public UrlTemplate compile(String url) {
+        return new UrlTemplate(url, withTrailingSlash(url), "", null);
+    }
 }
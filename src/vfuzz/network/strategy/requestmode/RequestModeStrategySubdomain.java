@@ -42,4 +42,18 @@ public class RequestModeStrategySubdomain extends RequestModeStrategy {
         request.setURI(new URI(rebuiltUrl));
         request.setHeader("Host", vhostUrl);
     }
+
+    /**
+     * Compiles the target URL into a template that puts the payload in front of the domain, both in the request
+     * URL and in the {@code Host} header.
+     *
+     * @param url The base URL of the target.
+     * @return The compiled template.
+     */
+    @Override
+    public UrlTemplate compile(String url) {
+        String requestUrl = withTrailingSlash(url);
+        String host = withoutSchemeAndWww(requestUrl);
+        return new UrlTemplate(url, schemeOf(requestUrl), "." + host, removeTrailingSlash(host));
+    }
 }
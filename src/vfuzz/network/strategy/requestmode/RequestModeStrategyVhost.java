@@ -40,4 +40,17 @@ public class RequestModeStrategyVhost extends RequestModeStrategy {
         // Set the "Host" header to the virtual host URL
         request.setHeader("Host", vhostUrl);
     }
+
+    /**
+     * Compiles the target URL into a template that keeps the request URL and puts the payload in front of the
+     * domain in the {@code Host} header.
+     *
+     * @param url The base URL of the target.
+     * @return The compiled template.
+     */
+    @Override
+    public UrlTemplate compile(String url) {
+        String requestUrl = withTrailingSlash(url);
+        return new UrlTemplate(url, requestUrl, null, removeTrailingSlash(withoutSchemeAndWww(requestUrl)));
+    }
 }
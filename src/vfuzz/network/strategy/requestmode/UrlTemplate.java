@@ -0,0 +1,85 @@
+package vfuzz.network.strategy.requestmode;
+
+import java.net.URI;
+
+/**
+ * The {@code UrlTemplate} class holds the target URL of a {@link RequestModeStrategy}, split once into the literal
+ * parts that surround the payload.
+ *
+ * <p>All string work that does not depend on the payload, like adding the trailing slash, locating the fuzz marker
+ * or stripping the scheme for the {@code Host} header, is done when the template is compiled with
+ * {@link RequestModeStrategy#compile(String)}. Expanding the template per request then only joins the literal parts
+ * and the payload in one buffer of the exact size. If the payload is not part of the URL, the parsed {@link URI} is
+ * reused for every request.
+ */
+public class UrlTemplate {
+
+    private final String url;
+    private final String prefix;
+    private final String suffix;
+    private final String hostSuffix;
+    private final URI fixedUri;
+
+    /**
+     * Constructs a template.
+     *
+     * @param url        The target URL the template was compiled from.
+     * @param prefix     The part of the request URL before the payload, or the whole request URL if the payload is not
+     *                   part of it.
+     * @param suffix     The part of the request URL after the payload, or {@code null} if the payload is not part of it.
+     * @param hostSuffix The part of the {@code Host} header after the payload and a dot, or {@code null} if the
+     *                   {@code Host} header is not changed.
+     */
+    UrlTemplate(String url, String prefix, String suffix, String hostSuffix) {
+        this.url = url;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.hostSuffix = hostSuffix;
+        this.fixedUri = suffix == null ? URI.create(prefix) : null;
+    }
+
+    /**
+     * Returns the target URL this template was compiled from.
+     *
+     * @return The target URL.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Builds the request URI for a payload.
+     *
+     * @param payload   The encoded payload.
+     * @param extension The file extension to append to the URL, or an empty string.
+     * @return The request URI.
+     */
+    public URI expand(String payload, String extension) {
+        if (suffix == null) {
+            return extension.isEmpty() ? fixedUri : URI.create(prefix + extension);
+        }
+        return URI.create(new StringBuilder(prefix.length() + payload.length() + suffix.length() + extension.length())
+                .append(prefix)
+                .append(payload)
+                .append(suffix)
+                .append(extension)
+                .toString());
+    }
+
+    /**
+     * Builds the {@code Host} header for a payload.
+     *
+     * @param payload The payload.
+     * @return The {@code Host} header, or {@code null} if this template does not change it.
+     */
+    public String expandHost(String payload) {
+        if (hostSuffix == null) {
+            return null;
+        }
+        return new StringBuilder(payload.length() + 1 + hostSuffix.length())
+                .append(payload)
+                .append('.')
+                .append(hostSuffix)
+                .toString();
+    }
+}
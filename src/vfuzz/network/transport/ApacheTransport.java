@@ -0,0 +1,201 @@
+package vfuzz.network.transport;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.ProtocolException;
+import org.apache.http.entity.ContentType;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.nio.reactor.ConnectingIOReactor;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.HttpContext;
+import vfuzz.network.CustomRedirectStrategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The {@code ApacheTransport} class sends requests with the Apache {@link CloseableHttpAsyncClient}.
+ *
+ * <p>It is the default transport and supports every request: {@code http} and {@code https}, all methods, and
+ * redirects through the {@link CustomRedirectStrategy}. Connections are pooled with up to 2000 connections per
+ * route, and the client speaks HTTP/1.1 only.
+ *
+ * <p>Like the other transports, it does not keep response bodies, but only counts their bytes as they arrive. The
+ * reported length is therefore also known for chunked responses, which have no {@code Content-Length}.
+ */
+public class ApacheTransport implements Transport {
+
+    private static final Pattern STATUS_LINE = Pattern.compile("(\\S+?)/(\\d)\\.(\\d) (\\d{3})");
+
+    private final CloseableHttpAsyncClient client;
+
+    /**
+     * Constructs the transport and starts the client with one I/O thread per processor.
+     *
+     * @param followRedirects Whether redirects are followed.
+     */
+    public ApacheTransport(boolean followRedirects) {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(Runtime.getRuntime().availableProcessors())
+                .setConnectTimeout(5000)
+                .setSoTimeout(5000)
+                .build();
+
+        ConnectingIOReactor ioReactor;
+        try {
+            ioReactor = new DefaultConnectingIOReactor(ioReactorConfig);
+        } catch (IOReactorException e) {
+            throw new RuntimeException(e);
+        }
+
+        PoolingNHttpClientConnectionManager connManager = new PoolingNHttpClientConnectionManager(ioReactor);
+        connManager.setMaxTotal(10000);
+        connManager.setDefaultMaxPerRoute(2000);
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            return 5 * 1000; // keep alive for 5 seconds
+        };
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(5000)
+                .setConnectionRequestTimeout(5000)
+                .setSocketTimeout(5000)
+                .build();
+
+        client = HttpAsyncClients.custom()
+                .setDefaultRequestConfig(requestConfig)
+                .setConnectionManager(connManager)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .setRedirectStrategy(new CustomRedirectStrategy(followRedirects))
+                .build();
+        client.start();
+    }
+
+    @Override
+    public boolean supports(HttpRequestBase request) {
+        return true;
+    }
+
+    /**
+     * Sends a request with the Apache client. Responses that the client rejects with a {@link ProtocolException},
+     * but whose status line is part of the exception message, are still reported with their status code.
+     */
+    @Override
+    public void send(HttpRequestBase request, TransportCallback callback) {
+        client.execute(HttpAsyncMethods.create(request), new ByteCounter(), new FutureCallback<>() {
+            @Override
+            public void completed(TransportResponse response) {
+                callback.completed(response);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                Throwable cause = extractRelevantCause(ex);
+                if (cause instanceof ProtocolException) {
+                    Optional<TransportResponse> response = tryParseHttpResponse(cause.getMessage());
+                    if (response.isPresent()) {
+                        callback.completed(response.get());
+                        return;
+                    }
+                }
+                callback.failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                callback.failed(new CancellationException("Request cancelled"));
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        try {
+            client.close();
+        } catch (IOException e) {
+            System.err.println("Error closing the HTTP client: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Extracts the most relevant cause for an exception.
+     * If no cause is found, returns the given exception.
+     *
+     * @param ex The exception from which to extract the cause.
+     * @return The most relevant cause or the original exception if no cause is found.
+     */
+    private static Throwable extractRelevantCause(Throwable ex) {
+        return (ex.getCause() != null) ? ex.getCause() : ex;
+    }
+
+    /**
+     * Attempts to parse an HTTP response from an exception message containing unexpected response codes.
+     *
+     * @param message The exception message to parse.
+     * @return An {@link Optional} containing the response with the parsed status code and an empty body, if parsing
+     *         is successful.
+     */
+    private static Optional<TransportResponse> tryParseHttpResponse(String message) {
+        if (message == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = STATUS_LINE.matcher(message);
+        if (matcher.find()) {
+            return Optional.of(new TransportResponse(Integer.parseInt(matcher.group(4)), 0));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Consumes a response and only counts the bytes of its body.
+     */
+    private static final class ByteCounter extends AbstractAsyncResponseConsumer<TransportResponse> {
+
+        private static final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(8192)); // one per I/O thread
+
+        private int statusCode;
+        private long count;
+
+        @Override
+        protected void onResponseReceived(HttpResponse response) {
+            statusCode = response.getStatusLine().getStatusCode();
+        }
+
+        @Override
+        protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) {
+        }
+
+        @Override
+        protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+            ByteBuffer buffer = buffers.get();
+            int read;
+            while ((read = decoder.read(buffer)) > 0) {
+                count += read;
+                buffer.clear();
+            }
+        }
+
+        @Override
+        protected TransportResponse buildResult(HttpContext context) {
+            return new TransportResponse(statusCode, count);
+        }
+
+        @Override
+        protected void releaseResources() {
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package vfuzz.network.transport;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.client.methods.HttpRequestBase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@code Http2Transport} class sends requests with the JDK {@link HttpClient} over HTTP/2.
+ *
+ * <p>HTTP/2 multiplexes all requests to an origin as streams over one connection, so a scan needs a single TCP
+ * connection per target instead of the large connection pool of the {@link ApacheTransport}. {@code https} targets
+ * negotiate HTTP/2 with ALPN. Plain {@code http} targets are upgraded to cleartext HTTP/2 (h2c) with the first
+ * request; the JDK client does not support h2c with prior knowledge. Servers that support neither are spoken to in
+ * HTTP/1.1 by the same client.
+ *
+ * <p>The JDK client does not allow to set the {@code Host} header, so requests that carry one, as in virtual host
+ * fuzzing, are left to the {@link ApacheTransport}.
+ */
+public class Http2Transport implements Transport {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    /** Headers that the JDK client sets itself, or that are not allowed in HTTP/2. */
+    private static final Set<String> SKIPPED_HEADERS = Set.of("connection", "content-length", "expect", "host",
+            "keep-alive", "proxy-connection", "te", "transfer-encoding", "upgrade");
+
+    /** Counts the body bytes of a response instead of keeping them. */
+    private static final HttpResponse.BodyHandler<Long> COUNTING_BODY_HANDLER =
+            responseInfo -> HttpResponse.BodySubscribers.fromSubscriber(new ByteCounter(), ByteCounter::count);
+
+    private final HttpClient client;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs the transport.
+     *
+     * @param followRedirects Whether redirects are followed. Redirects from {@code https} to {@code http} are not.
+     */
+    public Http2Transport(boolean followRedirects) {
+        AtomicInteger threadCount = new AtomicInteger(0);
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "http2-client-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(TIMEOUT)
+                .followRedirects(followRedirects ? HttpClient.Redirect.NORMAL : HttpClient.Redirect.NEVER)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Checks whether a request can be sent with this transport.
+     *
+     * @param request The request.
+     * @return {@code true} for requests to absolute {@code http} and {@code https} URIs without a {@code Host}
+     *         header.
+     */
+    @Override
+    public boolean supports(HttpRequestBase request) {
+        URI uri = request.getURI();
+        if (uri == null || uri.getHost() == null) {
+            return false;
+        }
+        String scheme = uri.getScheme();
+        return ("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme)) && !request.containsHeader("Host");
+    }
+
+    @Override
+    public void send(HttpRequestBase request, TransportCallback callback) {
+        HttpRequest httpRequest;
+        try {
+            httpRequest = toHttpRequest(request);
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            // the same request would be rejected again, so it must not be retried
+            callback.failed(new RejectedRequestException("The HTTP/2 client rejected the request: " + e.getMessage(), e));
+            return;
+        }
+        client.sendAsync(httpRequest, COUNTING_BODY_HANDLER).whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                callback.failed(throwable instanceof Exception exception ? exception : new IOException(throwable));
+            } else {
+                callback.completed(new TransportResponse(response.statusCode(), response.body()));
+            }
+        });
+    }
+
+    /**
+     * Stops the threads that complete the responses. The JDK client itself releases its connections once it is no
+     * longer referenced.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Converts a request built by the request factories into a request of the JDK client.
+     *
+     * @throws IllegalArgumentException If the request has a header that the JDK client rejects.
+     */
+    private static HttpRequest toHttpRequest(HttpRequestBase request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.getURI()).timeout(TIMEOUT);
+        for (Header header : request.getAllHeaders()) {
+            if (!SKIPPED_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+                builder.header(header.getName(), header.getValue());
+            }
+        }
+
+        HttpEntity entity = request instanceof HttpEntityEnclosingRequest enclosingRequest ? enclosingRequest.getEntity() : null;
+        if (entity == null) {
+            return builder.method(request.getMethod(), HttpRequest.BodyPublishers.noBody()).build();
+        }
+        if (entity.getContentType() != null && !request.containsHeader("Content-Type")) {
+            builder.header("Content-Type", entity.getContentType().getValue());
+        }
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                return entity.getContent();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        long contentLength = entity.getContentLength();
+        if (contentLength >= 0) {
+            body = HttpRequest.BodyPublishers.fromPublisher(body, contentLength);
+        }
+        return builder.method(request.getMethod(), body).build();
+    }
+
+    /**
+     * Subscribes to a response body and only counts its bytes.
+     */
+    private static final class ByteCounter implements Flow.Subscriber<List<ByteBuffer>> {
+
+        private long count;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            for (ByteBuffer buffer : buffers) {
+                count += buffer.remaining();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        long count() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package vfuzz.network.transport;
+
+import java.io.IOException;
+import java.io.Serial;
+
+/**
+ * Signals that a request cannot be sent at all, e.g. because it has no valid URI or a transport rejects one of its
+ * headers. Unlike other failures, sending the request again cannot help, so the {@link vfuzz.network.WebRequester}
+ * gives up on it instead of retrying it.
+ */
+public class RejectedRequestException extends IOException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public RejectedRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,69 @@
+package vfuzz.network.transport;
+
+import org.apache.http.client.methods.HttpRequestBase;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The {@code Transport} interface defines how the {@link vfuzz.network.WebRequester} puts requests on the wire.
+ *
+ * <p>Requests are built by the request factories as Apache {@link HttpRequestBase} objects, independent of the
+ * transport. A transport only sends them and reports what the filters of the {@link vfuzz.core.QueueConsumer} need
+ * as a {@link TransportResponse}, so it is free to skip or merely count the body.
+ *
+ * <p>A transport may not be able to send every request, e.g. because it lacks TLS. Such requests are sent with the
+ * {@link ApacheTransport}, which supports all of them.
+ *
+ * <p>Implementations are selected with {@code --transport}:
+ * <ul>
+ *     <li>{@code apache}: {@link ApacheTransport}, HTTP/1.1 with the Apache async client. This is the default.</li>
+ *     <li>{@code raw}: {@link vfuzz.network.raw.RawHttpClient}, pipelined HTTP/1.1 for plain {@code http}.</li>
+ *     <li>{@code http2}: {@link Http2Transport}, multiplexed HTTP/2 with the JDK client.</li>
+ * </ul>
+ */
+public interface Transport {
+
+    /**
+     * Checks whether a request can be sent with this transport.
+     *
+     * @param request The request.
+     * @return {@code true} if {@link #send(HttpRequestBase, TransportCallback)} handles the request.
+     */
+    boolean supports(HttpRequestBase request);
+
+    /**
+     * Sends a request asynchronously and reports its outcome to a callback. This is how the
+     * {@link vfuzz.network.WebRequester} sends requests, without allocating futures per request.
+     *
+     * @param request  The request, which must be {@linkplain #supports(HttpRequestBase) supported}.
+     * @param callback The callback that receives the response or the failure.
+     */
+    void send(HttpRequestBase request, TransportCallback callback);
+
+    /**
+     * Sends a request asynchronously.
+     *
+     * @param request The request, which must be {@linkplain #supports(HttpRequestBase) supported}.
+     * @return A future that completes with the response, or exceptionally if the request fails.
+     */
+    default CompletableFuture<TransportResponse> send(HttpRequestBase request) {
+        CompletableFuture<TransportResponse> responseFuture = new CompletableFuture<>();
+        send(request, new TransportCallback() {
+            @Override
+            public void completed(TransportResponse response) {
+                responseFuture.complete(response);
+            }
+
+            @Override
+            public void failed(Exception cause) {
+                responseFuture.completeExceptionally(cause);
+            }
+        });
+        return responseFuture;
+    }
+
+    /**
+     * Releases the threads and connections of the transport. Requests in flight may fail.
+     */
+    void close();
+}
@@ -0,0 +1,25 @@
+package vfuzz.network.transport;
+
+/**
+ * Receives the outcome of a request sent with {@link Transport#send(org.apache.http.client.methods.HttpRequestBase,
+ * TransportCallback)}.
+ *
+ * <p>Exactly one of the methods is called, once per request, usually on an I/O thread of the transport. They
+ * should hand any real work to another thread and must not throw.
+ */
+public interface TransportCallback {
+
+    /**
+     * Called when the response of the request has arrived.
+     *
+     * @param response The response.
+     */
+    void completed(TransportResponse response);
+
+    /**
+     * Called when the request has failed or was cancelled.
+     *
+     * @param cause The reason of the failure.
+     */
+    void failed(Exception cause);
+}
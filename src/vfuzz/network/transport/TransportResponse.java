@@ -0,0 +1,13 @@
+package vfuzz.network.transport;
+
+/**
+ * The part of an HTTP response that a scan looks at.
+ *
+ * <p>Hits are filtered and reported by status code and body length only, so transports do not need to keep the
+ * headers or the body of a response.
+ *
+ * @param statusCode    The status code of the response.
+ * @param contentLength The length of the body in bytes, or {@code -1} if it is unknown.
+ */
+public record TransportResponse(int statusCode, long contentLength) {
+}
@@ -0,0 +1,126 @@
+package vfuzz.operations;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The {@code Budget} class limits how many requests may be sent and for how long, either for a whole scan or for a
+ * single {@link Target}.
+ *
+ * <p>Requests are reserved with {@link #tryConsume(int)} before their payload is taken from the payload source, so
+ * the request limit is never exceeded, no matter how many threads reserve requests concurrently. The time limit
+ * starts when the budget is created. Once either limit is reached, the budget stays exhausted.
+ */
+public class Budget {
+
+    private static final Pattern DURATION_PATTERN = Pattern.compile("(?:(\\d+)h)?(?:(\\d+)m)?(?:(\\d+)s)?|(\\d+)");
+
+    private final long maxRequests;
+    private final long deadlineNanos;
+    private final boolean hasDeadline;
+    private final AtomicLong consumedRequests = new AtomicLong(0);
+    private volatile long exhaustedAtNanos;
+    private volatile boolean exhausted = false;
+
+    /**
+     * Constructs a budget that starts now.
+     *
+     * @param maxRequests The maximum number of requests, or {@code null} for no limit.
+     * @param maxDuration The maximum duration, or {@code null} for no limit.
+     */
+    public Budget(Long maxRequests, Duration maxDuration) {
+        this.maxRequests = maxRequests == null ? Long.MAX_VALUE : maxRequests;
+        this.hasDeadline = maxDuration != null;
+        this.deadlineNanos = hasDeadline ? System.nanoTime() + maxDuration.toNanos() : 0;
+    }
+
+    /**
+     * Reserves the given number of requests.
+     *
+     * @param requests The number of requests to reserve.
+     * @return {@code true} if the requests may be sent, {@code false} if the budget is exhausted.
+     */
+    public boolean tryConsume(int requests) {
+        if (isExhausted()) {
+            return false;
+        }
+        if (consumedRequests.addAndGet(requests) > maxRequests) {
+            exhaust();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the budget is exhausted, either because all requests have been reserved, the time is up or
+     * {@link #exhaust()} has been called.
+     *
+     * @return {@code true} if no further requests may be sent.
+     */
+    public boolean isExhausted() {
+        if (!exhausted && hasDeadline && System.nanoTime() - deadlineNanos >= 0) {
+            exhaust();
+        }
+        return exhausted;
+    }
+
+    /**
+     * Marks the budget as exhausted. Calling this more than once keeps the time of the first call.
+     */
+    public synchronized void exhaust() {
+        if (!exhausted) {
+            exhaustedAtNanos = System.nanoTime();
+            exhausted = true;
+        }
+    }
+
+    /**
+     * Returns the time at which the budget was exhausted.
+     *
+     * @return The value of {@link System#nanoTime()} when the budget was exhausted. Only meaningful once
+     *         {@link #isExhausted()} returns {@code true}.
+     */
+    public long getExhaustedAtNanos() {
+        return exhaustedAtNanos;
+    }
+
+    /**
+     * Parses a duration like {@code 90}, {@code 90s}, {@code 15m} or {@code 1h30m}. A plain number is seconds, but
+     * every number of a combined duration needs its unit, so {@code 1h30} is rejected rather than guessed.
+     *
+     * @param value The duration to parse.
+     * @return The parsed duration.
+     * @throws IllegalArgumentException If the value is not a valid, positive duration, or too long to be measured in
+     *                                  nanoseconds.
+     */
+    public static Duration parseDuration(String value) {
+        Matcher matcher = DURATION_PATTERN.matcher(value.trim().toLowerCase());
+        if (value.isBlank() || !matcher.matches()) {
+            throw new IllegalArgumentException("Invalid duration: " + value);
+        }
+        Duration duration = Duration.ZERO;
+        try {
+            if (matcher.group(1) != null) {
+                duration = duration.plusHours(Long.parseLong(matcher.group(1)));
+            }
+            if (matcher.group(2) != null) {
+                duration = duration.plusMinutes(Long.parseLong(matcher.group(2)));
+            }
+            if (matcher.group(3) != null) {
+                duration = duration.plusSeconds(Long.parseLong(matcher.group(3)));
+            }
+            if (matcher.group(4) != null) {
+                duration = duration.plusSeconds(Long.parseLong(matcher.group(4)));
+            }
+            duration.toNanos(); // the deadline is kept in nanoseconds
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Duration is too long: " + value, e);
+        }
+        if (duration.isZero()) {
+            throw new IllegalArgumentException("Duration must be positive: " + value);
+        }
+        return duration;
+    }
+}
@@ -1,7 +1,7 @@
 package vfuzz.operations;
 
-import org.apache.http.HttpResponse;
 import vfuzz.config.ConfigAccessor;
+import vfuzz.network.transport.TransportResponse;
 
 import java.util.*;
 
@@ -26,8 +26,8 @@ public record Hit(String url, int statusCode, int length, String payload) {
      * @param url        The URL that was hit.
      * @param response   The HTTP response that was received for the hit
      */
-    public static void hitIfNotPresent(String url, HttpResponse response, String payload) {
-        Hit newHit = new Hit(url, response.getStatusLine().getStatusCode(), (int) response.getEntity().getContentLength(), payload);
+    public static void hitIfNotPresent(String url, TransportResponse response, String payload) {
+        Hit newHit = new Hit(url, response.statusCode(), (int) response.contentLength(), payload);
         synchronized (hits) {
             if (!hits.containsValue(newHit)) {
                 hits.put(hitCounter, newHit);
@@ -0,0 +1,125 @@
+package vfuzz.operations;
+
+import vfuzz.core.QueueConsumer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code HitStatistics} class keeps a local, per-user record of how often each payload has produced a
+ * {@link Hit} across all past scans.
+ *
+ * <p>The statistics are stored in {@code ~/.vfuzz/hit-statistics.tsv}, one {@code count<TAB>payload} line per
+ * payload. At the end of every scan the payloads of the new hits are added to the file. With the
+ * {@code --learned-order} flag, these counts are used to fuzz the most productive payloads of a wordlist first.
+ *
+ * <p>Payloads are normalized like in {@link QueueConsumer}, so that entries which only differ by surrounding
+ * whitespace or a trailing slash share a count. Only the {@value #MAX_ENTRIES} payloads with the highest counts
+ * are kept, which bounds the size of the file.
+ */
+public class HitStatistics {
+
+    private static final int MAX_ENTRIES = 100_000;
+
+    private HitStatistics() {}
+
+    /**
+     * Returns the location of the statistics file of the current user.
+     *
+     * @return The path of the statistics file.
+     */
+    public static Path getStatisticsFile() {
+        return Paths.get(System.getProperty("user.home"), ".vfuzz", "hit-statistics.tsv");
+    }
+
+    /**
+     * Normalizes a payload to the key under which its hits are counted.
+     *
+     * @param payload The raw payload.
+     * @return The normalized payload.
+     */
+    public static String normalize(String payload) {
+        return QueueConsumer.normalizeUrl(payload.trim());
+    }
+
+    /**
+     * Loads the hit counts of the current user. Malformed lines are skipped.
+     *
+     * @return A map from normalized payload to the number of hits it has produced. Empty if no statistics exist yet.
+     * @throws IOException If the statistics file exists but cannot be read.
+     */
+    public static Map<String, Integer> load() throws IOException {
+        Map<String, Integer> counts = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(getStatisticsFile(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab <= 0) {
+                    continue;
+                }
+                try {
+                    counts.merge(line.substring(tab + 1), Integer.parseInt(line.substring(0, tab)), Integer::sum);
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return counts;
+        }
+        return counts;
+    }
+
+    /**
+     * Adds the payloads of the given hits to the statistics file of the current user. The file is replaced
+     * atomically, so an interrupted update leaves the previous statistics intact.
+     *
+     * @param hits The hits of the current scan.
+     * @throws IOException If the statistics cannot be read or written.
+     */
+    public static synchronized void record(Collection<Hit> hits) throws IOException {
+        List<String> payloads = new ArrayList<>();
+        synchronized (Hit.getHitMap()) {
+            for (Hit hit : hits) {
+                if (hit.payload() != null) {
+                    payloads.add(normalize(hit.payload()));
+                }
+            }
+        }
+        if (payloads.isEmpty()) {
+            return;
+        }
+
+        Map<String, Integer> counts = load();
+        for (String payload : payloads) {
+            counts.merge(payload, 1, Integer::sum);
+        }
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+
+        Path file = getStatisticsFile();
+        Files.createDirectories(file.getParent());
+        Path temporaryFile = Files.createTempFile(file.getParent(), "hit-statistics-", ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Integer> entry : entries.subList(0, Math.min(entries.size(), MAX_ENTRIES))) {
+                    writer.write(entry.getValue() + "\t" + entry.getKey());
+                    writer.newLine();
+                }
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+}
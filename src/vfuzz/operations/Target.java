@@ -1,10 +1,12 @@
 package vfuzz.operations;
 
 import vfuzz.config.ConfigAccessor;
-import vfuzz.core.WordlistReader;
+import vfuzz.config.RunConfig;
+import vfuzz.core.ArgParse;
+import vfuzz.core.payload.PayloadSource;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -14,7 +16,11 @@ import java.util.concurrent.atomic.AtomicInteger;
  *
  * <p>Targets are stored in a thread-safe {@link CopyOnWriteArrayList} to ensure safe access
  * and modification in a multithreaded environment. The class also tracks the status of
- * each target and manages wordlist reading for the fuzzing process.
+ * each target and holds the {@link PayloadSource} its payloads are taken from.
+ *
+ * <p>Every target has its own {@link Budget}, configured with {@code --target-max-requests} and
+ * {@code --target-max-duration}. A target whose budget runs out, or that is stopped because the budget of the
+ * whole scan ran out, counts as fuzzed as soon as its requests in flight have completed.
  */
 public class Target {
 
@@ -23,10 +29,13 @@ public class Target {
     private final String url; // the url to fuzz
     private final int recursionDepth; // the recursion depth at which this is fuzzed
     private int allocatedThreads;
-    private final WordlistReader wordlistReader;
+    private final PayloadSource payloadSource;
+    private final int requestsPerPayload;
     private final AtomicBoolean allocationComplete = new AtomicBoolean(false);
-    public AtomicInteger successfulRequestCount = new AtomicInteger();
-    public AtomicInteger sentRequestsCount = new AtomicInteger();
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+    private final Budget budget;
+    public AtomicLong successfulRequestCount = new AtomicLong();
+    public AtomicLong sentRequestsCount = new AtomicLong();
 
     /**
      * Checks if a target has been allocated CompletableFutures for each payload.
@@ -54,18 +63,21 @@ public class Target {
 
 
     /**
-     * Constructs a new {@code Target} with the specified URL, recursion depth, and wordlist reader.
+     * Constructs a new {@code Target} with the specified URL, recursion depth, and payload source.
      *
      * <p>The new target is automatically added to the global list of targets.
      *
      * @param url The URL to be fuzzed.
      * @param recursionDepth The recursion depth for this target.
-     * @param wordlistReader The wordlist reader for fuzzing payloads.
+     * @param payloadSource The source of the fuzzing payloads, e.g. a wordlist or a generator.
+     * @param runConfig The compiled configuration of the scan.
      */
-    public Target(String url, int recursionDepth, WordlistReader wordlistReader) {
+    public Target(String url, int recursionDepth, PayloadSource payloadSource, RunConfig runConfig) {
         this.url = url;
         this.recursionDepth = recursionDepth;
-        this.wordlistReader = wordlistReader;
+        this.payloadSource = payloadSource;
+        this.requestsPerPayload = runConfig.getRequestsPerPayload();
+        this.budget = new Budget(ConfigAccessor.getConfigValue("targetMaxRequests", Long.class), ArgParse.getDuration("targetMaxDuration"));
         targets.add(this);
     }
 
@@ -89,8 +101,39 @@ public class Target {
         this.allocatedThreads = allocatedThreads;
     }
 
-    public WordlistReader getWordlistReader() {
-        return wordlistReader;
+    public PayloadSource getPayloadSource() {
+        return payloadSource;
+    }
+
+    public Budget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Stops this target before all of its payloads have been processed, e.g. because a budget ran out, and closes
+     * its payload source.
+     *
+     * @return {@code true} if the target was stopped by this call, {@code false} if it had already been stopped.
+     */
+    public boolean stop() {
+        if (!stopped.compareAndSet(false, true)) {
+            return false;
+        }
+        payloadSource.close();
+        return true;
+    }
+
+    public boolean isStopped() {
+        return stopped.get();
+    }
+
+    /**
+     * Stops all targets, e.g. because the budget of the scan ran out.
+     */
+    public static void stopAll() {
+        for (Target target : targets) {
+            target.stop();
+        }
     }
 
     public boolean setAllocationComplete() {
@@ -105,16 +148,38 @@ public class Target {
         sentRequestsCount.incrementAndGet();
     }
 
-    public static int getSentRequestsForAllTargets() {
-        int sentRequests = 0;
+    public static long getSentRequestsForAllTargets() {
+        long sentRequests = 0;
         for (Target target : targets) {
             sentRequests += target.sentRequestsCount.get();
         }
         return sentRequests;
     }
 
+    /**
+     * Checks whether all payloads of this target have been processed. The number of payloads is only final once
+     * the payload source is complete, which for streamed wordlists happens when the input is closed.
+     *
+     * @return {@code true} if the payload source is complete and a response has been processed for every payload,
+     * or if the target has been stopped and a response has been processed for every request sent.
+     */
     public boolean targetIsFuzzed() {
-        return successfulRequestCount.get() == wordlistReader.getWordlistSize() * fileExtensionCount();
+        if (isStopped()) {
+            return successfulRequestCount.get() >= sentRequestsCount.get();
+        }
+        if (!payloadSource.isComplete()) {
+            return false;
+        }
+        return successfulRequestCount.get() == getRequestNumberToSend();
+    }
+
+    /**
+     * Returns the number of requests needed to fuzz this target completely, one per payload and file extension.
+     *
+     * @return The (current or estimated) number of requests for this target.
+     */
+    public long getRequestNumberToSend() {
+        return payloadSource.getSize() * requestsPerPayload;
     }
 
     public static boolean allTargetsAreFuzzed() {
@@ -126,26 +191,33 @@ public class Target {
         return true;
     }
 
-    private int fileExtensionCount() {
-        String fileExtensions = ConfigAccessor.getConfigValue("fileExtensions", String.class);
-        if (fileExtensions == null) {
-            return 1;
+    public static long getSuccessfulRequestsForAllTargets() {
+        long successfulRequests = 0;
+        for (Target target : targets) {
+            successfulRequests += target.successfulRequestCount.get();
         }
-        return fileExtensions.split(",").length;
+        return successfulRequests;
     }
 
-    public static int getSuccessfulRequestsForAllTargets() {
-        int successfulRequests = 0;
+    /**
+     * Checks whether the total number of requests is an estimate, because the payload source of at least one
+     * target is not complete yet.
+     *
+     * @return {@code true} if {@link #getTotalRequestNumberToSend()} is an estimate, {@code false} otherwise.
+     */
+    public static boolean isTotalRequestNumberEstimated() {
         for (Target target : targets) {
-            successfulRequests += target.successfulRequestCount.get();
+            if (!target.getPayloadSource().isComplete()) {
+                return true;
+            }
         }
-        return successfulRequests;
+        return false;
     }
 
-    public static int getTotalRequestNumberToSend() {
-        int total = 0;
+    public static long getTotalRequestNumberToSend() {
+        long total = 0;
         for (Target target : targets) {
-            total += target.getWordlistReader().getWordlistSize();
+            total += target.getPayloadSource().getSize();
         }
         return total;
     }
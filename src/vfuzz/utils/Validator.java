@@ -1,5 +1,9 @@
 package vfuzz.utils;
 
+import vfuzz.core.encoding.EncoderPipeline;
+import vfuzz.core.payload.PayloadGenerator;
+import vfuzz.operations.Budget;
+
 import java.io.File;
 
 public class Validator {
@@ -82,4 +86,84 @@ public class Validator {
     public static boolean isValidStatusCodeCsv(String csv) {
         return csv.matches("^\\d+(\\-\\d+)?(,\\d+(\\-\\d+)?)*$");
     }
-}
\ No newline at end of file
+
+    /**
+     * Validates a comma-separated list of {@code depth:path} pairs used to assign wordlists to recursion depths.
+     * Each depth must be a positive integer and each path must point to an existing file.
+     *
+     * @param csv The CSV string of depth and path pairs to validate.
+     * @return {@code true} if every pair is valid, {@code false} otherwise.
+     */
+    public static boolean isValidDepthWordlistCsv(String csv) {
+        for (String entry : csv.split(",")) {
+            String[] parts = entry.split(":", 2);
+            if (parts.length != 2 || !isIntegerInRange(parts[0].trim(), 1, Integer.MAX_VALUE) || !isValidFile(parts[1].trim())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Validates a duration like {@code 90s}, {@code 15m} or {@code 1h30m}, see {@link Budget#parseDuration(String)}.
+     *
+     * @param value The duration to validate.
+     * @return {@code true} if the duration is valid, positive and not too long, {@code false} otherwise.
+     */
+    public static boolean isValidDuration(String value) {
+        try {
+            Budget.parseDuration(value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Validates an encoder chain, optionally prefixed with the marker it applies to ({@code MARKER=chain}).
+     *
+     * @param value The encoder chain to validate.
+     * @return {@code true} if every encoder of the chain is known, {@code false} otherwise.
+     */
+    public static boolean isValidEncoderChain(String value) {
+        String chain = value.substring(value.indexOf('=') + 1);
+        if (chain.contains(";")) {
+            return false;
+        }
+        try {
+            EncoderPipeline.of(chain);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Validates a {@code MARKER=path} pair that binds a fuzz marker to a word list. The marker must not be empty
+     * and the path must point to an existing file.
+     *
+     * @param value The marker and path pair to validate.
+     * @return {@code true} if the pair is valid, {@code false} otherwise.
+     */
+    public static boolean isValidMarkerWordlist(String value) {
+        String[] parts = value.split("=", 2);
+        return parts.length == 2 && !parts[0].isBlank() && !parts[0].contains(",") && isValidFile(parts[1].trim());
+    }
+
+    /**
+     * Validates a payload generator specification as accepted by {@link PayloadGenerator#fromSpec(String)}.
+     * If the specification is invalid, the reason is printed.
+     *
+     * @param spec The generator specification to validate.
+     * @return {@code true} if the specification describes a valid generator, {@code false} otherwise.
+     */
+    public static boolean isValidPayloadGenerator(String spec) {
+        try {
+            PayloadGenerator.fromSpec(spec);
+            return true;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return false;
+        }
+    }
+}